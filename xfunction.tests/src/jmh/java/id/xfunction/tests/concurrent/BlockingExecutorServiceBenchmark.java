@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.concurrent;
+
+import id.xfunction.concurrent.BlockingExecutorService;
+import id.xfunction.concurrent.WorkStealingBlockingExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link BlockingExecutorService} with {@link WorkStealingBlockingExecutorService} when
+ * tasks are submitted by 1, 4 and 32 producer threads. Queues are kept full so producers are
+ * blocked by the back-pressure and the score is the rate at which tasks are executed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockingExecutorServiceBenchmark {
+
+    private static final int CAPACITY = 1024;
+
+    @Param({"BlockingExecutorService", "WorkStealingBlockingExecutorService"})
+    public String type;
+
+    /** Number of worker threads */
+    @Param({"4", "32"})
+    public int poolSize;
+
+    /** Amount of CPU work done by each task, see {@link Blackhole#consumeCPU(long)} */
+    @Param({"0"})
+    public long work;
+
+    private ExecutorService executor;
+    private Runnable task;
+
+    @Setup
+    public void setup() {
+        executor =
+                switch (type) {
+                    case "BlockingExecutorService" ->
+                            new BlockingExecutorService(poolSize, CAPACITY);
+                    case "WorkStealingBlockingExecutorService" ->
+                            new WorkStealingBlockingExecutorService(poolSize, CAPACITY);
+                    default -> throw new IllegalArgumentException(type);
+                };
+        var work = this.work;
+        task = () -> Blackhole.consumeCPU(work);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void execute_1_thread() {
+        executor.execute(task);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void execute_4_threads() {
+        executor.execute(task);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void execute_32_threads() {
+        executor.execute(task);
+    }
+}
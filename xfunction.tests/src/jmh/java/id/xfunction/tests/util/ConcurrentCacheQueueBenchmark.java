@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.util;
+
+import id.xfunction.util.CacheQueue;
+import id.xfunction.util.ConcurrentCacheQueue;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link CacheQueue} guarded by a global lock with {@link ConcurrentCacheQueue} (with 1
+ * and 16 segments) when items are added by 1, 4 and 16 producer threads. Half of the added items
+ * are already in the queue.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentCacheQueueBenchmark {
+
+    private static final int MAX_SIZE = 10_000;
+    private static final int KEYS_COUNT = 1 << 16;
+
+    @State(Scope.Benchmark)
+    public static class Queue {
+        @Param({
+            "CacheQueue_FIFO",
+            "CacheQueue_LRU",
+            "ConcurrentCacheQueue_1",
+            "ConcurrentCacheQueue_16"
+        })
+        public String type;
+
+        Collection<Integer> queue;
+
+        // keys are boxed in advance so that benchmark does not measure the allocation
+        Integer[] keys = new Integer[KEYS_COUNT];
+
+        @Setup
+        public void setup() {
+            queue =
+                    switch (type) {
+                        case "CacheQueue_FIFO" ->
+                                Collections.synchronizedCollection(new CacheQueue<>(MAX_SIZE));
+                        case "CacheQueue_LRU" ->
+                                Collections.synchronizedCollection(
+                                        new CacheQueue<>(MAX_SIZE, CacheQueue.EvictionPolicy.LRU));
+                        case "ConcurrentCacheQueue_16" -> new ConcurrentCacheQueue<>(MAX_SIZE, 16);
+                        case "ConcurrentCacheQueue_1" -> new ConcurrentCacheQueue<>(MAX_SIZE, 1);
+                        default -> throw new IllegalArgumentException(type);
+                    };
+            var rand = new Random(0);
+            for (int i = 0; i < keys.length; i++) keys[i] = rand.nextInt(2 * MAX_SIZE);
+            for (int i = 0; i < MAX_SIZE; i++) queue.add(keys[i]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        int pos = new Random().nextInt(KEYS_COUNT);
+
+        Integer next(Integer[] keys) {
+            pos = (pos + 1) & (KEYS_COUNT - 1);
+            return keys[pos];
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean add_1_thread(Queue q, Producer p) {
+        return q.queue.add(p.next(q.keys));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean add_4_threads(Queue q, Producer p) {
+        return q.queue.add(p.next(q.keys));
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean add_16_threads(Queue q, Producer p) {
+        return q.queue.add(p.next(q.keys));
+    }
+}
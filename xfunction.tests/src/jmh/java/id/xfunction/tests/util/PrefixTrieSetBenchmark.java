@@ -0,0 +1,180 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.util;
+
+import id.xfunction.util.PrefixTrieSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups of logger names in {@link PrefixTrieSet} with 10K logger name prefixes (the way {@link
+ * id.xfunction.logging.LoggerNameFilter} uses it). About half of the names match some prefix.
+ *
+ * <p>Baseline is the previous trie implementation with {@link TreeMap} in every node which is
+ * recursive and copies the name with {@link String#toCharArray()}.
+ *
+ * <p>Run with "-prof gc" to check that trie lookups do not allocate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrefixTrieSetBenchmark {
+
+    private static final int PREFIXES_COUNT = 10_000;
+    private static final int NAMES_COUNT = 1 << 16;
+    private static final String[] WORDS = {
+        "app",
+        "core",
+        "net",
+        "io",
+        "util",
+        "service",
+        "impl",
+        "api",
+        "client",
+        "server",
+        "model",
+        "db",
+        "cache",
+        "config",
+        "event",
+        "metrics",
+        "security",
+        "web",
+        "task",
+        "proto"
+    };
+
+    private PrefixTrieSet trie = new PrefixTrieSet();
+    private TreeMapTrie baseline = new TreeMapTrie();
+    private String[] names = new String[NAMES_COUNT];
+    private int pos;
+
+    @Setup
+    public void setup() {
+        var rand = new Random(0);
+        var prefixes = new String[PREFIXES_COUNT];
+        for (int i = 0; i < prefixes.length; i++) {
+            prefixes[i] = "id.xfunction" + randomPackage(rand) + ".module" + i;
+            trie.add(prefixes[i]);
+            baseline.add(prefixes[i]);
+        }
+        for (int i = 0; i < names.length; i++) {
+            var prefix = prefixes[rand.nextInt(prefixes.length)];
+            // names which do not match share their package with some prefix
+            if (rand.nextBoolean()) prefix = prefix.substring(0, prefix.lastIndexOf('.'));
+            names[i] = prefix + randomPackage(rand) + ".Class" + rand.nextInt(100);
+        }
+    }
+
+    private static String randomPackage(Random rand) {
+        var buf = new StringBuilder();
+        for (int i = 1 + rand.nextInt(3); i > 0; i--) {
+            buf.append('.').append(WORDS[rand.nextInt(WORDS.length)]);
+        }
+        return buf.toString();
+    }
+
+    private String nextName() {
+        pos = (pos + 1) & (NAMES_COUNT - 1);
+        return names[pos];
+    }
+
+    @Benchmark
+    public boolean hasPrefixOf() {
+        return trie.hasPrefixOf(nextName());
+    }
+
+    @Benchmark
+    public int longestPrefixMatch() {
+        return trie.longestPrefixMatch(nextName());
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return trie.contains(nextName());
+    }
+
+    @Benchmark
+    public int baseline_prefixMatches() {
+        return baseline.prefixMatches(nextName());
+    }
+
+    @Benchmark
+    public boolean baseline_contains() {
+        return baseline.contains(nextName());
+    }
+
+    /** Lookups of the previous {@link PrefixTrieSet} implementation */
+    private static class TreeMapTrie {
+        private static class Node {
+            // leaf node contains pair <\0, null>
+            Map<Character, Node> childs = new TreeMap<>();
+        }
+
+        private Node root = new Node();
+
+        void add(String str) {
+            Node node = root;
+            for (char ch : (str + '\0').toCharArray()) {
+                node = node.childs.computeIfAbsent(ch, k -> k == '\0' ? null : new Node());
+            }
+        }
+
+        boolean contains(String s) {
+            return contains(root, s.toCharArray(), 0);
+        }
+
+        private boolean contains(Node n, char[] a, int i) {
+            if (n == null) return false;
+            if (i == a.length) return n.childs.containsKey('\0');
+            return contains(n.childs.get(a[i]), a, i + 1);
+        }
+
+        int prefixMatches(String str) {
+            return prefixMatches(root, str.toCharArray(), new boolean[1], 0);
+        }
+
+        private int prefixMatches(Node n, char[] a, boolean[] isMatched, int i) {
+            if (n.childs.containsKey('\0')) {
+                isMatched[0] = true;
+                return 0;
+            }
+            if (i == a.length) return 0;
+            Node next = n.childs.get(a[i]);
+            if (next == null) return 0;
+            int ret = prefixMatches(next, a, isMatched, i + 1);
+            return isMatched[0] ? ret + 1 : 0;
+        }
+    }
+}
@@ -20,6 +20,10 @@ package id.xfunction.tests.concurrent;
 import static java.util.stream.IntStream.range;
 
 import id.xfunction.concurrent.BlockingExecutorService;
+import id.xfunction.concurrent.ExecutorMetrics;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -57,4 +61,142 @@ public class BlockingExecutorServiceTest {
         executor.shutdown();
         executor.awaitTermination(Integer.MAX_VALUE, TimeUnit.DAYS);
     }
+
+    @Test
+    public void test_metrics() throws Exception {
+        var metrics = new ExecutorMetrics();
+        var executor = new BlockingExecutorService(1, 1, metrics);
+        var started = new CountDownLatch(1);
+        var latch = new CountDownLatch(1);
+        executor.submit(
+                () -> {
+                    started.countDown();
+                    latch.await();
+                    return 0;
+                });
+        started.await();
+        // queue is full now
+        var failure = executor.submit(() -> Integer.parseInt("a"));
+        var blocked = new Thread(() -> executor.execute(() -> {}));
+        blocked.start();
+        Thread.sleep(200);
+        latch.countDown();
+        blocked.join();
+        Assertions.assertThrows(ExecutionException.class, failure::get);
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        var snapshot = metrics.snapshot();
+        Assertions.assertEquals(3, snapshot.getSubmittedCount());
+        Assertions.assertEquals(3, snapshot.getCompletedCount());
+        Assertions.assertEquals(1, snapshot.getFailedCount());
+        Assertions.assertEquals(1, snapshot.getBlockedSubmitCount());
+        Assertions.assertEquals(0, snapshot.getQueueSize());
+        Assertions.assertEquals(3, snapshot.getRunTimeNanos().getCount());
+        Assertions.assertEquals(3, snapshot.getQueueWaitNanos().getCount());
+        Assertions.assertTrue(snapshot.getBlockedSubmitNanos().getMax() > 100_000_000);
+        Assertions.assertTrue(snapshot.getRunTimeNanos().getMax() > 100_000_000);
+        Assertions.assertEquals(1, snapshot.getQueueDepth().getMax());
+    }
+
+    @Test
+    public void test_metrics_sampling() throws Exception {
+        var metrics = new ExecutorMetrics(100);
+        var executor = new BlockingExecutorService(2, 10, metrics);
+        range(0, 10_000).forEach(i -> executor.execute(() -> {}));
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        var snapshot = metrics.snapshot();
+        Assertions.assertEquals(10_000, snapshot.getSubmittedCount());
+        Assertions.assertEquals(10_000, snapshot.getCompletedCount());
+        var sampled = snapshot.getRunTimeNanos().getCount();
+        Assertions.assertTrue(20 < sampled && sampled < 300, "" + sampled);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "0, 4, 10, 100000",
+        "1, 4, 1, 100000",
+        "2, 200, 7, 100000",
+    })
+    public void test_adaptive_different_params(int core, int max, int capacity, int total)
+            throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        var executor =
+                new BlockingExecutorService(
+                        core, max, Duration.ofMillis(1), Duration.ofMillis(1), capacity);
+        range(0, total).forEach(i -> executor.submit(() -> counter.incrementAndGet()));
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        Assertions.assertEquals(total, counter.get());
+        Assertions.assertEquals(0, executor.getPoolSize());
+    }
+
+    @Test
+    public void test_adaptive_retire_on_shutdown() throws Exception {
+        // workers above the core size keep retiring while tasks are still being submitted
+        for (int i = 0; i < 100; i++) {
+            var counter = new AtomicInteger();
+            var executor =
+                    new BlockingExecutorService(
+                            0, 2, Duration.ofNanos(1), Duration.ofMillis(1), 100);
+            for (int j = 0; j < 50; j++) executor.execute(counter::incrementAndGet);
+            executor.shutdown();
+            Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+            Assertions.assertEquals(50, counter.get());
+        }
+    }
+
+    @Test
+    public void test_adaptive_grow_and_retire() throws Exception {
+        var executor =
+                new BlockingExecutorService(
+                        1, 4, Duration.ofMillis(200), Duration.ofMillis(10), 100);
+        Assertions.assertEquals(1, executor.getPoolSize());
+        var latch = new CountDownLatch(1);
+        var started = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            executor.execute(
+                    () -> {
+                        started.incrementAndGet();
+                        try {
+                            latch.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                    });
+            Thread.sleep(50);
+        }
+        // each worker which picks up a task after waiting adds another one
+        Assertions.assertEquals(4, executor.getPoolSize());
+        Assertions.assertEquals(4, started.get());
+        latch.countDown();
+        while (executor.getPoolSize() > 1) Thread.sleep(50);
+        Assertions.assertEquals(10, started.get());
+        Assertions.assertEquals(1, executor.getPoolSize());
+        executor.execute(started::incrementAndGet);
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        Assertions.assertEquals(11, started.get());
+    }
+
+    @Test
+    public void test_adaptive_grow_on_full_queue() throws Exception {
+        var executor =
+                new BlockingExecutorService(0, 2, Duration.ofMinutes(1), Duration.ofMinutes(1), 1);
+        var latch = new CountDownLatch(1);
+        Runnable task =
+                () -> {
+                    try {
+                        latch.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                };
+        executor.execute(task);
+        Assertions.assertEquals(1, executor.getPoolSize());
+        while (executor.getPoolSize() == 1) executor.execute(task);
+        latch.countDown();
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
 }
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.concurrent;
+
+import id.xfunction.concurrent.EventLoopExecutorService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EventLoopExecutorServiceTest {
+
+    @Test
+    public void test_order_and_thread() throws Exception {
+        var loop = new EventLoopExecutorService("test-loop");
+        var producers = 4;
+        var n = 100_000;
+        var results = new ArrayList<List<Integer>>();
+        var threads = new CopyOnWriteArrayList<Thread>();
+        for (int p = 0; p < producers; p++) results.add(new ArrayList<>());
+        var latch = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            var result = results.get(p);
+            new Thread(
+                            () -> {
+                                for (int i = 0; i < n; i++) {
+                                    var v = i;
+                                    loop.execute(
+                                            () -> {
+                                                result.add(v);
+                                                if (threads.isEmpty())
+                                                    threads.add(Thread.currentThread());
+                                            });
+                                }
+                                latch.countDown();
+                            })
+                    .start();
+        }
+        Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        loop.shutdown();
+        Assertions.assertTrue(loop.awaitTermination(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(loop.isTerminated());
+        Assertions.assertEquals("test-loop", threads.get(0).getName());
+        for (var result : results) {
+            Assertions.assertEquals(n, result.size());
+            for (int i = 0; i < n; i++) Assertions.assertEquals(i, result.get(i));
+        }
+    }
+
+    @Test
+    public void test_inline() throws Exception {
+        var loop = new EventLoopExecutorService("test-loop");
+        var order = new CopyOnWriteArrayList<Integer>();
+        loop.submit(
+                        () -> {
+                            Assertions.assertTrue(loop.isInEventLoop());
+                            order.add(1);
+                            loop.execute(() -> order.add(2));
+                            order.add(3);
+                        })
+                .get();
+        Assertions.assertFalse(loop.isInEventLoop());
+        Assertions.assertEquals("[1, 2, 3]", order.toString());
+
+        // recursion deeper than inline limit should not overflow the stack
+        var counter = new AtomicInteger();
+        var done = new CountDownLatch(1);
+        var task =
+                new Runnable() {
+                    public void run() {
+                        if (counter.incrementAndGet() == 100_000) done.countDown();
+                        else loop.execute(this);
+                    }
+                };
+        loop.execute(task);
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        loop.shutdown();
+        Assertions.assertTrue(loop.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void test_shutdown() throws Exception {
+        var loop = new EventLoopExecutorService("test-loop");
+        var counter = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        loop.execute(
+                () -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+        for (int i = 0; i < 100; i++) loop.execute(counter::incrementAndGet);
+        loop.shutdown();
+        Assertions.assertTrue(loop.isShutdown());
+        Assertions.assertFalse(loop.isTerminated());
+        Assertions.assertThrows(RejectedExecutionException.class, () -> loop.execute(() -> {}));
+        start.countDown();
+        Assertions.assertTrue(loop.awaitTermination(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(100, counter.get());
+    }
+
+    @Test
+    public void test_shutdownNow() throws Exception {
+        var loop = new EventLoopExecutorService("test-loop");
+        var start = new CountDownLatch(1);
+        var isInterrupted = new CountDownLatch(1);
+        loop.execute(
+                () -> {
+                    start.countDown();
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        isInterrupted.countDown();
+                    }
+                });
+        Assertions.assertTrue(start.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) loop.execute(() -> {});
+        Assertions.assertEquals(100, loop.shutdownNow().size());
+        Assertions.assertTrue(isInterrupted.await(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(loop.awaitTermination(10, TimeUnit.SECONDS));
+        Assertions.assertThrows(RejectedExecutionException.class, () -> loop.execute(() -> {}));
+    }
+
+    @Test
+    public void test_shutdownNow_from_batch() throws Exception {
+        var loop = new EventLoopExecutorService("test-loop");
+        var start = new CountDownLatch(1);
+        loop.execute(
+                () -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+        // all tasks below are taken by the loop thread as one batch
+        var pending = new ArrayList<Runnable>();
+        loop.execute(() -> pending.addAll(loop.shutdownNow()));
+        var counter = new AtomicInteger();
+        for (int i = 0; i < 10; i++) loop.execute(counter::incrementAndGet);
+        start.countDown();
+        Assertions.assertTrue(loop.awaitTermination(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(10, pending.size());
+        Assertions.assertEquals(0, counter.get());
+        pending.forEach(Runnable::run);
+        Assertions.assertEquals(10, counter.get());
+    }
+
+    @Test
+    public void test_execute_null() throws Exception {
+        var loop = new EventLoopExecutorService("test-loop");
+        Assertions.assertThrows(NullPointerException.class, () -> loop.execute(null));
+        loop.shutdown();
+        Assertions.assertTrue(loop.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void test_schedule() throws Exception {
+        var loop = new EventLoopExecutorService("test-loop");
+        long start = System.nanoTime();
+        var future = loop.schedule(() -> loop.isInEventLoop(), 50, TimeUnit.MILLISECONDS);
+        Assertions.assertTrue(future.get(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+
+        var counter = new AtomicInteger();
+        var latch = new CountDownLatch(5);
+        var periodic =
+                loop.scheduleAtFixedRate(
+                        () -> {
+                            counter.incrementAndGet();
+                            latch.countDown();
+                        },
+                        0,
+                        10,
+                        TimeUnit.MILLISECONDS);
+        Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(periodic.cancel(false));
+        Thread.sleep(50);
+        var count = counter.get();
+        Thread.sleep(50);
+        Assertions.assertEquals(count, counter.get());
+
+        var pending = loop.scheduleWithFixedDelay(() -> {}, 1, 1, TimeUnit.HOURS);
+        loop.shutdown();
+        Assertions.assertTrue(pending.isCancelled());
+        Assertions.assertTrue(loop.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void test_SubmissionPublisher() throws Exception {
+        var loop = new EventLoopExecutorService("test-loop");
+        var received = new ArrayList<Integer>();
+        var done = new CountDownLatch(1);
+        var threads = new CopyOnWriteArrayList<String>();
+        try (var publisher = new SubmissionPublisher<Integer>(loop, 16)) {
+            publisher.subscribe(
+                    new Subscriber<Integer>() {
+                        private Subscription subscription;
+
+                        @Override
+                        public void onSubscribe(Subscription subscription) {
+                            this.subscription = subscription;
+                            subscription.request(1);
+                        }
+
+                        @Override
+                        public void onNext(Integer item) {
+                            if (threads.isEmpty()) threads.add(Thread.currentThread().getName());
+                            received.add(item);
+                            subscription.request(1);
+                        }
+
+                        @Override
+                        public void onError(Throwable throwable) {}
+
+                        @Override
+                        public void onComplete() {
+                            done.countDown();
+                        }
+                    });
+            for (int i = 0; i < 1000; i++) publisher.submit(i);
+        }
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(1000, received.size());
+        for (int i = 0; i < 1000; i++) Assertions.assertEquals(i, received.get(i));
+        Assertions.assertEquals("[test-loop]", threads.toString());
+        loop.shutdown();
+        Assertions.assertTrue(loop.awaitTermination(10, TimeUnit.SECONDS));
+    }
+}
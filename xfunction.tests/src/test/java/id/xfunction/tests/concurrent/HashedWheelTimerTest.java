@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.concurrent;
+
+import id.xfunction.concurrent.DelayedCompletableFuture;
+import id.xfunction.concurrent.HashedWheelTimer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HashedWheelTimerTest {
+
+    @Test
+    public void test_never_expires_early() throws Exception {
+        try (var timer = new HashedWheelTimer(Duration.ofMillis(10), 8)) {
+            // delays longer than the wheel to cover multiple rounds
+            long[] delays = {0, 5, 30, 95, 250};
+            var latch = new CountDownLatch(delays.length);
+            var errors = new ArrayList<String>();
+            for (var delay : delays) {
+                long start = System.nanoTime();
+                timer.newTimeout(
+                        () -> {
+                            long elapsed = System.nanoTime() - start;
+                            if (elapsed < TimeUnit.MILLISECONDS.toNanos(delay))
+                                errors.add(delay + " expired after " + elapsed + "ns");
+                            latch.countDown();
+                        },
+                        delay,
+                        TimeUnit.MILLISECONDS);
+            }
+            Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+            Assertions.assertEquals("[]", errors.toString());
+            Assertions.assertEquals(0, timer.getPendingCount());
+        }
+    }
+
+    @Test
+    public void test_cancel() throws Exception {
+        try (var timer = new HashedWheelTimer()) {
+            var isExecuted = new AtomicBoolean();
+            var timeout = timer.newTimeout(() -> isExecuted.set(true), Duration.ofMillis(50));
+            var latch = new CountDownLatch(1);
+            var other = timer.newTimeout(latch::countDown, Duration.ofMillis(100));
+            Assertions.assertTrue(timeout.cancel());
+            Assertions.assertFalse(timeout.cancel());
+            Assertions.assertTrue(timeout.isCancelled());
+            Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+            Assertions.assertFalse(isExecuted.get());
+            Assertions.assertTrue(other.isExpired());
+            Assertions.assertFalse(other.cancel());
+            Assertions.assertEquals(0, timer.getPendingCount());
+        }
+    }
+
+    @Test
+    public void test_many_timeouts() throws Exception {
+        try (var timer = new HashedWheelTimer()) {
+            var n = 1_000_000;
+            var counter = new AtomicInteger();
+            var timeouts = new ArrayList<HashedWheelTimer.Timeout>(n);
+            for (int i = 0; i < n; i++) {
+                timeouts.add(
+                        timer.newTimeout(
+                                counter::incrementAndGet, i % 1000, TimeUnit.MILLISECONDS));
+            }
+            var cancelled = 0;
+            for (int i = 1; i < n; i += 2) if (timeouts.get(i).cancel()) cancelled++;
+            Assertions.assertTrue(cancelled > 0);
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (timer.getPendingCount() > 0 && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+            Assertions.assertEquals(0, timer.getPendingCount());
+            Assertions.assertEquals(n - cancelled, counter.get());
+        }
+    }
+
+    @Test
+    public void test_close() throws Exception {
+        var timer = new HashedWheelTimer();
+        var timeout = timer.newTimeout(() -> {}, Duration.ofHours(1));
+        timer.close();
+        Thread.sleep(50);
+        Assertions.assertTrue(timeout.isCancelled());
+        Assertions.assertThrows(
+                IllegalStateException.class, () -> timer.newTimeout(() -> {}, Duration.ZERO));
+        Assertions.assertThrows(
+                IllegalStateException.class, () -> HashedWheelTimer.getDefault().close());
+    }
+
+    @Test
+    public void test_DelayedCompletableFuture() throws Exception {
+        long start = System.nanoTime();
+        Assertions.assertEquals("a", new DelayedCompletableFuture<>("a", 100).get());
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        var future = new DelayedCompletableFuture<>("b", Duration.ofHours(1));
+        long pending = HashedWheelTimer.getDefault().getPendingCount();
+        future.cancel(false);
+        Thread.sleep(50);
+        Assertions.assertEquals(pending - 1, HashedWheelTimer.getDefault().getPendingCount());
+    }
+}
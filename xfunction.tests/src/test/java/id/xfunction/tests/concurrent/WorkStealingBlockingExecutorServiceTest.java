@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.concurrent;
+
+import static java.util.stream.IntStream.range;
+
+import id.xfunction.concurrent.WorkStealingBlockingExecutorService;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+public class WorkStealingBlockingExecutorServiceTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "1, 100, 100000",
+        "100, 1, 100000",
+        "100, 100, 1",
+        "100, 10, 100000",
+        "1, 1, 100000",
+        "11, 1, 100000",
+        "11, 7, 100000",
+        "200, 7, 100000",
+    })
+    public void test_different_params(int numOfThreads, int capacity, int total) throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = new WorkStealingBlockingExecutorService(numOfThreads, capacity);
+        range(0, total).forEach(i -> executor.submit(() -> counter.incrementAndGet()));
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        Assertions.assertEquals(total, counter.get());
+        Assertions.assertTrue(executor.isTerminated());
+    }
+
+    @Test
+    public void test_shutdown() throws Exception {
+        ExecutorService executor = new WorkStealingBlockingExecutorService(100);
+        Thread.sleep(100);
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {}));
+    }
+
+    @Test
+    public void test_shutdown_concurrent_producers() throws Exception {
+        var executor = new WorkStealingBlockingExecutorService(3, 30);
+        var counter = new AtomicInteger();
+        var accepted = new AtomicInteger();
+        var producers = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            var producer =
+                    new Thread(
+                            () -> {
+                                try {
+                                    while (true) {
+                                        executor.execute(counter::incrementAndGet);
+                                        accepted.incrementAndGet();
+                                    }
+                                } catch (RejectedExecutionException e) {
+                                    // expected
+                                }
+                            });
+            producer.start();
+            producers.add(producer);
+        }
+        Thread.sleep(100);
+        executor.shutdown();
+        for (var producer : producers) producer.join();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        // every task which was accepted should run
+        Assertions.assertEquals(accepted.get(), counter.get());
+    }
+
+    @Test
+    public void test_blocking() throws Exception {
+        var executor = new WorkStealingBlockingExecutorService(2, 2);
+        var latch = new CountDownLatch(1);
+        var started = new CountDownLatch(2);
+        for (int i = 0; i < 4; i++) {
+            executor.execute(
+                    () -> {
+                        started.countDown();
+                        try {
+                            latch.await();
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                    });
+            if (i == 1) started.await();
+        }
+        var producer = new Thread(() -> executor.execute(() -> {}));
+        producer.start();
+        producer.join(300);
+        // both workers are busy and both queues are full
+        Assertions.assertTrue(producer.isAlive());
+        latch.countDown();
+        producer.join();
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void test_steal_from_busy_worker() throws Exception {
+        var executor = new WorkStealingBlockingExecutorService(2, 100);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        executor.execute(
+                () -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+        started.await();
+        // tasks which are put to the queue of the busy worker should be stolen by the idle one
+        for (int i = 0; i < 10; i++) executor.execute(release::countDown);
+        Assertions.assertTrue(release.await(1, TimeUnit.MINUTES));
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void test_shutdownNow() throws Exception {
+        var executor = new WorkStealingBlockingExecutorService(3, 300);
+        var counter = new AtomicInteger();
+        var interrupted = new AtomicInteger();
+        var started = new CountDownLatch(3);
+        for (int i = 0; i < 200; i++) {
+            executor.execute(
+                    () -> {
+                        counter.incrementAndGet();
+                        started.countDown();
+                        try {
+                            Thread.sleep(10_000);
+                        } catch (InterruptedException e) {
+                            interrupted.incrementAndGet();
+                        }
+                    });
+        }
+        started.await();
+        var pending = executor.shutdownNow();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        Assertions.assertEquals(200, counter.get() + pending.size());
+        Assertions.assertTrue(interrupted.get() >= 3);
+        Assertions.assertTrue(pending.size() >= 190);
+    }
+}
@@ -19,7 +19,11 @@ package id.xfunction.tests.concurrent.flow;
 
 import id.xfunction.concurrent.flow.FixedCollectorSubscriber;
 import id.xfunction.concurrent.flow.ReplayablePublisher;
+import id.xfunction.util.ConcurrentCacheQueue;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -93,4 +97,27 @@ public class ReplayablePublisherTest {
             Assertions.assertEquals("[1, 2]", subscriber.getFuture().get().toString());
         }
     }
+
+    @Test
+    public void test_concurrent_cache() throws Exception {
+        try (var publisher = new ReplayablePublisher<Integer>(new ConcurrentCacheQueue<>(100))) {
+            var subscriber = new FixedCollectorSubscriber<>(new HashSet<Integer>(), 400);
+            publisher.subscribe(subscriber);
+            var executor = Executors.newFixedThreadPool(4);
+            for (int t = 0; t < 4; t++) {
+                int offset = t * 100;
+                executor.submit(
+                        () -> {
+                            for (int i = 0; i < 100; i++) {
+                                publisher.submit(offset + i);
+                                publisher.submit(offset + i);
+                            }
+                        });
+            }
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            Assertions.assertEquals(400, subscriber.getFuture().get().size());
+            Assertions.assertEquals(100, publisher.getNumberOfItemsInCache());
+        }
+    }
 }
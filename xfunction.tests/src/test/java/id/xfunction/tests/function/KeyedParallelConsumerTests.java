@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import id.xfunction.PreconditionException;
+import id.xfunction.function.KeyedParallelConsumer;
+import id.xfunction.function.ParallelConsumer.OverflowPolicy;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class KeyedParallelConsumerTests {
+
+    @Test
+    public void test_order_per_key() throws Exception {
+        int KEYS = 100;
+        int COUNT = 200_000;
+        var lastSeen = new ConcurrentHashMap<Integer, Integer>();
+        var threads = new ConcurrentHashMap<Integer, Thread>();
+        var errors = new AtomicInteger();
+        try (var consumer =
+                new KeyedParallelConsumer<int[]>(
+                        item -> item[0],
+                        item -> {
+                            var prev = lastSeen.put(item[0], item[1]);
+                            if (prev != null && prev >= item[1]) errors.incrementAndGet();
+                            var thread = threads.putIfAbsent(item[0], Thread.currentThread());
+                            if (thread != null && thread != Thread.currentThread())
+                                errors.incrementAndGet();
+                        })) {
+            for (int i = 0; i < COUNT; i++) consumer.accept(new int[] {i % KEYS, i});
+        }
+        assertEquals(0, errors.get());
+        assertEquals(KEYS, lastSeen.size());
+        for (int k = 0; k < KEYS; k++) assertEquals(COUNT - KEYS + k, lastSeen.get(k));
+    }
+
+    @Test
+    public void test_stats() throws Exception {
+        var LANES = 4;
+        try (var consumer =
+                new KeyedParallelConsumer<Integer>(
+                        i -> i, i -> {}, LANES, 16, OverflowPolicy.BLOCK, true, (t, ex) -> {})) {
+            // key 0 is hot: every third item
+            for (int i = 1; i < 30_000; i++) consumer.accept(i % 3 == 0 ? 0 : i);
+            consumer.close();
+            var stats = consumer.getStats();
+            System.out.println(stats);
+            assertEquals(29_999, sumOf(stats.getConsumedCounts()));
+            var hot = stats.getHotKeys().get(0);
+            assertEquals(0, hot.getKey());
+            assertEquals(consumer.laneOf(0), hot.getLane());
+            assertTrue(hot.getMinCount() >= 9_999);
+            assertTrue(hot.getCount() >= hot.getMinCount());
+            assertTrue(stats.getSkew() > 1.5, "" + stats.getSkew());
+        }
+        try (var consumer = new KeyedParallelConsumer<Integer>(i -> i, i -> {})) {
+            assertThrows(PreconditionException.class, consumer::getStats);
+        }
+    }
+
+    @Test
+    public void test_reject() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        try (var consumer =
+                new KeyedParallelConsumer<Integer>(
+                        i -> 1,
+                        i -> {
+                            started.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                throw new RuntimeException(e);
+                            }
+                        },
+                        2,
+                        2,
+                        OverflowPolicy.REJECT,
+                        false,
+                        (t, ex) -> {})) {
+            consumer.accept(0);
+            started.await();
+            consumer.accept(1);
+            consumer.accept(2);
+            assertThrows(RejectedExecutionException.class, () -> consumer.accept(3));
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void test_close_interrupted() throws Exception {
+        var consumed = new AtomicInteger();
+        var consumer = new KeyedParallelConsumer<Integer>(i -> i, i -> consumed.incrementAndGet());
+        for (int i = 0; i < 100; i++) consumer.accept(i);
+        Thread.currentThread().interrupt();
+        // consumer is closed even if it is not waited for
+        assertThrows(InterruptedException.class, consumer::close);
+        consumer.close();
+        assertEquals(100, consumed.get());
+        assertThrows(RejectedExecutionException.class, () -> consumer.accept(1));
+    }
+
+    @Test
+    public void test_close_concurrent_producers() throws Exception {
+        for (int n = 0; n < 20; n++) {
+            var consumed = new AtomicInteger();
+            var accepted = new AtomicInteger();
+            var consumer =
+                    new KeyedParallelConsumer<Integer>(
+                            i -> i,
+                            i -> consumed.incrementAndGet(),
+                            2,
+                            16,
+                            OverflowPolicy.BLOCK,
+                            true,
+                            (t, ex) -> {});
+            var producers = new ArrayList<Thread>();
+            for (int i = 0; i < 4; i++) {
+                var producer =
+                        new Thread(
+                                () -> {
+                                    try {
+                                        for (int j = 0; ; j++) {
+                                            consumer.accept(j);
+                                            accepted.incrementAndGet();
+                                        }
+                                    } catch (RejectedExecutionException e) {
+                                        // expected
+                                    }
+                                });
+                producer.start();
+                producers.add(producer);
+            }
+            Thread.sleep(10);
+            consumer.close();
+            for (var producer : producers) producer.join();
+            // every accepted item should be consumed before close returns
+            assertEquals(accepted.get(), consumed.get());
+            assertEquals(accepted.get(), sumOf(consumer.getStats().getConsumedCounts()));
+        }
+    }
+
+    private static long sumOf(long[] a) {
+        long sum = 0;
+        for (var v : a) sum += v;
+        return sum;
+    }
+}
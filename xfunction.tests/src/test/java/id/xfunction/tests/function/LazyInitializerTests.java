@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import id.xfunction.function.ExpiringLazyInitializer;
+import id.xfunction.function.LazyInitializer;
+import id.xfunction.function.RefreshAheadLazyInitializer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class LazyInitializerTests {
+
+    @Test
+    public void test_initialized_once() throws Exception {
+        var counter = new AtomicInteger();
+        var lazy =
+                new LazyInitializer<>(
+                        () -> {
+                            Thread.yield();
+                            return "v" + counter.incrementAndGet();
+                        });
+        assertEquals("<not yet initialized>", lazy.toString());
+        var threads = new ArrayList<Thread>();
+        var errors = new AtomicInteger();
+        for (int i = 0; i < 8; i++) {
+            var t =
+                    new Thread(
+                            () -> {
+                                for (int j = 0; j < 1000; j++)
+                                    if (!"v1".equals(lazy.get())) errors.incrementAndGet();
+                            });
+            threads.add(t);
+            t.start();
+        }
+        for (var t : threads) t.join();
+        assertEquals(0, errors.get());
+        assertEquals(1, counter.get());
+        assertEquals("v1", lazy.toString());
+    }
+
+    @Test
+    public void test_expiring() throws Exception {
+        var counter = new AtomicInteger();
+        var lazy =
+                new ExpiringLazyInitializer<>(
+                        () -> counter.incrementAndGet(), Duration.ofMillis(100));
+        assertEquals(1, lazy.get());
+        assertEquals(1, lazy.get());
+        Thread.sleep(150);
+        assertEquals(2, lazy.get());
+        lazy.invalidate();
+        assertEquals(3, lazy.get());
+
+        var failing =
+                new ExpiringLazyInitializer<String>(
+                        () -> {
+                            if (counter.incrementAndGet() == 4) throw new RuntimeException();
+                            return "ok";
+                        },
+                        Duration.ofHours(1));
+        assertThrows(RuntimeException.class, failing::get);
+        assertEquals("ok", failing.get());
+    }
+
+    @Test
+    public void test_refresh_ahead() throws Exception {
+        var counter = new AtomicInteger();
+        var reloadStarted = new CountDownLatch(1);
+        var reloadRelease = new CountDownLatch(1);
+        var lazy =
+                new RefreshAheadLazyInitializer<>(
+                        () -> {
+                            var v = counter.incrementAndGet();
+                            if (v == 2) {
+                                reloadStarted.countDown();
+                                try {
+                                    reloadRelease.await();
+                                } catch (InterruptedException e) {
+                                    throw new RuntimeException(e);
+                                }
+                            }
+                            return v;
+                        },
+                        Duration.ofSeconds(10),
+                        Duration.ofMillis(9_900));
+        assertEquals(1, lazy.get());
+        Thread.sleep(150);
+        // inside refresh window, reload is running but readers keep getting old value
+        assertEquals(1, lazy.get());
+        assertTrue(reloadStarted.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) assertEquals(1, lazy.get());
+        reloadRelease.countDown();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (lazy.get() != 2 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertEquals(2, lazy.get());
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void test_refresh_ahead_failure() throws Exception {
+        var counter = new AtomicInteger();
+        var lazy =
+                new RefreshAheadLazyInitializer<>(
+                        () -> {
+                            var v = counter.incrementAndGet();
+                            if (v == 2) throw new RuntimeException("reload failed");
+                            return v;
+                        },
+                        Duration.ofSeconds(10),
+                        Duration.ofMillis(9_900),
+                        Runnable::run);
+        assertEquals(1, lazy.get());
+        Thread.sleep(150);
+        // failed reload keeps old value, next reader retries
+        assertEquals(1, lazy.get());
+        assertEquals(1, lazy.get());
+        assertEquals(3, lazy.get());
+    }
+}
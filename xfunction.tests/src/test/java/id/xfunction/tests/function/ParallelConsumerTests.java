@@ -19,10 +19,18 @@ package id.xfunction.tests.function;
 
 import static java.util.stream.IntStream.range;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import id.xfunction.function.ParallelConsumer;
+import id.xfunction.function.ParallelConsumer.OverflowPolicy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
@@ -73,4 +81,170 @@ public class ParallelConsumerTests {
         }
         System.out.println("Total: " + c);
     }
+
+    @Test
+    public void test_bounded_reject() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var c = new AtomicInteger();
+        try (var consumer =
+                new ParallelConsumer<Integer>(
+                        i -> {
+                            started.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                throw new RuntimeException(e);
+                            }
+                            c.incrementAndGet();
+                        },
+                        1,
+                        3,
+                        OverflowPolicy.REJECT)) {
+            consumer.accept(0);
+            started.await();
+            for (int i = 1; i <= 3; i++) consumer.accept(i);
+            assertThrows(RejectedExecutionException.class, () -> consumer.accept(4));
+            release.countDown();
+        }
+        assertEquals(4, c.get());
+    }
+
+    @Test
+    public void test_bounded_block() throws Exception {
+        int COUNT = 100_000;
+        AtomicInteger c = new AtomicInteger();
+        try (var consumer =
+                new ParallelConsumer<Integer>(
+                        s -> c.incrementAndGet(), 4, 8, OverflowPolicy.BLOCK)) {
+            range(0, COUNT).boxed().forEach(consumer);
+        }
+        assertEquals(COUNT, c.get());
+        var closed = new ParallelConsumer<Integer>(s -> {});
+        closed.close();
+        assertThrows(RejectedExecutionException.class, () -> closed.accept(1));
+    }
+
+    @Test
+    public void test_bounded_block_capacity() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        try (var consumer =
+                new ParallelConsumer<Integer>(
+                        i -> {
+                            started.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                throw new RuntimeException(e);
+                            }
+                        },
+                        1,
+                        2,
+                        OverflowPolicy.BLOCK)) {
+            consumer.accept(0);
+            started.await();
+            consumer.accept(1);
+            consumer.accept(2);
+            var producer = new Thread(() -> consumer.accept(3));
+            producer.start();
+            producer.join(300);
+            // two items are already waiting in the queue
+            assertTrue(producer.isAlive());
+            release.countDown();
+            producer.join();
+        }
+    }
+
+    @Test
+    public void test_close_concurrent_producers() throws Exception {
+        for (int n = 0; n < 20; n++) {
+            var consumed = new AtomicInteger();
+            var accepted = new AtomicInteger();
+            var consumer =
+                    ParallelConsumer.<Integer>batching(
+                            batch -> consumed.addAndGet(batch.size()), 2, 16, 64);
+            var producers = new ArrayList<Thread>();
+            for (int i = 0; i < 4; i++) {
+                var producer =
+                        new Thread(
+                                () -> {
+                                    try {
+                                        while (true) {
+                                            consumer.accept(1);
+                                            accepted.incrementAndGet();
+                                        }
+                                    } catch (RejectedExecutionException e) {
+                                        // expected
+                                    }
+                                });
+                producer.start();
+                producers.add(producer);
+            }
+            Thread.sleep(10);
+            consumer.close();
+            for (var producer : producers) producer.join();
+            // every accepted item should be consumed before close returns
+            assertEquals(accepted.get(), consumed.get());
+        }
+    }
+
+    @Test
+    public void test_close_interrupted() throws Exception {
+        var consumed = new AtomicInteger();
+        var consumer = new ParallelConsumer<Integer>(i -> consumed.incrementAndGet());
+        range(0, 100).boxed().forEach(consumer);
+        Thread.currentThread().interrupt();
+        // consumer is closed even if it is not waited for
+        assertThrows(InterruptedException.class, consumer::close);
+        consumer.close();
+        assertEquals(100, consumed.get());
+        assertThrows(RejectedExecutionException.class, () -> consumer.accept(1));
+    }
+
+    @Test
+    public void test_batching() throws Exception {
+        int COUNT = 1_000_000;
+        var sum = new AtomicLong();
+        var maxBatch = new AtomicInteger();
+        try (var consumer =
+                ParallelConsumer.<Integer>batching(
+                        batch -> {
+                            maxBatch.accumulateAndGet(batch.size(), Math::max);
+                            long s = 0;
+                            for (var i : batch) s += i;
+                            sum.addAndGet(s);
+                        },
+                        4,
+                        100,
+                        1000)) {
+            range(0, COUNT).boxed().forEach(consumer);
+        }
+        assertEquals((long) COUNT * (COUNT - 1) / 2, sum.get());
+        assertTrue(maxBatch.get() <= 100);
+    }
+
+    @Test
+    public void test_ordered() throws Exception {
+        int COUNT = 10_000;
+        List<String> results = new ArrayList<>();
+        try (var consumer =
+                ParallelConsumer.<Integer, String>ordered(
+                        i -> {
+                            if (ThreadLocalRandom.current().nextInt(100) == 0) Thread.yield();
+                            if (i == 500) throw new RuntimeException();
+                            return "" + i;
+                        },
+                        results::add,
+                        4,
+                        16,
+                        100)) {
+            range(0, COUNT).boxed().forEach(consumer);
+        }
+        assertEquals(COUNT - 1, results.size());
+        for (int i = 0, j = 0; i < COUNT; i++) {
+            if (i == 500) continue;
+            assertEquals("" + i, results.get(j++));
+        }
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.lang;
+
+import id.xfunction.lang.XThread;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class XThreadTest {
+
+    @Test
+    public void test_newThread() throws Exception {
+        var name = new String[1];
+        var thread = XThread.newThread(() -> name[0] = Thread.currentThread().getName(), "test");
+        thread.start();
+        thread.join();
+        Assertions.assertEquals("test", name[0]);
+    }
+
+    @Test
+    public void test_newFixedThreadPool() throws Exception {
+        var executor = XThread.newFixedThreadPool(3);
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        for (int i = 0; i < 30; i++) {
+            executor.execute(
+                    () -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        XThread.sleep(10);
+                        running.decrementAndGet();
+                    });
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        Assertions.assertTrue(maxRunning.get() <= 3);
+    }
+
+    @Test
+    public void test_newFixedThreadPool_shutdownNow() throws Exception {
+        var executor = XThread.newFixedThreadPool(1);
+        var started = new CountDownLatch(1);
+        executor.execute(
+                () -> {
+                    started.countDown();
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        // expected
+                    }
+                });
+        Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+        var tasks = new ArrayList<Runnable>();
+        for (int i = 0; i < 3; i++) {
+            Runnable task = () -> {};
+            tasks.add(task);
+            executor.execute(task);
+        }
+        // give virtual threads time to park on the semaphore
+        Thread.sleep(100);
+        var pending = executor.shutdownNow();
+        Assertions.assertEquals(3, pending.size());
+        Assertions.assertTrue(pending.containsAll(tasks));
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+}
@@ -30,10 +30,13 @@ public class XLoggerTests {
 
     @Test
     public void test_read_config() throws IOException {
-        Logger logger = XLogger.getLogger(XLoggerTests.class);
-        System.out.println(logger.getName());
         Path file = XFiles.TEMP_FOLDER.get().resolve("l.txt");
         file.toFile().delete();
+        // logging could be already initialized or reconfigured by other tests so we read the
+        // config again
+        XLogger.load();
+        Logger logger = XLogger.getLogger(XLoggerTests.class);
+        System.out.println(logger.getName());
         logger.info("test");
         Assertions.assertTrue(file.toFile().exists());
         Assertions.assertEquals(
@@ -18,8 +18,10 @@
 package id.xfunction.tests.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import id.xfunction.util.CacheQueue;
+import id.xfunction.util.CacheQueue.EvictionPolicy;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 
@@ -51,4 +53,77 @@ public class CacheQueueTest {
         assertEquals(true, queue.removeAll(List.of(1, 3, 7, 5)));
         assertEquals(true, queue.isEmpty());
     }
+
+    @Test
+    public void test_lru() {
+        var queue = new CacheQueue<Integer>(3, EvictionPolicy.LRU);
+        queue.addAll(List.of(1, 2, 3));
+        assertEquals(false, queue.add(1));
+        assertEquals("[2, 3, 1]", queue.toString());
+        assertEquals(true, queue.contains(2));
+        assertEquals("[3, 1, 2]", queue.toString());
+        queue.add(4);
+        assertEquals("[1, 2, 4]", queue.toString());
+        assertEquals(
+                "Stats [hitCount=2, missCount=4, evictionCount=1]", queue.getStats().toString());
+    }
+
+    @Test
+    public void test_tiny_lfu() {
+        var queue = new CacheQueue<Integer>(100, EvictionPolicy.TINY_LFU);
+        var hotItems = List.of(-1, -2, -3, -4, -5);
+        for (int i = 0; i < 10_000; i++) {
+            // every 10th access is for one of the hot items, others are seen only once
+            if (i % 10 == 0) queue.add(hotItems.get(i / 10 % hotItems.size()));
+            else queue.add(i);
+        }
+        assertEquals(100, queue.size());
+        assertEquals(true, queue.containsAll(hotItems));
+        var stats = queue.getStats();
+        assertEquals(10_000, stats.getHitCount() + stats.getMissCount());
+        assertTrue(stats.getHitRate() > 0.09, stats.toString());
+
+        var fifo = new CacheQueue<Integer>(100);
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 10 == 0) fifo.add(hotItems.get(i / 10 % hotItems.size()));
+            else fifo.add(i);
+        }
+        assertTrue(fifo.getStats().getHitRate() < stats.getHitRate());
+    }
+
+    @Test
+    public void test_tiny_lfu_small() {
+        var queue = new CacheQueue<Integer>(1, EvictionPolicy.TINY_LFU);
+        assertEquals(true, queue.add(1));
+        assertEquals(false, queue.add(1));
+        assertEquals(true, queue.add(2));
+        assertEquals("[2]", queue.toString());
+        queue = new CacheQueue<Integer>(3, EvictionPolicy.TINY_LFU);
+        queue.addAll(List.of(1, 2, 3));
+        assertEquals("[1, 2, 3]", queue.toString());
+        assertEquals(true, queue.remove(3));
+        assertEquals(true, queue.remove(1));
+        assertEquals("[2]", queue.toString());
+        queue.clear();
+        assertEquals(true, queue.isEmpty());
+    }
+
+    @Test
+    public void test_stats() {
+        var queue = new CacheQueue<Integer>(2);
+        assertEquals(1.0, queue.getStats().getHitRate());
+        queue.add(1);
+        queue.add(1);
+        queue.add(2);
+        queue.add(3);
+        queue.contains(1);
+        queue.contains(3);
+        var stats = queue.getStats();
+        assertEquals(2, stats.getHitCount());
+        assertEquals(4, stats.getMissCount());
+        assertEquals(1, stats.getEvictionCount());
+        queue.resetStats();
+        assertEquals(
+                "Stats [hitCount=0, missCount=0, evictionCount=0]", queue.getStats().toString());
+    }
 }
@@ -69,4 +69,16 @@ public class CircularArrayTest {
         }
         assertEquals(499.5, array.avg(), 0.001); // average of first and last value
     }
+
+    @Test
+    public void testNoDrift() {
+        CircularArray array = new CircularArray(10);
+        for (int i = 0; i < 1_000_000; i++) {
+            array.add(i % 2 == 0 ? 1e9 + 0.1 : 1e-3);
+        }
+        for (int i = 0; i < 10; i++) {
+            array.add(1);
+        }
+        assertEquals(1.0, array.avg());
+    }
 }
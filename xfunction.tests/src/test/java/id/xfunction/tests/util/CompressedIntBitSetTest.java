@@ -0,0 +1,274 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import id.xfunction.PreconditionException;
+import id.xfunction.util.CompressedIntBitSet;
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class CompressedIntBitSetTest {
+
+    private static final int MAX = 1 << 20;
+
+    @Test
+    public void test_single_bits() {
+        var set = new CompressedIntBitSet();
+        assertTrue(set.isEmpty());
+        set.set(1);
+        set.set(2);
+        set.set(70_000);
+        set.set(Integer.MAX_VALUE);
+        assertEquals("{1, 2, 70000, 2147483647}", set.toString());
+        assertEquals(4, set.cardinality());
+        assertTrue(set.get(70_000));
+        assertFalse(set.get(70_001));
+        set.flip(2);
+        set.clear(70_000);
+        assertEquals("{1, 2147483647}", set.toString());
+        assertEquals(Integer.MAX_VALUE, set.nextSetBit(2).getAsInt());
+        assertEquals(Integer.MAX_VALUE, set.nextSetBit(Integer.MAX_VALUE).getAsInt());
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertTrue(set.nextSetBit(0).isEmpty());
+        assertThrows(PreconditionException.class, () -> set.set(1, 0));
+    }
+
+    @Test
+    public void test_ranges() {
+        var set = new CompressedIntBitSet();
+        set.set(10, 300_000);
+        assertEquals(300_000 - 10, set.cardinality());
+        assertEquals(10, set.nextSetBit(0).getAsInt());
+        set.clear(100, 200_000);
+        assertEquals(90 + 100_000, set.cardinality());
+        assertEquals(200_000, set.nextSetBit(100).getAsInt());
+        set.flip(0, 300_001);
+        assertEquals(10 + 200_000 - 100 + 1, set.cardinality());
+        assertEquals(300_000, set.nextSetBit(200_000).getAsInt());
+        // full chunks and runs take just few bytes
+        assertTrue(set.getSerializedSize() < 100);
+    }
+
+    @Test
+    public void test_negative_indices() {
+        var set = new CompressedIntBitSet();
+        set.set(Integer.MAX_VALUE);
+        set.set(0);
+        set.set(-1);
+        set.set(-70_000);
+        set.set(Integer.MIN_VALUE);
+        assertEquals("{-2147483648, -70000, -1, 0, 2147483647}", set.toString());
+        assertTrue(set.get(-1));
+        assertFalse(set.get(-2));
+        assertEquals(-1, set.nextSetBit(-69_999).getAsInt());
+        assertEquals(Integer.MIN_VALUE, set.nextSetBit(Integer.MIN_VALUE).getAsInt());
+        set.clear(-1);
+        assertEquals(0, set.nextSetBit(-69_999).getAsInt());
+        set.clear();
+
+        // range crosses zero and chunk borders
+        set.set(-100_000, 100_000);
+        assertEquals(200_000, set.cardinality());
+        assertEquals(-100_000, set.nextSetBit(Integer.MIN_VALUE).getAsInt());
+        set.flip(-100_010, -99_990);
+        assertEquals(-100_010, set.nextSetBit(Integer.MIN_VALUE).getAsInt());
+        assertEquals(-99_990, set.nextSetBit(-100_000).getAsInt());
+        assertEquals(200_000, set.cardinality());
+        var other = new CompressedIntBitSet();
+        other.set(Integer.MIN_VALUE, 0);
+        set.and(other);
+        assertEquals(100_000, set.cardinality());
+        assertEquals(-1, set.streamOfSetBits().max().getAsInt());
+        assertEquals(set, CompressedIntBitSet.fromByteArray(set.toByteArray()));
+    }
+
+    @Test
+    public void test_random_against_bitset() {
+        var rand = new Random(42);
+        for (int iter = 0; iter < 20; iter++) {
+            var expected = new BitSet();
+            var actual = new CompressedIntBitSet();
+            for (int op = 0; op < 300; op++) {
+                int a = rand.nextInt(MAX);
+                int b = Math.min(MAX, a + rand.nextInt(rand.nextBoolean() ? 100 : 100_000));
+                switch (rand.nextInt(7)) {
+                    case 0:
+                        expected.set(a);
+                        actual.set(a);
+                        break;
+                    case 1:
+                        expected.clear(a);
+                        actual.clear(a);
+                        break;
+                    case 2:
+                        expected.flip(a);
+                        actual.flip(a);
+                        break;
+                    case 3:
+                        expected.set(a, b);
+                        actual.set(a, b);
+                        break;
+                    case 4:
+                        expected.clear(a, b);
+                        actual.clear(a, b);
+                        break;
+                    case 5:
+                        expected.flip(a, b);
+                        actual.flip(a, b);
+                        break;
+                    default:
+                        for (int i = 0; i < 1000; i++) {
+                            int x = a + rand.nextInt(5000);
+                            expected.set(x);
+                            actual.set(x);
+                        }
+                }
+                assertEquals(expected.cardinality(), actual.cardinality());
+            }
+            assertSame(expected, actual);
+            actual.optimize();
+            assertSame(expected, actual);
+        }
+    }
+
+    @Test
+    public void test_bulk_operations() {
+        var rand = new Random(7);
+        for (int iter = 0; iter < 30; iter++) {
+            var bs1 = randomBitSet(rand);
+            var bs2 = randomBitSet(rand);
+            var set1 = toCompressed(bs1);
+            var set2 = toCompressed(bs2);
+            assertEquals(bs1.intersects(bs2), set1.intersects(set2));
+
+            var expected = (BitSet) bs1.clone();
+            var actual = new CompressedIntBitSet(set1);
+            expected.or(bs2);
+            actual.or(set2);
+            assertSame(expected, actual);
+
+            expected = (BitSet) bs1.clone();
+            actual = new CompressedIntBitSet(set1);
+            expected.and(bs2);
+            actual.and(set2);
+            assertSame(expected, actual);
+
+            expected = (BitSet) bs1.clone();
+            actual = new CompressedIntBitSet(set1);
+            expected.xor(bs2);
+            actual.xor(set2);
+            assertSame(expected, actual);
+
+            expected = (BitSet) bs1.clone();
+            actual = new CompressedIntBitSet(set1);
+            expected.andNot(bs2);
+            actual.andNot(set2);
+            assertSame(expected, actual);
+
+            // operands stay unchanged
+            assertSame(bs1, set1);
+            assertSame(bs2, set2);
+        }
+    }
+
+    @Test
+    public void test_serialization() {
+        var rand = new Random(1);
+        for (int iter = 0; iter < 20; iter++) {
+            var bs = randomBitSet(rand);
+            var set = toCompressed(bs);
+            var data = set.toByteArray();
+            assertEquals(set.getSerializedSize(), data.length);
+            var restored = CompressedIntBitSet.fromByteArray(data);
+            assertEquals(set, restored);
+            assertEquals(set.hashCode(), restored.hashCode());
+            assertSame(bs, restored);
+            assertArrayEquals(data, restored.toByteArray());
+        }
+    }
+
+    @Test
+    public void test_equals_ignores_representation() {
+        var set1 = new CompressedIntBitSet();
+        var set2 = new CompressedIntBitSet();
+        for (int i = 0; i < 5000; i++) set1.set(i);
+        set2.set(0, 5000);
+        assertEquals(set1, set2);
+        assertEquals(set1.hashCode(), set2.hashCode());
+        assertTrue(set2.getSerializedSize() < set1.getSerializedSize());
+        set1.optimize();
+        assertEquals(set1.getSerializedSize(), set2.getSerializedSize());
+    }
+
+    @Test
+    public void test_sparse_memory() {
+        var set = new CompressedIntBitSet();
+        for (int i = 0; i < 1000; i++) set.set(i * 1_000_000);
+        assertEquals(1000, set.cardinality());
+        // key, type, cardinality and one value per chunk
+        assertEquals(4 + 1000 * 7, set.getSerializedSize());
+        assertEquals(1000, set.streamOfSetBits().count());
+        assertEquals(999_000_000, set.streamOfSetBits().max().getAsInt());
+    }
+
+    private static BitSet randomBitSet(Random rand) {
+        var bs = new BitSet();
+        int n = rand.nextInt(20);
+        for (int i = 0; i < n; i++) {
+            int a = rand.nextInt(MAX);
+            switch (rand.nextInt(3)) {
+                case 0:
+                    bs.set(a, Math.min(MAX, a + rand.nextInt(200_000)));
+                    break;
+                case 1:
+                    for (int j = 0; j < 3000; j++) bs.set(a + rand.nextInt(70_000));
+                    break;
+                default:
+                    for (int j = 0; j < 100; j++) bs.set(a + rand.nextInt(70_000));
+            }
+        }
+        return bs;
+    }
+
+    private static CompressedIntBitSet toCompressed(BitSet bs) {
+        var set = new CompressedIntBitSet();
+        bs.stream().forEach(set::set);
+        return set;
+    }
+
+    private static void assertSame(BitSet expected, CompressedIntBitSet actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        assertArrayEquals(expected.stream().toArray(), actual.streamOfSetBits().toArray());
+        var list = new StringBuilder();
+        actual.forEachSetBit(i -> list.append(i).append(','));
+        var expectedList = new StringBuilder();
+        expected.stream().forEach(i -> expectedList.append(i).append(','));
+        assertEquals(expectedList.toString(), list.toString());
+        for (int i = 0; i < MAX; i += 97) {
+            assertEquals(expected.nextSetBit(i), actual.nextSetBit(i).orElse(-1));
+        }
+    }
+}
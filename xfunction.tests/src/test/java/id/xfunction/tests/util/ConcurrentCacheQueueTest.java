@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import id.xfunction.util.ConcurrentCacheQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentCacheQueueTest {
+
+    @Test
+    public void test_happy() {
+        var queue = new ConcurrentCacheQueue<Integer>(3);
+        assertEquals("[]", queue.toString());
+        queue.add(1);
+        queue.add(2);
+        queue.add(3);
+        assertEquals("[1, 2, 3]", queue.toString());
+        assertEquals(false, queue.add(3));
+        assertEquals("[1, 2, 3]", queue.toString());
+        assertEquals(true, queue.add(-1));
+        assertEquals("[2, 3, -1]", queue.toString());
+        assertEquals(false, queue.addAll(List.of(2, 3)));
+        assertEquals("[-1, 2, 3]", queue.toString());
+        assertEquals(true, queue.addAll(List.of(1, 3, 5, 6, 7)));
+        assertEquals("[5, 6, 7]", queue.toString());
+        assertEquals(false, queue.remove(2));
+        assertEquals(true, queue.remove(6));
+        assertEquals("[5, 7]", queue.toString());
+        assertEquals(true, queue.removeAll(List.of(1, 3, 7, 5)));
+        assertEquals(true, queue.isEmpty());
+        assertEquals(
+                "Stats [hitCount=4, missCount=8, evictionCount=5]", queue.getStats().toString());
+    }
+
+    @Test
+    public void test_lru() {
+        var queue = new ConcurrentCacheQueue<Integer>(3);
+        queue.addAll(List.of(1, 2, 3));
+        assertEquals(true, queue.contains(1));
+        assertEquals(true, queue.add(4));
+        assertEquals("[3, 1, 4]", queue.toString());
+        assertEquals(false, queue.add(3));
+        assertEquals(true, queue.add(5));
+        assertEquals("[4, 3, 5]", queue.toString());
+        assertEquals(2, queue.getStats().getHitCount());
+        assertEquals(2, queue.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void test_segments_lru() {
+        var queue = new ConcurrentCacheQueue<Integer>(100, 4);
+        // keep using first 10 items so that they are never evicted
+        for (int i = 0; i < 1000; i++) {
+            queue.add(i);
+            queue.contains(i % 10);
+        }
+        for (int i = 0; i < 10; i++) assertTrue(queue.contains(i), "" + i);
+        assertTrue(queue.size() <= 100);
+    }
+
+    @Test
+    public void test_segments() {
+        var queue = new ConcurrentCacheQueue<Integer>(100, 4);
+        for (int i = 0; i < 50; i++) {
+            queue.add(i);
+        }
+        assertEquals(50, queue.size());
+        var items = new ArrayList<>(queue);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, items.get(i));
+        }
+        for (int i = 50; i < 1000; i++) {
+            queue.add(i);
+        }
+        assertTrue(queue.size() <= 100);
+        // segments evict independently so only most recent items remain
+        queue.forEach(i -> assertTrue(i >= 800, "" + i));
+    }
+
+    @Test
+    public void test_concurrent() throws Exception {
+        int threads = 8;
+        int itemsPerThread = 10_000;
+        var queue = new ConcurrentCacheQueue<Integer>(1000, threads);
+        var executor = Executors.newFixedThreadPool(threads);
+        var latch = new CountDownLatch(1);
+        var futures = new ArrayList<Future<Integer>>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * itemsPerThread;
+            futures.add(
+                    executor.submit(
+                            () -> {
+                                latch.await();
+                                int added = 0;
+                                for (int i = 0; i < itemsPerThread; i++) {
+                                    if (queue.add(offset + i)) added++;
+                                    queue.contains(offset + i);
+                                }
+                                return added;
+                            }));
+        }
+        latch.countDown();
+        for (var f : futures) {
+            assertEquals(itemsPerThread, f.get());
+        }
+        executor.shutdown();
+        assertTrue(queue.size() <= 1000);
+        assertEquals(queue.size(), queue.toArray().length);
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import id.xfunction.util.ConcurrentTemporaryHashMap;
+import id.xfunction.util.ConcurrentTemporaryHashMap.RemovalCause;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentTemporaryHashMapTest {
+
+    private long[] currentTimeMillis = new long[1];
+    private List<String> removed = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        currentTimeMillis[0] = 0;
+        removed.clear();
+    }
+
+    @Test
+    public void test() {
+        var map = newMap(Duration.ofHours(1), 1);
+        map.put("k1", "val1");
+        map.put("k2", "val2");
+        assertEquals(2, map.size());
+        assertEquals("{k1=val1, k2=val2}", map.toString());
+        assertEquals("[k1, k2]", new TreeSet<>(map.keySet()).toString());
+        assertEquals("[val1, val2]", new TreeSet<>(map.values()).toString());
+        assertEquals(2, map.entrySet().size());
+        assertEquals("val2", map.get("k2"));
+        assertTrue(map.containsKey("k2"));
+        assertFalse(map.containsValue("k2"));
+        assertTrue(map.containsValue("val2"));
+        assertEquals("val2", map.remove("k2"));
+        assertEquals("[k2=val2 REMOVED]", removed.toString());
+        assertNull(map.remove("k2"));
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void test_zero_period() {
+        var map = newMap(Duration.ZERO, 1);
+        map.put("k1", "val1");
+        assertEquals(0, map.size());
+        assertNull(map.get("k1"));
+        assertEquals("[k1=val1 EXPIRED]", removed.toString());
+    }
+
+    @Test
+    public void test_put_zero_period() {
+        var map = newMap(Duration.ofSeconds(1), 1);
+        map.put("k1", "val1");
+        assertEquals("val1", map.put("k1", "val11", Duration.ZERO));
+        assertNull(map.get("k1"));
+        assertNull(map.put("k2", "val2", Duration.ZERO));
+        assertTrue(map.isEmpty());
+        assertEquals("[k1=val11 EXPIRED, k2=val2 EXPIRED]", removed.toString());
+    }
+
+    @Test
+    public void test_expire_on_read() {
+        var map = newMap(Duration.ofSeconds(1), 1);
+        map.put("k1", "val1");
+        currentTimeMillis[0] = 999;
+        assertEquals("val1", map.get("k1"));
+        currentTimeMillis[0] = 1000;
+        assertNull(map.get("k1"));
+        assertEquals(0, map.size());
+        assertEquals("[k1=val1 EXPIRED]", removed.toString());
+    }
+
+    @Test
+    public void test_get_renewed_on_expire() {
+        var renew = new boolean[1];
+        var map =
+                new ConcurrentTemporaryHashMap<String, String>(Duration.ofSeconds(1), 1) {
+                    @Override
+                    protected long currentTimeMillis() {
+                        if (renew[0]) {
+                            // pair is renewed in place right before the clock is read by get
+                            // which already read its old expiration time
+                            renew[0] = false;
+                            currentTimeMillis[0] = 999;
+                            put("k1", "val2", Duration.ofMinutes(1));
+                            currentTimeMillis[0] = 1000;
+                        }
+                        return currentTimeMillis[0];
+                    }
+                };
+        map.addRemovalListener((k, v, cause) -> removed.add(k + "=" + v + " " + cause));
+        map.put("k1", "val1");
+        currentTimeMillis[0] = 1000;
+        renew[0] = true;
+        assertEquals("val2", map.get("k1"));
+        assertEquals(1, map.size());
+        assertEquals("[]", removed.toString());
+    }
+
+    @Test
+    public void test_period() {
+        var map = newMap(Duration.ofSeconds(1), 1);
+        map.put("k1", "val1");
+        map.put("k2", "val2", Duration.ofMinutes(1));
+        currentTimeMillis[0] = 500;
+        // does not change expiration time
+        map.put("k1", "val11");
+        map.put("k3", "val3", Duration.ofMillis(100));
+        currentTimeMillis[0] = 1000;
+        assertNull(map.get("k1"));
+        assertEquals("val2", map.get("k2"));
+        assertNull(map.get("k3"));
+        // updates expiration time
+        map.put("k2", "val22", Duration.ofSeconds(1));
+        currentTimeMillis[0] = 2000;
+        map.cleanupExpired();
+        assertTrue(map.isEmpty());
+        assertEquals("[k1=val11 EXPIRED, k3=val3 EXPIRED, k2=val22 EXPIRED]", removed.toString());
+    }
+
+    @Test
+    public void test_cleanup_on_write() {
+        var map = newMap(Duration.ofSeconds(10), 4);
+        for (int i = 0; i < 10_000; i++) {
+            currentTimeMillis[0] = i;
+            map.put("" + i, "val" + i);
+        }
+        assertEquals(10_000, map.size());
+        currentTimeMillis[0] = 20_000;
+        // single write per segment is enough to remove all expired entries
+        for (int i = 0; i < 100; i++) map.put("k" + i, "val");
+        assertEquals(100, map.size());
+        assertEquals(10_000, removed.size());
+    }
+
+    /** Compare against straightforward implementation */
+    @Test
+    public void test_random() {
+        var random = new Random(1);
+        var map = newMap(Duration.ofSeconds(10), 4);
+        var expected = new HashMap<String, Long>();
+        long[] periods = {0, 50, 1_000, 100_000, 10_000_000, 1_000_000_000, 100_000_000_000L};
+        for (int i = 0; i < 50_000; i++) {
+            var key = "" + random.nextInt(1000);
+            long now = currentTimeMillis[0];
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    long period = periods[random.nextInt(periods.length)] + random.nextInt(100);
+                    map.put(key, key, Duration.ofMillis(period));
+                    if (period > 0) expected.put(key, now + period);
+                    else expected.remove(key);
+                }
+                case 1 -> {
+                    map.remove(key);
+                    expected.remove(key);
+                }
+                default -> {
+                    var isPresent = expected.containsKey(key) && expected.get(key) > now;
+                    assertEquals(isPresent ? key : null, map.get(key));
+                }
+            }
+            if (random.nextInt(100) == 0) {
+                currentTimeMillis[0] += periods[random.nextInt(periods.length)];
+                expected.values().removeIf(t -> t <= currentTimeMillis[0]);
+                map.cleanupExpired();
+                assertEquals(expected.size(), map.size());
+            }
+            currentTimeMillis[0] += random.nextInt(10);
+        }
+    }
+
+    @Test
+    public void test_concurrent() throws Exception {
+        var map = new ConcurrentTemporaryHashMap<Integer, Integer>(Duration.ofMinutes(1), 4);
+        var futures =
+                IntStream.range(0, 4)
+                        .mapToObj(
+                                t ->
+                                        CompletableFuture.runAsync(
+                                                () -> {
+                                                    for (int i = 0; i < 10_000; i++) {
+                                                        int key = t * 10_000 + i;
+                                                        map.put(key, key);
+                                                        if (map.get(key) != key)
+                                                            throw new AssertionError();
+                                                        if (i % 2 == 0) map.remove(key);
+                                                    }
+                                                }))
+                        .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).get();
+        assertEquals(20_000, map.size());
+    }
+
+    @Test
+    public void test_concurrent_get_put_with_period() throws Exception {
+        var map = new ConcurrentTemporaryHashMap<Integer, Integer>(Duration.ofMillis(1), 1);
+        var expired = new AtomicInteger();
+        map.addRemovalListener(
+                (k, v, cause) -> {
+                    if (cause == RemovalCause.EXPIRED) expired.incrementAndGet();
+                });
+        var isDone = new AtomicBoolean();
+        var reader =
+                CompletableFuture.runAsync(
+                        () -> {
+                            while (!isDone.get()) map.get(1);
+                        });
+        try {
+            for (int i = 0; i < 1_000; i++) {
+                int count = expired.get();
+                map.put(1, i);
+                // wait for pair to expire so that reader tries to remove it
+                long start = System.currentTimeMillis();
+                while (System.currentTimeMillis() - start < 2) Thread.onSpinWait();
+                map.put(1, i, Duration.ofMinutes(1));
+                // renewed pair should never be removed
+                assertEquals(i, map.get(1));
+                map.remove(1);
+                // only the pair put with default period may be expired
+                assertTrue(expired.get() <= count + 1);
+            }
+        } finally {
+            isDone.set(true);
+        }
+        reader.get();
+    }
+
+    private ConcurrentTemporaryHashMap<String, String> newMap(Duration period, int concurrency) {
+        var map =
+                new ConcurrentTemporaryHashMap<String, String>(period, concurrency) {
+                    @Override
+                    protected long currentTimeMillis() {
+                        return currentTimeMillis[0];
+                    }
+                };
+        map.addRemovalListener((k, v, cause) -> removed.add(k + "=" + v + " " + cause));
+        return map;
+    }
+}
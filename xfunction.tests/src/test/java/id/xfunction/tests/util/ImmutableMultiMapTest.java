@@ -17,7 +17,15 @@
  */
 package id.xfunction.tests.util;
 
+import static id.xfunction.util.ImmutableMultiMap.toImmutableMultiMap;
+
 import id.xfunction.util.ImmutableMultiMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -32,4 +40,62 @@ public class ImmutableMultiMapTest {
                 "Optional[a]",
                 ImmutableMultiMap.of(1, "a", 2, "b", 1, "c").getFirstParameter(1).toString());
     }
+
+    @Test
+    public void test_builder() {
+        var map =
+                new ImmutableMultiMap.Builder<String, Integer>()
+                        .put("a", 1)
+                        .put(null, 2)
+                        .putAll("b", List.of(3, 4))
+                        .put("a", 5)
+                        .build();
+        Assertions.assertEquals("{a=[1, 5], null=[2], b=[3, 4]}", map.toString());
+        Assertions.assertEquals(3, map.size());
+        Assertions.assertEquals(List.of(2), map.get(null));
+        Assertions.assertEquals(List.of(), map.get("c"));
+        Assertions.assertEquals(false, map.containsKey("c"));
+        Assertions.assertEquals("[1, 5, 2, 3, 4]", map.values().toList().toString());
+        Assertions.assertEquals("[a=[1, 5], null=[2], b=[3, 4]]", map.stream().toList().toString());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> map.get("a").add(1));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> map.get("a").get(2));
+        Assertions.assertEquals("{}", new ImmutableMultiMap.Builder<>().build().toString());
+    }
+
+    @Test
+    public void test_collector() {
+        var map =
+                IntStream.range(0, 100_000)
+                        .boxed()
+                        .parallel()
+                        .collect(toImmutableMultiMap(i -> i % 7, i -> i));
+        Assertions.assertEquals(7, map.size());
+        for (int k = 0; k < 7; k++) {
+            var values = map.get(k);
+            Assertions.assertEquals(k, values.get(0));
+            for (int i = 1; i < values.size(); i++) {
+                // encounter order is preserved
+                Assertions.assertEquals(values.get(i - 1) + 7, values.get(i));
+            }
+        }
+    }
+
+    /** Compare against straightforward implementation */
+    @Test
+    public void test_random() {
+        var random = new Random(1);
+        var entries = new ArrayList<Map.Entry<Integer, Integer>>();
+        var expected = new LinkedHashMap<Integer, List<Integer>>();
+        for (int i = 0; i < 10_000; i++) {
+            int key = random.nextInt(3000);
+            entries.add(Map.entry(key, i));
+            expected.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+        }
+        var map = new ImmutableMultiMap<>(entries);
+        Assertions.assertEquals(expected.toString(), map.toString());
+        for (int key = -10; key < 3010; key++) {
+            Assertions.assertEquals(expected.getOrDefault(key, List.of()), map.get(key));
+            Assertions.assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+    }
 }
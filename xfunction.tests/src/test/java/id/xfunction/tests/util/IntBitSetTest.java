@@ -24,6 +24,8 @@ import id.xfunction.PreconditionException;
 import id.xfunction.util.IntBitSet;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -225,4 +227,101 @@ public class IntBitSetTest {
         set.flip(0);
         assertEquals("[0]", set.streamOfSetBits().boxed().toList().toString());
     }
+
+    @Test
+    public void test_set_clear() {
+        var set = new IntBitSet(100);
+        set.set(3, 70);
+        assertEquals(67, set.cardinality());
+        assertEquals(3, set.nextSetBit(0));
+        assertEquals(true, set.get(69));
+        assertEquals(false, set.get(70));
+        set.clear(4, 64);
+        // bits 64..69 and 3
+        assertEquals("111111" + "0".repeat(60) + "1000", set.toBinaryString());
+        set.clear(3);
+        set.set(99);
+        assertEquals(64, set.nextSetBit(4));
+        assertEquals(99, set.nextSetBit(70));
+        set.clear();
+        assertEquals(-1, set.nextSetBit(0));
+        Assertions.assertThrows(PreconditionException.class, () -> set.set(0, 101));
+        Assertions.assertThrows(PreconditionException.class, () -> set.clear(5, 4));
+        Assertions.assertThrows(PreconditionException.class, () -> set.get(-1));
+    }
+
+    @Test
+    public void test_against_BitSet() {
+        var random = new Random(1);
+        int len = 1000;
+        var set = new IntBitSet(len);
+        var expected = new BitSet(len);
+        for (int i = 0; i < 1000; i++) {
+            int from = random.nextInt(len + 1);
+            int to = from + random.nextInt(len - from + 1);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    set.set(from, to);
+                    expected.set(from, to);
+                }
+                case 1 -> {
+                    set.clear(from, to);
+                    expected.clear(from, to);
+                }
+                default -> {
+                    set.flip(from, to);
+                    expected.flip(from, to);
+                }
+            }
+            assertEquals(expected.cardinality(), set.cardinality());
+            assertArrayEquals(expected.stream().toArray(), set.streamOfSetBits().toArray());
+            from = random.nextInt(len + 1);
+            to = from + random.nextInt(len - from + 1);
+            assertEquals(expected.get(from, to).cardinality(), set.cardinality(from, to));
+            int clear = expected.nextClearBit(from);
+            assertEquals(clear < len ? clear : -1, set.nextClearBit(from));
+        }
+    }
+
+    @Test
+    public void test_bulk() {
+        var a = new IntBitSet(new int[] {0b1100, 0b1});
+        var b = new IntBitSet(new int[] {0b1010});
+        a.or(b);
+        assertEquals("100000000000000000000000000001110", a.toBinaryString());
+        a.xor(b);
+        assertEquals("100000000000000000000000000000100", a.toBinaryString());
+        a.set(3);
+        a.andNot(b);
+        assertEquals("100000000000000000000000000000100", a.toBinaryString());
+        a.set(1);
+        a.and(b);
+        assertEquals("10", a.toBinaryString());
+    }
+
+    @Test
+    public void test_bulk_outside_of_set() {
+        var a = new IntBitSet(10);
+        var b = new IntBitSet(32);
+        b.set(5);
+        b.set(20);
+        a.or(b);
+        assertEquals(1, a.cardinality());
+        assertEquals("100000", a.toBinaryString());
+        a.xor(b);
+        assertEquals(0, a.cardinality());
+        assertEquals("0", a.toBinaryString());
+    }
+
+    @Test
+    public void test_parallel_stream() {
+        var set = new IntBitSet(1_000_000);
+        for (int i = 0; i < 1_000_000; i += 3) set.set(i);
+        var spliterator = set.streamOfSetBits().spliterator();
+        assertEquals(333_334, spliterator.getExactSizeIfKnown());
+        assertEquals(
+                333_334L * 333_333 / 2 * 3, set.streamOfSetBits().parallel().asLongStream().sum());
+        assertArrayEquals(
+                set.streamOfSetBits().toArray(), set.streamOfSetBits().parallel().toArray());
+    }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import id.xfunction.util.LongHistogram;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class LongHistogramTest {
+
+    @Test
+    public void test_small_values_exact() {
+        var histogram = new LongHistogram();
+        for (int i = 1; i <= 10; i++) histogram.record(i);
+        var snapshot = histogram.snapshot();
+        assertEquals(10, snapshot.getCount());
+        assertEquals(55, snapshot.getSum());
+        assertEquals(10, snapshot.getMax());
+        assertEquals(5.5, snapshot.getMean());
+        assertEquals(5, snapshot.getPercentile(0.5));
+        assertEquals(9, snapshot.getPercentile(0.9));
+        assertEquals(1, snapshot.getPercentile(0));
+        assertEquals(10, snapshot.getPercentile(1));
+        assertEquals(
+                "{ count: 10, mean: 5.5, p50: 5, p90: 9, p99: 10, max: 10 }", snapshot.toString());
+    }
+
+    @Test
+    public void test_empty_and_reset() {
+        var histogram = new LongHistogram();
+        assertEquals(0, histogram.snapshot().getPercentile(0.99));
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.snapshot().getPercentile(0.5));
+        assertEquals(Long.MAX_VALUE, histogram.snapshot().getPercentile(1));
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+        assertEquals(0, histogram.snapshot().getMax());
+    }
+
+    @Test
+    public void test_relative_error() {
+        var rand = new Random(1);
+        var values = rand.longs(100_000, 0, 1_000_000_000L).toArray();
+        var histogram = new LongHistogram();
+        Arrays.stream(values).forEach(histogram::record);
+        Arrays.sort(values);
+        var snapshot = histogram.snapshot();
+        for (double p : new double[] {0.1, 0.5, 0.9, 0.99, 0.999}) {
+            long expected = values[(int) Math.ceil(p * values.length) - 1];
+            long actual = snapshot.getPercentile(p);
+            assertTrue(actual >= expected, p + ": " + actual + " < " + expected);
+            assertTrue(actual <= expected * (1 + 1. / 16), p + ": " + actual + " " + expected);
+        }
+    }
+
+    @Test
+    public void test_concurrent() {
+        var histogram = new LongHistogram();
+        var futures =
+                IntStream.range(0, 4)
+                        .mapToObj(
+                                t ->
+                                        CompletableFuture.runAsync(
+                                                () -> {
+                                                    for (int i = 0; i < 100_000; i++)
+                                                        histogram.record(i);
+                                                }))
+                        .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+        var snapshot = histogram.snapshot();
+        assertEquals(400_000, snapshot.getCount());
+        assertEquals(99_999, snapshot.getMax());
+        assertEquals(4L * 99_999 * 100_000 / 2, snapshot.getSum());
+    }
+}
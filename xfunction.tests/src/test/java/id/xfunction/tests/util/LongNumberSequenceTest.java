@@ -21,6 +21,11 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import id.xfunction.PreconditionException;
 import id.xfunction.util.LongNumberSequence;
+import id.xfunction.util.LongRangeSet;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -95,4 +100,104 @@ public class LongNumberSequenceTest {
         assertEquals("[6, 7, 8, 9, 10, 11, 12]", seq.getMissing(1, 13).toString());
         assertEquals("[]", seq.getMissing(1, 3).toString());
     }
+
+    @Test
+    public void test_missing_count() {
+        LongNumberSequence seq = new LongNumberSequence(10);
+        assertEquals(10, seq.getMissingCount());
+        seq.add(3);
+        assertEquals(2, seq.getMissingCount());
+        assertEquals(true, seq.isMissing(1));
+        assertEquals(false, seq.isMissing(3));
+        assertEquals(false, seq.isMissing(4));
+        seq.add(1);
+        seq.add(2);
+        assertEquals(0, seq.getMissingCount());
+        seq.add(100);
+        assertEquals(9, seq.getMissingCount());
+        assertEquals(false, seq.isMissing(3));
+        assertEquals(true, seq.isMissing(91));
+        seq.add(1);
+        assertEquals(9, seq.getMissingCount());
+    }
+
+    /** Compare against straightforward implementation */
+    @Test
+    public void test_random() {
+        var random = new Random(1);
+        for (int size : new int[] {1, 7, 64, 100}) {
+            var seq = new LongNumberSequence(size);
+            var received = new TreeSet<Long>();
+            long max = 0;
+            for (int i = 0; i < 10_000; i++) {
+                long n =
+                        switch (random.nextInt(4)) {
+                            case 0 -> max + 1 + random.nextInt(2 * size);
+                            case 1 -> Math.max(1, max - random.nextInt(2 * size));
+                            default -> max + 1;
+                        };
+                seq.add(n);
+                received.add(n);
+                max = Math.max(max, n);
+                long start = Math.max(1, max - size + 1);
+                var missing = new TreeSet<Long>();
+                for (long j = start; j <= max; j++) if (!received.contains(j)) missing.add(j);
+                assertEquals(missing.size(), seq.getMissingCount());
+                assertEquals(!missing.isEmpty(), seq.hasMissing());
+                assertEquals(missing.toString(), seq.getMissing().toString());
+                long first = Math.max(1, start - 3) + random.nextInt(size + 6);
+                long last = first + random.nextInt(size + 6);
+                var expected = missing.subSet(first, last + 1).toString();
+                if (max < last) {
+                    var tail = new TreeSet<>(missing.tailSet(first));
+                    for (long k = Math.max(first, max + 1); k <= last; k++) tail.add(k);
+                    expected = tail.toString();
+                }
+                assertEquals(expected, seq.getMissing(first, last).toString());
+                var out = new long[random.nextInt(size + 1)];
+                int count = seq.getMissing(first, last, out);
+                assertEquals(
+                        seq.getMissing(first, last).stream()
+                                .limit(out.length)
+                                .map(String::valueOf)
+                                .collect(Collectors.joining(", ", "[", "]")),
+                        Arrays.stream(out, 0, count)
+                                .mapToObj(String::valueOf)
+                                .collect(Collectors.joining(", ", "[", "]")));
+                long j = Math.max(1, start - 3) + random.nextInt(size + 6);
+                assertEquals(missing.contains(j), seq.isMissing(j));
+            }
+        }
+    }
+
+    @Test
+    public void test_missing_ranges() {
+        LongNumberSequence seq = new LongNumberSequence(10);
+        assertEquals("[[1, 10]]", seq.getMissingRanges().toString());
+        seq.add(5);
+        seq.add(4);
+        assertEquals("[[1, 3], [6, 8]]", seq.getMissingRanges(1, 8).toString());
+        seq.add(13);
+        assertEquals("[[6, 12]]", seq.getMissingRanges().toString());
+        seq.add(8);
+        var ranges = new LongRangeSet();
+        seq.getMissingRanges(1, 20, ranges);
+        assertEquals("[[6, 7], [9, 12], [14, 20]]", ranges.toString());
+        var out = new long[4];
+        assertEquals(4, seq.getMissing(1, 20, out));
+        assertEquals("[6, 7, 9, 10]", Arrays.toString(out));
+    }
+
+    @Test
+    public void test_late_start() {
+        LongNumberSequence seq = new LongNumberSequence(10);
+        var missing = seq.getMissing(1, Long.MAX_VALUE - 1);
+        assertEquals(Integer.MAX_VALUE, missing.size());
+        assertEquals(1L, missing.iterator().next());
+        seq.add(1_000_000_000_000L);
+        assertEquals("[[999999999991, 999999999999]]", seq.getMissingRanges().toString());
+        assertEquals(
+                "[[999999999991, 999999999999], [1000000000001, 2000000000000]]",
+                seq.getMissingRanges(1, 2_000_000_000_000L).toString());
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import id.xfunction.util.LongRangeSet;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+public class LongRangeSetTest {
+
+    @Test
+    public void test_add() {
+        var set = new LongRangeSet(1);
+        assertTrue(set.isEmpty());
+        set.add(1, 3);
+        set.add(4);
+        set.add(7, 8);
+        assertEquals("[[1, 4], [7, 8]]", set.toString());
+        set.add(10, 12);
+        set.add(-5, -3);
+        assertEquals("[[-5, -3], [1, 4], [7, 8], [10, 12]]", set.toString());
+        set.add(6, 9);
+        assertEquals("[[-5, -3], [1, 4], [6, 12]]", set.toString());
+        set.add(-2, 5);
+        assertEquals("[[-5, 12]]", set.toString());
+        assertEquals(18, set.count());
+        assertTrue(set.contains(-5));
+        assertFalse(set.contains(13));
+        set.clear();
+        assertEquals("[]", set.toString());
+    }
+
+    @Test
+    public void test_views() {
+        var set = new LongRangeSet();
+        set.add(1, 3);
+        set.add(7, 8);
+        assertEquals("[1, 2, 3, 7, 8]", set.asCollection().toString());
+        assertEquals(5, set.asCollection().size());
+        assertTrue(set.asCollection().contains(7L));
+        assertArrayEquals(new long[] {1, 2, 3, 7, 8}, set.stream().toArray());
+        var out = new long[4];
+        assertEquals(4, set.toArray(out));
+        assertArrayEquals(new long[] {1, 2, 3, 7}, out);
+        out = new long[10];
+        assertEquals(5, set.toArray(out));
+
+        set.add(100, Long.MAX_VALUE);
+        assertEquals(Integer.MAX_VALUE, set.asCollection().size());
+        assertEquals(3, set.getRangeCount());
+        assertEquals(100, set.getFrom(2));
+        assertEquals(Long.MAX_VALUE, set.getTo(2));
+    }
+
+    @Test
+    public void test_random() {
+        var random = new Random(1);
+        var set = new LongRangeSet();
+        var expected = new TreeSet<Long>();
+        for (int i = 0; i < 1000; i++) {
+            long from = random.nextInt(1000);
+            long to = from + random.nextInt(10);
+            set.add(from, to);
+            for (long x = from; x <= to; x++) expected.add(x);
+            assertEquals(expected.toString(), set.asCollection().toString());
+            for (int j = 0; j < set.getRangeCount() - 1; j++) {
+                assertTrue(set.getTo(j) + 1 < set.getFrom(j + 1));
+            }
+            long x = random.nextInt(1000);
+            assertEquals(expected.contains(x), set.contains(x));
+        }
+    }
+
+    @Test
+    public void test_equals() {
+        var a = new LongRangeSet();
+        var b = new LongRangeSet(100);
+        a.add(1, 2);
+        a.add(3, 5);
+        b.add(1, 5);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+    }
+}
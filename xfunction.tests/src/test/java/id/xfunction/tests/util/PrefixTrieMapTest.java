@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import id.xfunction.PreconditionException;
+import id.xfunction.util.PrefixTrieMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+public class PrefixTrieMapTest {
+
+    @Test
+    public void test_put_get() {
+        var map = new PrefixTrieMap<Integer>();
+        assertNull(map.put("hello", 1));
+        assertNull(map.put("help", 2));
+        assertNull(map.put("he", 3));
+        assertEquals(3, map.put("he", 4));
+        assertEquals(3, map.size());
+        assertEquals(1, map.get("hello"));
+        assertEquals(4, map.get("he"));
+        assertNull(map.get("hel"));
+        assertNull(map.get("h"));
+        assertFalse(map.containsKey("hell"));
+        assertTrue(map.containsKey("help"));
+        assertEquals("{he=4, hello=1, help=2}", map.toString());
+        assertThrows(PreconditionException.class, () -> map.put(null, 1));
+        assertThrows(PreconditionException.class, () -> map.put("a", null));
+    }
+
+    @Test
+    public void test_longest_prefix() {
+        var map = new PrefixTrieMap<String>();
+        map.put("id.xfunction", "FINE");
+        map.put("id.xfunction.concurrent", "WARNING");
+        assertNull(map.getByLongestPrefix("java.net.http"));
+        assertEquals(-1, map.longestPrefixMatch("java.net.http"));
+        assertEquals("FINE", map.getByLongestPrefix("id.xfunction.util.XJson"));
+        assertEquals("WARNING", map.getByLongestPrefix("id.xfunction.concurrent.flow"));
+        assertEquals(23, map.longestPrefixMatch("id.xfunction.concurrent.flow"));
+        map.put("", "INFO");
+        assertEquals("INFO", map.getByLongestPrefix("java.net.http"));
+        assertEquals(0, map.longestPrefixMatch("java.net.http"));
+        assertEquals("INFO", map.getByLongestPrefix(new StringBuilder("id.xfunctio")));
+        assertEquals("{=INFO, id.xfunction=FINE, id.xfunction.concurrent=WARNING}", map.toString());
+    }
+
+    @Test
+    public void test_remove() {
+        var map = new PrefixTrieMap<Integer>();
+        map.put("test", 1);
+        map.put("team", 2);
+        map.put("toast", 3);
+        assertNull(map.remove("te"));
+        assertNull(map.remove("tests"));
+        assertEquals(2, map.remove("team"));
+        assertEquals(2, map.size());
+        assertEquals(1, map.get("test"));
+        assertEquals(3, map.getByLongestPrefix("toaster"));
+        assertEquals(1, map.remove("test"));
+        assertEquals(3, map.remove("toast"));
+        assertTrue(map.isEmpty());
+        assertEquals("{}", map.toString());
+    }
+
+    @Test
+    public void test_snapshot_iteration() {
+        var map = new PrefixTrieMap<Integer>();
+        map.put("a", 1);
+        map.put("b", 2);
+        var entries = map.entrySet();
+        map.put("c", 3);
+        map.remove("a");
+        assertEquals("[a=1, b=2]", entries.toString());
+        assertEquals("{b=2, c=3}", map.toString());
+    }
+
+    /** Compare against straightforward implementation */
+    @Test
+    public void test_random() {
+        var random = new Random(1);
+        var map = new PrefixTrieMap<Integer>();
+        var expected = new TreeMap<String, Integer>();
+        for (int i = 0; i < 5000; i++) {
+            var key = randomString(random);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            var query = randomString(random);
+            assertEquals(expected.get(query), map.get(query));
+            var longest =
+                    expected.keySet().stream()
+                            .filter(query::startsWith)
+                            .reduce((a, b) -> a.length() > b.length() ? a : b);
+            assertEquals(longest.map(expected::get).orElse(null), map.getByLongestPrefix(query));
+            assertEquals(longest.map(String::length).orElse(-1), map.longestPrefixMatch(query));
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected.toString(), map.toString());
+        assertEquals(expected, map);
+    }
+
+    @Test
+    public void test_concurrent_reads() throws Exception {
+        var map = new PrefixTrieMap<Integer>();
+        map.put("id", 1);
+        var isStopped = new AtomicBoolean();
+        var reader =
+                CompletableFuture.runAsync(
+                        () -> {
+                            while (!isStopped.get()) {
+                                // "id" is never removed so reader should always find it
+                                var value = map.getByLongestPrefix("id.xfunction.util");
+                                if (value == null) throw new AssertionError();
+                            }
+                        });
+        for (int i = 0; i < 10_000; i++) {
+            map.put("id.xfunction" + (i % 10), i);
+            map.remove("id.xfunction" + ((i + 5) % 10));
+        }
+        isStopped.set(true);
+        reader.get();
+    }
+
+    private static String randomString(Random random) {
+        var buf = new StringBuilder();
+        int len = random.nextInt(6);
+        for (int i = 0; i < len; i++) buf.append((char) ('a' + random.nextInt(3)));
+        return buf.toString();
+    }
+}
@@ -25,6 +25,9 @@ import id.xfunction.PreconditionException;
 import id.xfunction.util.PrefixTrieSet;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -122,4 +125,81 @@ public class PrefixTrieTests {
         assertFalse(trie.contains(""));
         assertEquals(0, trie.prefixMatches(""));
     }
+
+    @Test
+    public void test_longestPrefixMatch() {
+        PrefixTrieSet trie = new PrefixTrieSet();
+        List.of("id", "id.xfunction", "id.xfunction.logging", "io").forEach(trie::add);
+        assertEquals(20, trie.longestPrefixMatch("id.xfunction.logging.XLogger"));
+        assertEquals(12, trie.longestPrefixMatch(new StringBuilder("id.xfunction.util")));
+        assertEquals(12, trie.prefixMatches("id.xfunction.loggin"));
+        assertEquals(2, trie.longestPrefixMatch("id.xfunctio"));
+        assertEquals(0, trie.longestPrefixMatch("i"));
+        assertTrue(trie.hasPrefixOf("id.xfunction.logging.XLogger"));
+        assertTrue(trie.hasPrefixOf("io"));
+        assertFalse(trie.hasPrefixOf("i"));
+        assertFalse(trie.hasPrefixOf("java.util"));
+    }
+
+    /** Lookups must not be recursive so that deep tries do not overflow the stack */
+    @Test
+    public void test_deep_trie() throws Exception {
+        int depth = 5_000;
+        var trie = new PrefixTrieSet();
+        // every item adds a branch, so the path to the last one has depth nodes
+        for (int i = 1; i <= depth; i++) trie.add("a".repeat(i) + "b");
+        var error = new AtomicReference<Throwable>();
+        var thread =
+                new Thread(
+                        null,
+                        () -> {
+                            try {
+                                var item = "a".repeat(depth) + "b";
+                                assertTrue(trie.contains(item));
+                                assertFalse(trie.contains("a".repeat(depth)));
+                                assertEquals(depth + 1, trie.prefixMatches(item + "c"));
+                            } catch (Throwable e) {
+                                error.set(e);
+                            }
+                        },
+                        "deep-trie",
+                        // recursion over thousands of characters does not fit
+                        128 * 1024);
+        thread.start();
+        thread.join();
+        Assertions.assertNull(error.get());
+    }
+
+    @Test
+    public void test_random() {
+        var random = new Random(1);
+        var trie = new PrefixTrieSet();
+        var expected = new TreeSet<String>();
+        for (int i = 0; i < 2000; i++) {
+            var str = randomString(random);
+            assertEquals(expected.add(str), trie.add(str));
+            var query = randomString(random);
+            assertEquals(expected.contains(query), trie.contains(query));
+            int longest =
+                    expected.stream()
+                            .filter(query::startsWith)
+                            .mapToInt(String::length)
+                            .max()
+                            .orElse(0);
+            assertEquals(longest, trie.longestPrefixMatch(query));
+            assertEquals(longest != 0, trie.hasPrefixOf(query));
+        }
+        assertEquals(expected.size(), trie.size());
+        assertEquals(expected.toString(), trie.toString());
+        trie.clear();
+        assertEquals(0, trie.size());
+        assertEquals("[]", trie.toString());
+    }
+
+    private static String randomString(Random random) {
+        var buf = new StringBuilder();
+        int len = 1 + random.nextInt(6);
+        for (int i = 0; i < len; i++) buf.append((char) ('a' + random.nextInt(3)));
+        return buf.toString();
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import id.xfunction.util.DoubleRollingWindow;
+import id.xfunction.util.IntRollingWindow;
+import id.xfunction.util.LongRollingWindow;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class RollingWindowTest {
+
+    @Test
+    public void test_int() {
+        var window = new IntRollingWindow(3);
+        assertEquals(0, window.min());
+        assertEquals(0, window.percentile(50));
+        window.add(5);
+        window.add(1);
+        window.add(3);
+        assertEquals(1, window.min());
+        assertEquals(5, window.max());
+        assertEquals(9, window.sum());
+        assertEquals(3.0, window.avg());
+        assertEquals(8.0 / 3, window.variance(), 1e-9);
+        assertEquals(3, window.percentile(50));
+        assertEquals(5, window.percentile(100));
+        assertEquals(1, window.percentile(0));
+        window.add(2);
+        assertEquals(1, window.min());
+        assertEquals(3, window.max());
+        window.add(4);
+        assertEquals(2, window.min());
+        assertEquals(4, window.max());
+        assertEquals(3, window.getSize());
+        assertEquals(
+                "IntRollingWindow [size=3, min=2, max=4, avg=3.0, stddev=0.816496580927726]",
+                window.toString());
+        window.clear();
+        assertEquals(0, window.getSize());
+        assertEquals(0, window.max());
+    }
+
+    @Test
+    public void test_against_full_scan() {
+        var random = new Random(7);
+        int capacity = 50;
+        var intWindow = new IntRollingWindow(capacity);
+        var longWindow = new LongRollingWindow(capacity);
+        var doubleWindow = new DoubleRollingWindow(capacity);
+        var expected = new long[capacity];
+        for (int n = 1; n <= 10_000; n++) {
+            int value = random.nextInt(1000);
+            intWindow.add(value);
+            longWindow.add(value);
+            doubleWindow.add(value);
+            expected[(n - 1) % capacity] = value;
+            var window = Arrays.stream(expected, 0, Math.min(n, capacity)).sorted().toArray();
+            var stats = Arrays.stream(window).summaryStatistics();
+            assertEquals(stats.getMin(), intWindow.min());
+            assertEquals(stats.getMax(), intWindow.max());
+            assertEquals(stats.getMin(), longWindow.min());
+            assertEquals(stats.getMax(), longWindow.max());
+            assertEquals(stats.getMin(), doubleWindow.min());
+            assertEquals(stats.getMax(), doubleWindow.max());
+            assertEquals(stats.getSum(), intWindow.sum());
+            assertEquals(stats.getSum(), longWindow.sum());
+            assertEquals(stats.getAverage(), doubleWindow.avg(), 1e-9);
+            var median = window[(window.length + 1) / 2 - 1];
+            assertEquals(median, intWindow.percentile(50));
+            assertEquals(median, longWindow.percentile(50));
+            assertEquals(median, doubleWindow.percentile(50));
+        }
+        var variance =
+                Arrays.stream(expected)
+                        .mapToDouble(v -> Math.pow(v - intWindow.avg(), 2))
+                        .average()
+                        .getAsDouble();
+        assertEquals(variance, intWindow.variance(), 1e-6);
+        assertEquals(variance, longWindow.variance(), 1e-6);
+        assertEquals(variance, doubleWindow.variance(), 1e-6);
+    }
+
+    @Test
+    public void test_no_drift() {
+        var window = new DoubleRollingWindow(10);
+        for (int i = 0; i < 1_000_000; i++) {
+            window.add(i % 2 == 0 ? 1e9 + 0.1 : 1e-3);
+        }
+        for (int i = 0; i < 10; i++) {
+            window.add(1);
+        }
+        assertEquals(1.0, window.avg());
+        assertEquals(0.0, window.variance());
+        assertEquals(10.0, window.sum());
+    }
+}
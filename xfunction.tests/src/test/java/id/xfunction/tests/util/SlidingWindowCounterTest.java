@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import id.xfunction.util.SlidingWindowCounter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+
+public class SlidingWindowCounterTest {
+
+    private static class TestSlidingWindowCounter extends SlidingWindowCounter {
+        long nanos;
+
+        TestSlidingWindowCounter(Duration window, int numberOfBuckets) {
+            super(window, numberOfBuckets);
+        }
+
+        @Override
+        protected long nanoTime() {
+            return nanos;
+        }
+
+        void advance(Duration d) {
+            nanos += d.toNanos();
+        }
+    }
+
+    @Test
+    public void test_happy() {
+        var counter = new TestSlidingWindowCounter(Duration.ofSeconds(10), 10);
+        assertEquals(0, counter.getCount());
+        assertEquals(0.0, counter.getMean());
+        counter.record(10);
+        counter.record(20);
+        counter.advance(Duration.ofSeconds(5));
+        counter.increment();
+        assertEquals(3, counter.getCount());
+        assertEquals(31, counter.getSum());
+        assertEquals(31 / 3.0, counter.getMean(), 1e-9);
+        assertEquals(0.3, counter.getRatePerSecond(), 1e-9);
+        counter.advance(Duration.ofSeconds(5));
+        // first two events are outside of the window now
+        assertEquals(1, counter.getCount());
+        assertEquals(1, counter.getSum());
+        counter.advance(Duration.ofSeconds(4));
+        assertEquals(1, counter.getCount());
+        counter.advance(Duration.ofSeconds(1));
+        assertEquals(0, counter.getCount());
+        assertEquals("SlidingWindowCounter [window=PT10S, count=0, sum=0]", counter.toString());
+    }
+
+    @Test
+    public void test_rotation() {
+        var counter = new TestSlidingWindowCounter(Duration.ofSeconds(3), 3);
+        counter.nanos = -Duration.ofSeconds(100).toNanos();
+        for (int i = 0; i < 200; i++) {
+            counter.record(i);
+            counter.advance(Duration.ofSeconds(1));
+        }
+        assertEquals(2, counter.getCount());
+        assertEquals(198 + 199, counter.getSum());
+    }
+
+    @Test
+    public void test_concurrent() throws Exception {
+        var counter = new TestSlidingWindowCounter(Duration.ofMinutes(1), 60);
+        var executor = Executors.newFixedThreadPool(8);
+        var futures = new ArrayList<CompletableFuture<Void>>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(
+                    CompletableFuture.runAsync(
+                            () -> {
+                                for (int i = 0; i < 100_000; i++) counter.record(2);
+                            },
+                            executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+        executor.shutdown();
+        assertEquals(800_000, counter.getCount());
+        assertEquals(1_600_000, counter.getSum());
+        assertEquals(2.0, counter.getMean());
+    }
+}
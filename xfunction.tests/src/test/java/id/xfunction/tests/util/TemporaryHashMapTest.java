@@ -19,7 +19,9 @@ package id.xfunction.tests.util;
 
 import id.xfunction.lang.XThread;
 import id.xfunction.util.TemporaryHashMap;
+import id.xfunction.util.TemporaryHashMap.ExpirationPolicy;
 import java.time.Duration;
+import java.util.ArrayList;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -100,4 +102,107 @@ public class TemporaryHashMapTest {
         Assertions.assertEquals(false, map.containsKey("500"));
         Assertions.assertEquals(499, map.size());
     }
+
+    @Test
+    public void test_expired_not_visible() {
+        var currentTimeMillis = new long[1];
+        var map = newMap(currentTimeMillis, ExpirationPolicy.AFTER_WRITE, Long.MAX_VALUE);
+        map.put("k1", "val1");
+        currentTimeMillis[0] = 1001;
+        Assertions.assertEquals(false, map.containsKey("k1"));
+        Assertions.assertEquals(null, map.get("k1"));
+        Assertions.assertEquals(0, map.size());
+    }
+
+    @Test
+    public void test_expire_after_access() {
+        var currentTimeMillis = new long[1];
+        var map = newMap(currentTimeMillis, ExpirationPolicy.AFTER_ACCESS, Long.MAX_VALUE);
+        Assertions.assertEquals(ExpirationPolicy.AFTER_ACCESS, map.getExpirationPolicy());
+        map.put("k1", "val1");
+        map.put("k2", "val2");
+        map.put("k3", "val3");
+        for (int i = 1; i <= 5; i++) {
+            currentTimeMillis[0] = i * 900;
+            Assertions.assertEquals("val1", map.get("k1"));
+        }
+        currentTimeMillis[0] = 5000;
+        map.put("k3", "val33");
+        Assertions.assertEquals("{k1=val1, k3=val33}", map.toString());
+        currentTimeMillis[0] = 6000;
+        map.cleanupExpired();
+        Assertions.assertEquals("{k3=val33}", map.toString());
+    }
+
+    @Test
+    public void test_max_size() {
+        var currentTimeMillis = new long[1];
+        var map = newMap(currentTimeMillis, ExpirationPolicy.AFTER_WRITE, 3);
+        map.put("k1", "val1");
+        map.put("k2", "val2");
+        map.put("k3", "val3");
+        map.get("k1");
+        map.put("k4", "val4");
+        // k2 is least recently accessed
+        Assertions.assertEquals("{k1=val1, k3=val3, k4=val4}", map.toString());
+        Assertions.assertEquals(3, map.getWeight());
+        // expiration still follows the addition time
+        currentTimeMillis[0] = 1001;
+        map.cleanupExpired();
+        Assertions.assertEquals("{}", map.toString());
+        Assertions.assertEquals(0, map.getWeight());
+    }
+
+    @Test
+    public void test_max_weight() {
+        var map =
+                new TemporaryHashMap<String, String>(
+                        Duration.ofHours(1),
+                        ExpirationPolicy.AFTER_ACCESS,
+                        10,
+                        (k, v) -> v.length());
+        map.put("k1", "aaaa");
+        map.put("k2", "bbbb");
+        Assertions.assertEquals(8, map.getWeight());
+        map.put("k1", "a");
+        Assertions.assertEquals(5, map.getWeight());
+        map.put("k3", "ccccc");
+        Assertions.assertEquals("{k1=a, k2=bbbb, k3=ccccc}", map.toString());
+        map.put("k4", "dd");
+        Assertions.assertEquals("{k1=a, k3=ccccc, k4=dd}", map.toString());
+        Assertions.assertEquals(8, map.getWeight());
+        map.remove("k3");
+        Assertions.assertEquals(3, map.getWeight());
+        // pair which is heavier than the bound is evicted as well
+        map.put("k5", "eeeeeeeeeee");
+        Assertions.assertEquals("{}", map.toString());
+        Assertions.assertEquals(0, map.getWeight());
+    }
+
+    @Test
+    public void test_max_size_iterate_and_get() {
+        var map = newMap(new long[1], ExpirationPolicy.AFTER_WRITE, 3);
+        map.put("k1", "val1");
+        map.put("k2", "val2");
+        map.put("k3", "val3");
+        // reading the pairs should not affect iteration over the map
+        var values = new ArrayList<String>();
+        for (var k : map.keySet()) values.add(map.get(k));
+        Assertions.assertEquals("[val1, val2, val3]", values.toString());
+        // k2 and k3 were accessed after k1
+        map.get("k2");
+        map.get("k3");
+        map.put("k4", "val4");
+        Assertions.assertEquals("{k2=val2, k3=val3, k4=val4}", map.toString());
+    }
+
+    private TemporaryHashMap<String, String> newMap(
+            long[] currentTimeMillis, ExpirationPolicy policy, long maxSize) {
+        return new TemporaryHashMap<String, String>(Duration.ofSeconds(1), policy, maxSize) {
+            @Override
+            protected long currentTimeMillis() {
+                return currentTimeMillis[0];
+            }
+        };
+    }
 }
@@ -21,8 +21,14 @@ import static java.util.stream.Collectors.toSet;
 
 import id.xfunction.util.XCollections;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -48,4 +54,75 @@ public class XCollectionsTests {
                 (p1, p2) -> out.add("<%d,%d>".formatted(p1, p2)));
         Assertions.assertEquals("[<1,1>, <4,3>]", out.toString());
     }
+
+    @Test
+    public void test_findEqualPairs_duplicates() {
+        var out = new ArrayList<String>();
+        XCollections.findEqualPairs(
+                List.of(1, 2, 1, 3),
+                List.of(1, 4, 3, 1, 2),
+                (p1, p2) -> out.add("<%d,%d>".formatted(p1, p2)));
+        Collections.sort(out);
+        Assertions.assertEquals("[<0,0>, <0,3>, <1,4>, <2,0>, <2,3>, <3,2>]", out.toString());
+    }
+
+    @Test
+    public void test_intersection_difference() {
+        Set<Integer> s1 = Stream.of(1, 2, 3, 4).collect(toSet());
+        Set<Integer> s2 = Stream.of(3, 4, 5).collect(toSet());
+        Assertions.assertEquals(Set.of(3, 4), XCollections.intersection(s1, s2));
+        Assertions.assertEquals(Set.of(3, 4), XCollections.intersection(s2, s1));
+        Assertions.assertEquals(Set.of(1, 2), XCollections.difference(s1, s2));
+        Assertions.assertEquals(Set.of(5), XCollections.difference(s2, s1));
+        Assertions.assertEquals(Set.of(3, 4), XCollections.parallelIntersection(s1, s2));
+        Assertions.assertEquals(Set.of(1, 2), XCollections.parallelDifference(s1, s2));
+        Assertions.assertEquals(Set.of(), XCollections.intersection(s1, Set.of()));
+        Assertions.assertEquals(s1, XCollections.difference(s1, Set.of()));
+    }
+
+    @Test
+    public void test_sortMergeJoin() {
+        var out = new ArrayList<String>();
+        XCollections.sortMergeJoin(
+                List.of("c", "a", "b", "a"),
+                List.of("a", "d", "c", "a"),
+                (p1, p2) -> out.add("<%d,%d>".formatted(p1, p2)));
+        Assertions.assertEquals("[<1,0>, <1,3>, <3,0>, <3,3>, <0,2>]", out.toString());
+
+        out.clear();
+        XCollections.sortMergeJoin(
+                List.of("A", "b"),
+                List.of("B", "a"),
+                String.CASE_INSENSITIVE_ORDER,
+                (p1, p2) -> out.add("<%d,%d>".formatted(p1, p2)));
+        Assertions.assertEquals("[<0,1>, <1,0>]", out.toString());
+    }
+
+    @Test
+    public void test_joins_random() {
+        var rand = new Random(1);
+        for (int n = 0; n < 50; n++) {
+            var a = rand.ints(rand.nextInt(300), 0, 100).boxed().collect(Collectors.toList());
+            var b = rand.ints(rand.nextInt(300), 0, 100).boxed().collect(Collectors.toList());
+            var expected = new TreeSet<Long>();
+            for (int i = 0; i < a.size(); i++)
+                for (int j = 0; j < b.size(); j++)
+                    if (a.get(i).equals(b.get(j))) expected.add(((long) i << 32) | j);
+            var hash = new TreeSet<Long>();
+            XCollections.hashJoin(a, b, (i, j) -> hash.add(((long) i << 32) | j));
+            Assertions.assertEquals(expected, hash);
+            var parallel = Collections.synchronizedSet(new TreeSet<Long>());
+            XCollections.parallelHashJoin(a, b, (i, j) -> parallel.add(((long) i << 32) | j));
+            Assertions.assertEquals(expected, parallel);
+            var merge = new ArrayList<Long>();
+            XCollections.sortMergeJoin(a, b, (i, j) -> merge.add(((long) i << 32) | j));
+            Assertions.assertEquals(expected, new TreeSet<>(merge));
+            Assertions.assertEquals(expected.size(), merge.size());
+        }
+        var sorted = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        var count = new int[1];
+        XCollections.sortMergeJoin(
+                sorted, sorted, Comparator.reverseOrder(), (i, j) -> count[0] += i == j ? 1 : 0);
+        Assertions.assertEquals(1000, count[0]);
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.tests.util.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import id.xfunction.util.stream.RandomTextGenerator;
+import id.xfunction.util.stream.RandomTextGenerator.LineLength;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class RandomTextGeneratorTest {
+
+    @Test
+    public void test_reproducible() {
+        var lines = new RandomTextGenerator(1).lines(5000).collect(Collectors.toList());
+        assertEquals(5000, lines.size());
+        assertEquals(
+                lines, new RandomTextGenerator(1).lines().limit(5000).collect(Collectors.toList()));
+        assertEquals(
+                lines,
+                new RandomTextGenerator(1).lines(5000).parallel().collect(Collectors.toList()));
+        assertNotEquals(lines, new RandomTextGenerator(2).lines(5000).collect(Collectors.toList()));
+        assertTrue(lines.stream().allMatch(l -> l.length() <= 100 && l.matches("[a-z]*")));
+    }
+
+    @Test
+    public void test_inputStream() throws IOException {
+        var generator = new RandomTextGenerator(3, "ab", LineLength.gaussian(50, 10, 1, 80));
+        var expected = generator.lines(3000).map(l -> l + "\n").collect(Collectors.joining());
+        var actual =
+                new String(generator.inputStream(3000).readAllBytes(), StandardCharsets.US_ASCII);
+        assertEquals(expected, actual);
+        var in = generator.inputStream(1);
+        var first = generator.lines(1).findFirst().get();
+        assertEquals(first.charAt(0), in.read());
+        var rest = new byte[first.length() + 10];
+        assertEquals(first.length(), in.read(rest, 0, rest.length));
+        assertEquals(-1, in.read());
+        assertEquals(-1, in.read(rest, 0, rest.length));
+    }
+
+    @Test
+    public void test_lineLength() {
+        assertTrue(
+                new RandomTextGenerator(4, "x", LineLength.fixed(7))
+                        .lines(100)
+                        .allMatch("xxxxxxx"::equals));
+        var stats =
+                new RandomTextGenerator(5, "xyz", LineLength.uniform(10, 20))
+                        .lines(10_000)
+                        .mapToInt(String::length)
+                        .summaryStatistics();
+        assertEquals(10, stats.getMin());
+        assertEquals(20, stats.getMax());
+        assertEquals(15, stats.getAverage(), 0.2);
+        var counts =
+                new RandomTextGenerator(6, "xyz", LineLength.fixed(100))
+                        .lines(1000)
+                        .flatMapToInt(String::chars)
+                        .boxed()
+                        .collect(Collectors.groupingBy(ch -> ch, Collectors.counting()));
+        assertEquals(3, counts.size());
+        counts.values().forEach(c -> assertEquals(100_000 / 3., c, 1000));
+    }
+}
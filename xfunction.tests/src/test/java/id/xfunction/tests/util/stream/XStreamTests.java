@@ -21,8 +21,16 @@ import static java.util.stream.Collectors.toSet;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
+import id.xfunction.util.stream.BatchingSpliterator;
 import id.xfunction.util.stream.XStream;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.junit.jupiter.api.Test;
 
 public class XStreamTests {
@@ -39,4 +47,96 @@ public class XStreamTests {
         Set<String> s1 = XStream.infiniteRandomStream(10).limit(1).collect(toSet());
         assertEquals(1, s1.size());
     }
+
+    @Test
+    public void test_of_batched() {
+        var list = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+        assertEquals(list, XStream.of(list.iterator(), 7).collect(Collectors.toList()));
+        assertEquals(list, XStream.of(list.iterator(), 7).parallel().collect(Collectors.toList()));
+        assertEquals(
+                49995000L, XStream.of(list.iterator(), 100).parallel().mapToLong(i -> i).sum());
+    }
+
+    @Test
+    public void test_BatchingSpliterator_split() {
+        var spliterator =
+                new BatchingSpliterator<>(
+                        IntStream.range(0, 10).iterator(), Spliterator.ORDERED, 2, 3);
+        assertEquals(2, spliterator.trySplit().estimateSize());
+        assertEquals(3, spliterator.trySplit().estimateSize());
+        assertEquals(3, spliterator.trySplit().estimateSize());
+        var rest = spliterator.trySplit();
+        assertEquals(2, rest.estimateSize());
+        assertEquals(null, spliterator.trySplit());
+    }
+
+    @Test
+    public void test_chunked() {
+        assertEquals(
+                "[[1, 2], [3, 4], [5]]",
+                XStream.chunked(Stream.of(1, 2, 3, 4, 5), 2)
+                        .collect(Collectors.toList())
+                        .toString());
+        assertEquals(
+                "[[1, 2, 3]]",
+                XStream.chunked(Stream.of(1, 2, 3), 3).collect(Collectors.toList()).toString());
+        assertEquals(0, XStream.chunked(Stream.of(), 3).count());
+        assertEquals(
+                "[[1, 2], [3]]",
+                XStream.chunked(IntStream.rangeClosed(1, 3), 2)
+                        .map(Arrays::toString)
+                        .collect(Collectors.toList())
+                        .toString());
+        var list = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+        var chunks = XStream.chunked(list.parallelStream(), 10).collect(Collectors.toList());
+        assertEquals(1000, chunks.size());
+        assertEquals(list, chunks.stream().flatMap(List::stream).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void test_windowed() {
+        assertEquals(
+                "[[1, 2, 3], [2, 3, 4], [3, 4, 5]]",
+                XStream.windowed(Stream.of(1, 2, 3, 4, 5), 3, 1)
+                        .collect(Collectors.toList())
+                        .toString());
+        assertEquals(
+                "[[1, 2], [4, 5]]",
+                XStream.windowed(Stream.of(1, 2, 3, 4, 5, 6), 2, 3)
+                        .collect(Collectors.toList())
+                        .toString());
+        assertEquals(
+                "[[1, 2, 3], [3, 4, 5]]",
+                XStream.windowed(Stream.of(1, 2, 3, 4, 5, 6), 3, 2)
+                        .collect(Collectors.toList())
+                        .toString());
+        assertEquals(0, XStream.windowed(Stream.of(1, 2), 3, 1).count());
+    }
+
+    @Test
+    public void test_zip() {
+        assertEquals(
+                "[a1, b2, c3]",
+                XStream.zip(Stream.of("a", "b", "c", "d"), Stream.of(1, 2, 3), (s, i) -> s + i)
+                        .collect(Collectors.toList())
+                        .toString());
+        var closed = new int[1];
+        XStream.zip(
+                        Stream.of(1).onClose(() -> closed[0]++),
+                        Stream.of(2).onClose(() -> closed[0]++),
+                        Integer::sum)
+                .close();
+        assertEquals(2, closed[0]);
+        var list = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+        assertEquals(
+                list.stream().map(i -> i * 2).collect(Collectors.toList()),
+                XStream.zip(list.parallelStream(), list.stream(), Integer::sum)
+                        .collect(Collectors.toList()));
+        assertEquals(
+                0,
+                StreamSupport.stream(
+                                new BatchingSpliterator<>(Stream.<String>empty().spliterator()),
+                                true)
+                        .count());
+    }
 }
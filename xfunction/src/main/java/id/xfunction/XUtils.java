@@ -17,8 +17,10 @@
  */
 package id.xfunction;
 
+import id.xfunction.concurrent.HashedWheelTimer;
 import id.xfunction.function.ThrowingRunnable;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Set of miscellaneous functions.
@@ -27,29 +29,29 @@ import java.util.concurrent.ForkJoinPool;
  */
 public class XUtils {
 
-    /**
-     * Launches background thread which prints JVM memory consumption after given period of time.
-     */
+    /** Periodically prints JVM memory consumption with given period of time. */
     public static void printMemoryConsumption(long delayMillis) {
-        ForkJoinPool.commonPool()
-                .submit(
-                        () -> {
-                            long max = 0;
-                            while (true) {
-                                long used =
-                                        (Runtime.getRuntime().totalMemory()
-                                                        - Runtime.getRuntime().freeMemory())
-                                                / 1_000_000;
-                                max = Math.max(used, max);
-                                System.out.format(
-                                        "Memory used (MB) %s, max peak value: %s\n", used, max);
-                                try {
-                                    Thread.sleep(delayMillis);
-                                } catch (InterruptedException e) {
-                                    e.printStackTrace();
-                                }
-                            }
-                        });
+        printMemoryConsumption(delayMillis, new long[1]);
+    }
+
+    private static void printMemoryConsumption(long delayMillis, long[] max) {
+        // printing may block so it is done outside of the timer thread
+        HashedWheelTimer.getDefault()
+                .newTimeout(
+                        () ->
+                                ForkJoinPool.commonPool()
+                                        .execute(() -> printMemoryUsed(delayMillis, max)),
+                        delayMillis,
+                        TimeUnit.MILLISECONDS);
+    }
+
+    private static void printMemoryUsed(long delayMillis, long[] max) {
+        long used =
+                (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory())
+                        / 1_000_000;
+        max[0] = Math.max(used, max[0]);
+        System.out.format("Memory used (MB) %s, max peak value: %s\n", used, max[0]);
+        printMemoryConsumption(delayMillis, max);
     }
 
     /**
@@ -17,20 +17,20 @@
  */
 package id.xfunction.concurrent;
 
-import static java.util.stream.Collectors.toList;
-
+import id.xfunction.Preconditions;
 import id.xfunction.function.Unchecked;
+import id.xfunction.lang.XThread;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Predicate;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * BlockingExecutorService keeps pool of worker threads which read tasks from the blocking queue.
@@ -39,6 +39,14 @@ import java.util.stream.Stream;
  * until new space in queue became available (with standard ThreadPoolExecutor such task will be
  * rejected).
  *
+ * <p>Pool can be fixed or adaptive. Fixed pool starts all its worker threads at once and keeps them
+ * until shutdown. Adaptive pool starts with core number of workers and adds new ones (up to
+ * maximum) when tasks wait in the queue longer than the given threshold or when the queue is full.
+ * Workers above the core number retire after being idle for the keep-alive time. In both cases
+ * submitting threads block when the queue is full.
+ *
+ * <p>Executor can record {@link ExecutorMetrics} of its tasks.
+ *
  * @author lambdaprime intid@protonmail.com
  */
 public class BlockingExecutorService extends AbstractExecutorService {
@@ -46,29 +54,105 @@ public class BlockingExecutorService extends AbstractExecutorService {
     // end of queue
     private static final Runnable EOQ = () -> {};
 
-    private Semaphore semaphore;
+    private final int corePoolSize;
+    private final int maximumPoolSize;
+    private final long keepAliveNanos;
+    private final long queueWaitThresholdNanos;
+    private final AtomicInteger poolSize = new AtomicInteger();
+
+    /** Number of workers which are running tasks, maintained by adaptive pool only */
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    /** When some worker took a task for the last time, maintained by adaptive pool only */
+    private volatile long lastTakeNanos;
+
+    private final CountDownLatch terminated = new CountDownLatch(1);
     private volatile boolean isShutdown;
     private BlockingQueue<Runnable> queue;
-    private List<WorkerThread> workers;
+    private ExecutorMetrics metrics;
+
+    /** Task with the time when it was submitted, used by adaptive pool only */
+    private static class TimedTask implements Runnable {
+        private final Runnable task;
+        private final long submittedAt;
+
+        TimedTask(Runnable task, long submittedAt) {
+            this.task = task;
+            this.submittedAt = submittedAt;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+
+    private class Worker implements Runnable {
+        private boolean isRetired;
 
-    private class WorkerThread extends Thread {
         @Override
         public void run() {
             try {
-                semaphore.acquire();
                 Runnable r;
-                while ((r = queue.take()) != EOQ) {
+                while ((r = nextTask()) != EOQ) {
+                    if (r == null) {
+                        isRetired = tryRetire();
+                        if (isRetired) return;
+                        continue;
+                    }
+                    if (r instanceof TimedTask) {
+                        runTimed((TimedTask) r);
+                        continue;
+                    }
                     //                    System.out.println("pick up new item from queue");
-                    r.run();
+                    runTask(r);
                 }
                 // put it back for other workers
                 queue.put(EOQ);
             } catch (Exception ex) {
                 ex.printStackTrace();
             } finally {
-                semaphore.release();
+                if (!isRetired) poolSize.decrementAndGet();
+                checkTerminated();
             }
         }
+
+        private void runTimed(TimedTask task) {
+            var now = System.nanoTime();
+            lastTakeNanos = now;
+            if (now - task.submittedAt > queueWaitThresholdNanos) tryAddWorker(maximumPoolSize);
+            activeCount.incrementAndGet();
+            try {
+                runTask(task.task);
+            } finally {
+                activeCount.decrementAndGet();
+            }
+        }
+
+        private void runTask(Runnable task) {
+            if (metrics == null) task.run();
+            else metrics.run(task);
+        }
+
+        /** Returns null if worker can retire */
+        private Runnable nextTask() throws InterruptedException {
+            if (poolSize.get() > corePoolSize)
+                return queue.poll(keepAliveNanos, TimeUnit.NANOSECONDS);
+            return queue.take();
+        }
+
+        private boolean tryRetire() {
+            int n = poolSize.get();
+            if (n <= corePoolSize || !poolSize.compareAndSet(n, n - 1)) return false;
+            // task could be submitted when this worker was still counted
+            if (!hasTasks()) return true;
+            if (tryReserveWorker(maximumPoolSize)) return false;
+            if (!isShutdown) return true;
+            // no workers can be reserved after shutdown so the worker stays until the queue is
+            // drained, otherwise the last one may retire and leave the tasks in the queue
+            poolSize.incrementAndGet();
+            return false;
+        }
     }
 
     /**
@@ -79,28 +163,116 @@ public class BlockingExecutorService extends AbstractExecutorService {
      * @param capacity size of the internal queue from which worker will pick up the tasks
      */
     public BlockingExecutorService(int maximumPoolSize, int capacity) {
-        this.queue = new ArrayBlockingQueue<>(capacity);
-        this.semaphore = new Semaphore(maximumPoolSize);
-        this.workers =
-                Stream.generate(() -> new WorkerThread())
-                        .peek(Thread::start)
-                        .limit(maximumPoolSize)
-                        .collect(toList());
+        this(maximumPoolSize, capacity, null);
+    }
+
+    /**
+     * Creates executor which records metrics of its tasks.
+     *
+     * @param maximumPoolSize number of worker threads which will be created and be waiting for a
+     *     new tasks
+     * @param capacity size of the internal queue from which worker will pick up the tasks
+     * @param metrics where to record metrics, if null then they are not recorded
+     */
+    public BlockingExecutorService(int maximumPoolSize, int capacity, ExecutorMetrics metrics) {
+        this(maximumPoolSize, maximumPoolSize, Duration.ZERO, Duration.ZERO, capacity, metrics);
     }
 
     public BlockingExecutorService(int capacity) {
         this(ForkJoinPool.getCommonPoolParallelism(), capacity);
     }
 
+    /**
+     * Creates executor with adaptive pool.
+     *
+     * @param corePoolSize number of worker threads which are started right away and kept until
+     *     shutdown
+     * @param maximumPoolSize maximum number of worker threads
+     * @param keepAlive how long workers above the core number can be idle before they retire
+     * @param queueWaitThreshold new worker is added when some task waited in the queue longer than
+     *     that
+     * @param capacity size of the internal queue from which worker will pick up the tasks
+     */
+    public BlockingExecutorService(
+            int corePoolSize,
+            int maximumPoolSize,
+            Duration keepAlive,
+            Duration queueWaitThreshold,
+            int capacity) {
+        this(corePoolSize, maximumPoolSize, keepAlive, queueWaitThreshold, capacity, null);
+    }
+
+    /**
+     * Creates executor with adaptive pool which records metrics of its tasks.
+     *
+     * @see #BlockingExecutorService(int, int, Duration, Duration, int)
+     * @param metrics where to record metrics, if null then they are not recorded
+     */
+    public BlockingExecutorService(
+            int corePoolSize,
+            int maximumPoolSize,
+            Duration keepAlive,
+            Duration queueWaitThreshold,
+            int capacity,
+            ExecutorMetrics metrics) {
+        Preconditions.isTrue(
+                0 <= corePoolSize && corePoolSize <= maximumPoolSize && maximumPoolSize > 0,
+                "Wrong pool size");
+        this.corePoolSize = corePoolSize;
+        this.maximumPoolSize = maximumPoolSize;
+        this.keepAliveNanos = keepAlive.toNanos();
+        this.queueWaitThresholdNanos = queueWaitThreshold.toNanos();
+        this.metrics = metrics;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        if (metrics != null) {
+            // after shutdown queue contains EOQ
+            metrics.setQueueSize(() -> Math.max(0, queue.size() - (isShutdown ? 1 : 0)));
+        }
+        for (int i = 0; i < corePoolSize; i++) tryAddWorker(corePoolSize);
+    }
+
+    /** Current number of worker threads */
+    public int getPoolSize() {
+        return poolSize.get();
+    }
+
+    private boolean isAdaptive() {
+        return corePoolSize < maximumPoolSize;
+    }
+
+    private boolean tryAddWorker(int limit) {
+        if (!tryReserveWorker(limit)) return false;
+        XThread.newThread(new Worker()).start();
+        return true;
+    }
+
+    private boolean tryReserveWorker(int limit) {
+        int n;
+        do {
+            n = poolSize.get();
+            if (n >= limit || isShutdown) return false;
+        } while (!poolSize.compareAndSet(n, n + 1));
+        return true;
+    }
+
+    private void checkTerminated() {
+        // retiring worker may be not counted for a moment while the queue still has tasks
+        if (isShutdown && poolSize.get() == 0 && !hasTasks()) terminated.countDown();
+    }
+
+    /** After shutdown queue contains {@link #EOQ} which is not a task */
+    private boolean hasTasks() {
+        for (var r : queue) {
+            if (r != EOQ) return true;
+        }
+        return false;
+    }
+
     @Override
     public void shutdown() {
         isShutdown = true;
-        Executors.defaultThreadFactory()
-                .newThread(
-                        () -> {
-                            Unchecked.run(() -> queue.put(EOQ));
-                        })
-                .start();
+        checkTerminated();
+        XThread.newThread(() -> Unchecked.run(() -> queue.put(EOQ))).start();
     }
 
     @Override
@@ -115,33 +287,47 @@ public class BlockingExecutorService extends AbstractExecutorService {
 
     @Override
     public boolean isTerminated() {
-        return semaphore.availablePermits() == workers.size();
+        return terminated.getCount() == 0;
     }
 
-    /**
-     * This call blocks indefinitely if there are some pending tasks in the queue which is yet to be
-     * taken.
-     *
-     * <p>If the queue is empty it behaves as {@link ExecutorService#awaitTermination(long,
-     * TimeUnit)}
-     */
     @Override
     public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
-        boolean isTerminated = false;
-        int numOfPermits = workers.size();
-        while (true) {
-            isTerminated = semaphore.tryAcquire(numOfPermits, timeout, unit);
-            if (isTerminated && queue.peek() != EOQ) {
-                semaphore.release(numOfPermits);
-            } else break;
-        }
-        if (isTerminated) return true;
-        return workers.stream().map(Thread::isAlive).noneMatch(Predicate.isEqual(true));
+        return terminated.await(timeout, unit);
     }
 
     @Override
     public void execute(Runnable command) {
         if (isShutdown) return;
-        Unchecked.run(() -> queue.put(command));
+        var task = metrics == null ? command : metrics.onSubmit(command);
+        var now = 0L;
+        if (isAdaptive()) {
+            now = System.nanoTime();
+            task = new TimedTask(task, now);
+        }
+        if (!queue.offer(task)) {
+            if (isAdaptive()) tryAddWorker(maximumPoolSize);
+            var startedAt = metrics == null ? 0 : System.nanoTime();
+            var t = task;
+            Unchecked.run(() -> queue.put(t));
+            if (metrics != null) metrics.onBlockedSubmit(System.nanoTime() - startedAt);
+        }
+        // all workers could retire meanwhile
+        if (poolSize.get() == 0) tryAddWorker(Math.max(1, corePoolSize));
+        // when all workers are busy nobody takes tasks from the queue to see how long they wait
+        if (isAdaptive()
+                && activeCount.get() >= poolSize.get()
+                && now - lastTakeNanos > queueWaitThresholdNanos) tryAddWorker(maximumPoolSize);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        if (metrics == null) return super.newTaskFor(callable);
+        return metrics.newTaskFor(callable);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        if (metrics == null) return super.newTaskFor(runnable, value);
+        return metrics.newTaskFor(runnable, value);
     }
 }
@@ -17,48 +17,59 @@
  */
 package id.xfunction.concurrent;
 
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Future which delays its completion for a given amount of time
  *
+ * <p>Delays are served by {@link HashedWheelTimer#getDefault()} so pending futures do not occupy
+ * any threads. Once the delay elapses the future is completed on the {@link
+ * ForkJoinPool#commonPool()} so that its dependent stages do not run on the timer thread.
+ *
+ * <p>Cancelling the future cancels its timeout as well.
+ *
  * @author lambdaprime intid@protonmail.com
  */
 public class DelayedCompletableFuture<T> extends CompletableFuture<T> {
 
+    private final HashedWheelTimer.Timeout timeout;
+
     /**
      * @param millis number of milliseconds when future completes
      */
     public DelayedCompletableFuture(T value, long millis) {
-        ForkJoinPool.commonPool()
-                .submit(
-                        () -> {
-                            try {
-                                Thread.sleep(millis);
-                            } catch (InterruptedException e) {
-                                e.printStackTrace();
-                            }
-                            complete(value);
-                        });
+        timeout = schedule(value, millis, TimeUnit.MILLISECONDS);
     }
 
     /** Completes a future with a random delay between [startMillis, endMillis) */
     public DelayedCompletableFuture(T value, long startMillis, long endMillis) {
-        ForkJoinPool.commonPool()
-                .submit(
-                        () -> {
-                            try {
-                                long msec =
-                                        (long)
-                                                (startMillis
-                                                        + (endMillis - startMillis)
-                                                                * Math.random());
-                                Thread.sleep(msec);
-                            } catch (InterruptedException e) {
-                                e.printStackTrace();
-                            }
-                            complete(value);
-                        });
+        long millis =
+                startMillis < endMillis
+                        ? ThreadLocalRandom.current().nextLong(startMillis, endMillis)
+                        : startMillis;
+        timeout = schedule(value, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public DelayedCompletableFuture(T value, Duration delay) {
+        timeout = schedule(value, delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        var isCancelled = super.cancel(mayInterruptIfRunning);
+        if (isCancelled) timeout.cancel();
+        return isCancelled;
+    }
+
+    private HashedWheelTimer.Timeout schedule(T value, long delay, TimeUnit unit) {
+        return HashedWheelTimer.getDefault()
+                .newTimeout(
+                        () -> ForkJoinPool.commonPool().execute(() -> complete(value)),
+                        delay,
+                        unit);
     }
 }
@@ -0,0 +1,411 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.concurrent;
+
+import id.xfunction.Preconditions;
+import id.xfunction.lang.XThread;
+import id.xfunction.logging.XLogger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Executor which runs all tasks on a single owner thread (event loop).
+ *
+ * <p>Tasks are pushed into lock free multi producer single consumer stack. Loop thread takes all
+ * pending tasks at once with a single atomic operation and runs them as one batch in the order they
+ * were submitted. When the task is submitted from the loop thread itself it is executed inline
+ * without going through the queue (up to {@link #MAX_INLINE_DEPTH} nested submissions, after that
+ * tasks are queued to avoid stack overflow). This allows to run pipelines of {@link
+ * java.util.concurrent.SubmissionPublisher} and other {@link java.util.concurrent.Flow} components
+ * on one thread without any cross thread handoff.
+ *
+ * <p>Unlike {@link SameThreadExecutorService} it follows {@link
+ * java.util.concurrent.ExecutorService} contract:
+ *
+ * <ul>
+ *   <li>tasks submitted after {@link #shutdown()} are rejected with {@link
+ *       RejectedExecutionException}
+ *   <li>{@link #shutdown()} lets all already queued tasks to complete, {@link #shutdownNow()}
+ *       returns them instead, including tasks of the batch which loop thread already took but did
+ *       not run yet
+ *   <li>executor is terminated once loop thread exits
+ * </ul>
+ *
+ * <p>Scheduled tasks are kept in {@link HashedWheelTimer} and once they are due they are queued for
+ * execution on the loop thread. Their precision is limited by the timer tick. Scheduled tasks which
+ * are still pending during shutdown are cancelled.
+ *
+ * <p>Loop thread is created with {@link XThread#newThread(Runnable, String)}. Unless it is virtual
+ * thread it is non daemon so executor needs to be shutdown.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class EventLoopExecutorService extends AbstractExecutorService
+        implements ScheduledExecutorService {
+
+    /** Max number of nested inline executions on the loop thread */
+    public static final int MAX_INLINE_DEPTH = 16;
+
+    private static final int RUNNING = 0;
+    private static final int SHUTDOWN = 1;
+    private static final int STOP = 2;
+
+    /** Marks that loop does not accept new tasks anymore */
+    private static final Node CLOSED = new Node(null);
+
+    /** Marks that loop thread is moving tasks from the stack to {@link #batch} */
+    private static final Node TAKING = new Node(null);
+
+    /** Top of the stack of pending tasks, last submitted task first */
+    private final AtomicReference<Node> head = new AtomicReference<>();
+
+    /**
+     * Tasks which loop thread took from the stack but did not run yet, first submitted task first.
+     * Loop thread claims them one by one with compareAndSet and {@link #shutdownNow()} takes the
+     * rest of them by replacing it with {@link #CLOSED}.
+     */
+    private final AtomicReference<Node> batch = new AtomicReference<>();
+
+    private final Set<ScheduledTask<?>> scheduledTasks = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private final HashedWheelTimer timer;
+    private final Thread loopThread;
+    private volatile int state = RUNNING;
+    private volatile boolean isIdle;
+
+    // accessed only by the loop thread
+    private int inlineDepth;
+
+    private static class Node {
+        private final Runnable task;
+        private Node next;
+
+        Node(Runnable task) {
+            this.task = task;
+        }
+    }
+
+    /**
+     * Task scheduled with delay. Cancelling it removes it from the timer.
+     *
+     * <p>Period is positive for fixed rate tasks, negative for fixed delay tasks and 0 for one shot
+     * tasks.
+     */
+    private class ScheduledTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        private final long period;
+        private volatile long time;
+        private volatile HashedWheelTimer.Timeout timeout;
+
+        ScheduledTask(Callable<V> callable, long time) {
+            super(callable);
+            this.time = time;
+            this.period = 0;
+        }
+
+        ScheduledTask(Runnable task, long time, long period) {
+            super(task, null);
+            this.time = time;
+            this.period = period;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return period != 0;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(time - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other == this) return 0;
+            return Long.compare(
+                    getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+                scheduledTasks.remove(this);
+                return;
+            }
+            if (!runAndReset()) {
+                scheduledTasks.remove(this);
+                return;
+            }
+            time = period > 0 ? time + period : System.nanoTime() - period;
+            schedule();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            var isCancelled = super.cancel(mayInterruptIfRunning);
+            if (isCancelled) {
+                var timeout = this.timeout;
+                if (timeout != null) timeout.cancel();
+                scheduledTasks.remove(this);
+            }
+            return isCancelled;
+        }
+
+        void schedule() {
+            timeout =
+                    timer.newTimeout(this::enqueue, time - System.nanoTime(), TimeUnit.NANOSECONDS);
+            // cancel could happen before timeout was assigned
+            if (isCancelled()) timeout.cancel();
+        }
+
+        /** Called by the timer thread */
+        private void enqueue() {
+            if (state != RUNNING || !offer(this)) cancel(false);
+        }
+    }
+
+    /**
+     * Creates event loop which uses {@link HashedWheelTimer#getDefault()} for scheduled tasks
+     *
+     * @param name name of the loop thread
+     */
+    public EventLoopExecutorService(String name) {
+        this(name, HashedWheelTimer.getDefault());
+    }
+
+    /**
+     * @param name name of the loop thread
+     * @param timer timer for scheduled tasks
+     */
+    public EventLoopExecutorService(String name, HashedWheelTimer timer) {
+        this.timer = timer;
+        loopThread = XThread.newThread(this::run, name);
+        loopThread.start();
+    }
+
+    /** Check if current thread is the loop thread of this executor */
+    public boolean isInEventLoop() {
+        return Thread.currentThread() == loopThread;
+    }
+
+    /**
+     * Executes the task on the loop thread. When called from the loop thread the task is executed
+     * immediately.
+     *
+     * @throws RejectedExecutionException if executor is shutdown
+     */
+    @Override
+    public void execute(Runnable command) {
+        Objects.requireNonNull(command);
+        if (state != RUNNING) throw new RejectedExecutionException("Executor is shutdown");
+        if (isInEventLoop() && inlineDepth < MAX_INLINE_DEPTH) {
+            inlineDepth++;
+            try {
+                runTask(command);
+            } finally {
+                inlineDepth--;
+            }
+            return;
+        }
+        if (!offer(command)) throw new RejectedExecutionException("Executor is shutdown");
+    }
+
+    /**
+     * @return false if loop does not accept tasks anymore
+     */
+    private boolean offer(Runnable command) {
+        var node = new Node(command);
+        Node top;
+        do {
+            top = head.get();
+            if (top == CLOSED) return false;
+            node.next = top;
+        } while (!head.compareAndSet(top, node));
+        if (isIdle) LockSupport.unpark(loopThread);
+        return true;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return schedule(new ScheduledTask<Void>(command, triggerTime(delay, unit), 0));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return schedule(new ScheduledTask<>(callable, triggerTime(delay, unit)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(
+            Runnable command, long initialDelay, long period, TimeUnit unit) {
+        Preconditions.isTrue(period > 0, "Period must be positive");
+        return schedule(
+                new ScheduledTask<Void>(
+                        command, triggerTime(initialDelay, unit), unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(
+            Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        Preconditions.isTrue(delay > 0, "Delay must be positive");
+        return schedule(
+                new ScheduledTask<Void>(
+                        command, triggerTime(initialDelay, unit), -unit.toNanos(delay)));
+    }
+
+    private <V> ScheduledTask<V> schedule(ScheduledTask<V> task) {
+        if (state != RUNNING) throw new RejectedExecutionException("Executor is shutdown");
+        scheduledTasks.add(task);
+        task.schedule();
+        if (state != RUNNING) {
+            task.cancel(false);
+            throw new RejectedExecutionException("Executor is shutdown");
+        }
+        return task;
+    }
+
+    private static long triggerTime(long delay, TimeUnit unit) {
+        return System.nanoTime() + unit.toNanos(Math.max(0, delay));
+    }
+
+    /** Already queued tasks will be executed, pending scheduled tasks are cancelled */
+    @Override
+    public void shutdown() {
+        if (state == RUNNING) state = SHUTDOWN;
+        cancelScheduledTasks();
+        LockSupport.unpark(loopThread);
+    }
+
+    /**
+     * Interrupts the loop thread
+     *
+     * @return tasks which were queued but never executed
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        state = STOP;
+        cancelScheduledTasks();
+        var tasks = new ArrayList<Runnable>();
+        Node rest;
+        do {
+            // wait until loop thread finishes moving tasks from the stack to the batch
+            while ((rest = batch.get()) == TAKING) Thread.onSpinWait();
+        } while (!batch.compareAndSet(rest, CLOSED));
+        if (rest != CLOSED) {
+            for (var node = rest; node != null; node = node.next) tasks.add(node.task);
+        }
+        var top = head.getAndSet(CLOSED);
+        if (top != CLOSED) {
+            for (var node = reverse(top); node != null; node = node.next) tasks.add(node.task);
+        }
+        loopThread.interrupt();
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return state != RUNNING;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    private void cancelScheduledTasks() {
+        for (var task : scheduledTasks) task.cancel(false);
+    }
+
+    private void run() {
+        try {
+            while (state != STOP) {
+                var top = head.get();
+                if (top == CLOSED) break;
+                if (top == null) {
+                    if (state != RUNNING) {
+                        // no more tasks, stop accepting new ones
+                        if (head.compareAndSet(null, CLOSED)) break;
+                        continue;
+                    }
+                    isIdle = true;
+                    if (head.get() == null && state == RUNNING) LockSupport.park(this);
+                    isIdle = false;
+                    // ignore interrupts left by tasks otherwise park returns immediately
+                    Thread.interrupted();
+                    continue;
+                }
+                // shutdownNow waits while batch is TAKING so tasks are never lost between the two
+                if (!batch.compareAndSet(null, TAKING)) break;
+                batch.set(reverse(head.getAndSet(null)));
+                runBatch();
+            }
+        } finally {
+            head.set(CLOSED);
+            terminated.countDown();
+        }
+    }
+
+    private void runBatch() {
+        Node node;
+        // shutdownNow could be called by one of the tasks in this batch
+        while ((node = batch.get()) != null && node != CLOSED) {
+            if (batch.compareAndSet(node, node.next)) runTask(node.task);
+        }
+    }
+
+    private static Node reverse(Node node) {
+        Node prev = null;
+        while (node != null) {
+            var next = node.next;
+            node.next = prev;
+            prev = node;
+            node = next;
+        }
+        return prev;
+    }
+
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            // keep loop alive, exceptions of submitted tasks are captured by their futures
+            // logger is created only on failure so that executor does not initialize logging
+            XLogger.getLogger(EventLoopExecutorService.class).severe("Event loop task failed", t);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.concurrent;
+
+import id.xfunction.Preconditions;
+import id.xfunction.util.LongHistogram;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Metrics of the executor tasks.
+ *
+ * <p>Counters (submitted, completed, failed tasks etc) are always exact. Timings (time tasks spend
+ * in the queue, their run time, queue depth) are recorded only for sampled tasks: with sampling
+ * rate N, one of N tasks on average is sampled. Sampling rate 1 means that all tasks are sampled.
+ * Tasks which are not sampled don't pay for reading the clock.
+ *
+ * <p>All recording is lock free so metrics can be kept enabled in production. Use {@link
+ * #snapshot()} to read them.
+ *
+ * <p>Each executor should have its own metrics object.
+ *
+ * <p>Used by {@link BlockingExecutorService}
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ExecutorMetrics {
+
+    private final int samplingRate;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder blockedSubmits = new LongAdder();
+    private final LongHistogram queueWait = new LongHistogram();
+    private final LongHistogram runTime = new LongHistogram();
+    private final LongHistogram blockedSubmitTime = new LongHistogram();
+    private final LongHistogram queueDepth = new LongHistogram();
+    private IntSupplier queueSize = () -> 0;
+
+    /** Immutable state of the metrics at some moment */
+    public static class Snapshot {
+        private final long submittedCount;
+        private final long completedCount;
+        private final long failedCount;
+        private final long blockedSubmitCount;
+        private final int queueSize;
+        private final LongHistogram.Snapshot queueWait;
+        private final LongHistogram.Snapshot runTime;
+        private final LongHistogram.Snapshot blockedSubmitTime;
+        private final LongHistogram.Snapshot queueDepth;
+
+        private Snapshot(ExecutorMetrics metrics) {
+            submittedCount = metrics.submitted.sum();
+            completedCount = metrics.completed.sum();
+            failedCount = metrics.failed.sum();
+            blockedSubmitCount = metrics.blockedSubmits.sum();
+            queueSize = metrics.queueSize.getAsInt();
+            queueWait = metrics.queueWait.snapshot();
+            runTime = metrics.runTime.snapshot();
+            blockedSubmitTime = metrics.blockedSubmitTime.snapshot();
+            queueDepth = metrics.queueDepth.snapshot();
+        }
+
+        /** Number of tasks accepted by the executor */
+        public long getSubmittedCount() {
+            return submittedCount;
+        }
+
+        /** Number of tasks which finished running, including failed ones */
+        public long getCompletedCount() {
+            return completedCount;
+        }
+
+        /** Number of tasks which finished with an exception */
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        /** Number of submits which blocked because the queue was full */
+        public long getBlockedSubmitCount() {
+            return blockedSubmitCount;
+        }
+
+        /** Number of tasks in the queue at the moment of the snapshot */
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        /**
+         * Time in nanoseconds sampled tasks spent since they were submitted till they were started
+         * (including the time submitter was blocked)
+         */
+        public LongHistogram.Snapshot getQueueWaitNanos() {
+            return queueWait;
+        }
+
+        /** Run time in nanoseconds of sampled tasks */
+        public LongHistogram.Snapshot getRunTimeNanos() {
+            return runTime;
+        }
+
+        /** Time in nanoseconds submitters were blocked because the queue was full */
+        public LongHistogram.Snapshot getBlockedSubmitNanos() {
+            return blockedSubmitTime;
+        }
+
+        /** Queue size observed by sampled tasks when they were submitted */
+        public LongHistogram.Snapshot getQueueDepth() {
+            return queueDepth;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "{ submitted: %d, completed: %d, failed: %d, blockedSubmits: %d, queueSize: %d,"
+                            + " queueWaitNanos: %s, runTimeNanos: %s, blockedSubmitNanos: %s,"
+                            + " queueDepth: %s }",
+                    submittedCount,
+                    completedCount,
+                    failedCount,
+                    blockedSubmitCount,
+                    queueSize,
+                    queueWait,
+                    runTime,
+                    blockedSubmitTime,
+                    queueDepth);
+        }
+    }
+
+    /** Task with the time when it was submitted */
+    private static class SampledTask implements Runnable {
+        private final Runnable task;
+        private final long submittedAt;
+
+        SampledTask(Runnable task, long submittedAt) {
+            this.task = task;
+            this.submittedAt = submittedAt;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+
+    /** Sample all tasks */
+    public ExecutorMetrics() {
+        this(1);
+    }
+
+    /**
+     * @param samplingRate timings are recorded for one of samplingRate tasks on average
+     */
+    public ExecutorMetrics(int samplingRate) {
+        Preconditions.isTrue(samplingRate > 0, "Sampling rate must be positive");
+        this.samplingRate = samplingRate;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /** Resets all counters and histograms */
+    public void reset() {
+        submitted.reset();
+        completed.reset();
+        failed.reset();
+        blockedSubmits.reset();
+        queueWait.reset();
+        runTime.reset();
+        blockedSubmitTime.reset();
+        queueDepth.reset();
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    /** Executor provides supplier of its current queue size */
+    void setQueueSize(IntSupplier queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Called when task is submitted
+     *
+     * @return task which should be put to the queue
+     */
+    Runnable onSubmit(Runnable task) {
+        submitted.increment();
+        if (samplingRate > 1 && ThreadLocalRandom.current().nextInt(samplingRate) != 0) {
+            return task;
+        }
+        queueDepth.record(queueSize.getAsInt());
+        return new SampledTask(task, System.nanoTime());
+    }
+
+    void onBlockedSubmit(long nanos) {
+        blockedSubmits.increment();
+        blockedSubmitTime.record(nanos);
+    }
+
+    /** Runs the task taken from the queue and records its metrics */
+    void run(Runnable task) {
+        var isSampled = task instanceof SampledTask;
+        long startedAt = 0;
+        if (isSampled) {
+            var sampled = (SampledTask) task;
+            startedAt = System.nanoTime();
+            queueWait.record(startedAt - sampled.submittedAt);
+            task = sampled.task;
+        }
+        try {
+            task.run();
+        } catch (RuntimeException | Error e) {
+            failed.increment();
+            throw e;
+        } finally {
+            completed.increment();
+            if (isSampled) runTime.record(System.nanoTime() - startedAt);
+        }
+    }
+
+    /** Future which counts tasks completed with an exception as failed */
+    <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new FutureTask<>(callable) {
+            @Override
+            protected void setException(Throwable t) {
+                failed.increment();
+                super.setException(t);
+            }
+        };
+    }
+
+    <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new FutureTask<>(runnable, value) {
+            @Override
+            protected void setException(Throwable t) {
+                failed.increment();
+                super.setException(t);
+            }
+        };
+    }
+}
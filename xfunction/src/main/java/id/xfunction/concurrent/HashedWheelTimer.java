@@ -0,0 +1,345 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.concurrent;
+
+import id.xfunction.Preconditions;
+import id.xfunction.lang.XThread;
+import id.xfunction.logging.XLogger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Timer which keeps pending timeouts in a hashed wheel of buckets and serves all of them from a
+ * single thread.
+ *
+ * <p>Scheduling and cancelling a timeout is O(1) regardless of how many timeouts are pending which
+ * makes it suitable for millions of short lived timeouts (request deadlines, delayed completions,
+ * etc.). The price is precision: timeouts are expired only on wheel ticks so they may fire up to
+ * one tick later than requested (but never earlier).
+ *
+ * <p>Expired tasks are executed on the timer thread and so they should be short and never block,
+ * otherwise they delay all other timeouts. Hand off any long running work to an executor.
+ *
+ * <p>When there are no pending timeouts the timer thread parks until new timeout is scheduled and
+ * does not consume any CPU.
+ *
+ * <p>Use {@link #getDefault()} to share single timer across the application.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class HashedWheelTimer implements AutoCloseable {
+
+    /** Default duration of one wheel tick */
+    public static final Duration DEFAULT_TICK_DURATION = Duration.ofMillis(1);
+
+    /** Default number of buckets in the wheel */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    /**
+     * Max number of new timeouts moved into the wheel per tick so that the stream of new timeouts
+     * does not delay expiration of the existing ones
+     */
+    private static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+    private static class DefaultHolder {
+        private static final HashedWheelTimer INSTANCE =
+                new HashedWheelTimer(DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE, true);
+    }
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startTime = System.nanoTime();
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    /** Number of timeouts which are either in {@link #newTimeouts} or in the wheel */
+    private final AtomicLong pendingCount = new AtomicLong();
+
+    private final Thread worker;
+    private final boolean isShared;
+    private volatile boolean isIdle;
+    private volatile boolean isClosed;
+    private long tick;
+
+    /** Timeout scheduled with {@link HashedWheelTimer} */
+    public static final class Timeout {
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state;
+
+        // accessed only by the timer thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next, prev;
+
+        private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the timeout so that its task will never be executed.
+         *
+         * @return false if timeout already expired or was cancelled before
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, INIT, CANCELLED)) return false;
+            // actual removal from the wheel is done by the timer thread
+            timer.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        /** Timeout is expired when its task was executed (or is being executed) */
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        private void expire() {
+            if (!STATE.compareAndSet(this, INIT, EXPIRED)) return;
+            try {
+                task.run();
+            } catch (Throwable t) {
+                // logger is created only on failure so that timer does not initialize logging
+                XLogger.getLogger(HashedWheelTimer.class).severe("Timeout task failed", t);
+            }
+        }
+    }
+
+    /** Doubly linked list of timeouts which allows O(1) removal */
+    private static final class Bucket {
+        private Timeout head, tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        Timeout remove(Timeout timeout) {
+            var next = timeout.next;
+            if (timeout.prev != null) timeout.prev.next = next;
+            if (next != null) next.prev = timeout.prev;
+            if (timeout == head) head = next;
+            if (timeout == tail) tail = timeout.prev;
+            timeout.prev = timeout.next = null;
+            timeout.bucket = null;
+            timeout.timer.pendingCount.decrementAndGet();
+            return next;
+        }
+
+        void expire(List<Timeout> expired) {
+            var timeout = head;
+            while (timeout != null) {
+                if (timeout.remainingRounds <= 0) {
+                    expired.add(timeout);
+                    timeout = remove(timeout);
+                } else if (timeout.isCancelled()) {
+                    timeout = remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                    timeout = timeout.next;
+                }
+            }
+        }
+
+        void drainTo(List<Timeout> timeouts) {
+            while (head != null) {
+                var timeout = head;
+                remove(timeout);
+                if (timeout.state == Timeout.INIT) timeouts.add(timeout);
+            }
+        }
+    }
+
+    /** Creates timer with {@link #DEFAULT_TICK_DURATION} and {@link #DEFAULT_WHEEL_SIZE} */
+    public HashedWheelTimer() {
+        this(DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * @param tickDuration precision of the timer
+     * @param wheelSize number of buckets in the wheel, rounded up to the power of two. Timeouts
+     *     which are further than {@code tickDuration * wheelSize} in the future are kept in the
+     *     wheel for several rounds.
+     */
+    public HashedWheelTimer(Duration tickDuration, int wheelSize) {
+        this(tickDuration, wheelSize, false);
+    }
+
+    private HashedWheelTimer(Duration tickDuration, int wheelSize, boolean isShared) {
+        Preconditions.isTrue(
+                !tickDuration.isNegative() && !tickDuration.isZero(),
+                "Tick duration must be positive");
+        Preconditions.isTrue(wheelSize > 0 && wheelSize <= 1 << 30, "Invalid wheel size");
+        tickNanos = tickDuration.toNanos();
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) size <<= 1;
+        wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) wheel[i] = new Bucket();
+        mask = size - 1;
+        this.isShared = isShared;
+        worker = XThread.newThread(this::run, "xfunction-wheel-timer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Timer shared by all time based helpers of xfunction. Its thread is daemon thread and it is
+     * never closed.
+     */
+    public static HashedWheelTimer getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Schedule task to be executed on the timer thread once given delay elapses.
+     *
+     * @throws IllegalStateException if timer is closed
+     */
+    public Timeout newTimeout(Runnable task, Duration delay) {
+        return newTimeout(task, delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @see #newTimeout(Runnable, Duration)
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (isClosed) throw new IllegalStateException("Timer is closed");
+        long delayNanos = Math.max(0, unit.toNanos(delay));
+        long deadline = System.nanoTime() - startTime + delayNanos;
+        // guard against overflow for very long delays
+        if (deadline < 0) deadline = Long.MAX_VALUE;
+        var timeout = new Timeout(this, task, deadline);
+        pendingCount.incrementAndGet();
+        newTimeouts.add(timeout);
+        if (isIdle) LockSupport.unpark(worker);
+        if (isClosed && timeout.cancel())
+            // timer thread may already be gone and will never pick it up
+            throw new IllegalStateException("Timer is closed");
+        return timeout;
+    }
+
+    /** Number of timeouts which are neither expired nor removed from the timer yet */
+    public long getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Stops the timer thread. Timeouts which did not expire yet are cancelled.
+     *
+     * @throws IllegalStateException when called on {@link #getDefault()} timer
+     */
+    @Override
+    public void close() {
+        if (isShared) throw new IllegalStateException("Default timer cannot be closed");
+        isClosed = true;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        var expired = new ArrayList<Timeout>();
+        while (!isClosed) {
+            if (!waitForNextTick()) break;
+            processCancelled();
+            transferNewTimeouts();
+            wheel[(int) (tick & mask)].expire(expired);
+            tick++;
+            for (int i = 0; i < expired.size(); i++) expired.get(i).expire();
+            expired.clear();
+        }
+        var unprocessed = new ArrayList<Timeout>();
+        for (var bucket : wheel) bucket.drainTo(unprocessed);
+        Timeout timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            pendingCount.decrementAndGet();
+            unprocessed.add(timeout);
+        }
+        unprocessed.forEach(Timeout::cancel);
+        cancelledTimeouts.clear();
+    }
+
+    /**
+     * @return false if timer was closed while waiting
+     */
+    private boolean waitForNextTick() {
+        if (pendingCount.get() == 0) {
+            isIdle = true;
+            while (pendingCount.get() == 0 && !isClosed) LockSupport.park(this);
+            isIdle = false;
+            if (isClosed) return false;
+            // wheel is empty so we can skip all ticks which passed while we were idle
+            tick = Math.max(tick, (System.nanoTime() - startTime) / tickNanos);
+        }
+        long tickDeadline = tickNanos * (tick + 1);
+        while (!isClosed) {
+            long sleepNanos = tickDeadline - (System.nanoTime() - startTime);
+            if (sleepNanos <= 0) return true;
+            LockSupport.parkNanos(this, sleepNanos);
+        }
+        return false;
+    }
+
+    private void processCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            // timeouts which are still in newTimeouts are dropped during transfer
+            if (timeout.bucket != null) timeout.bucket.remove(timeout);
+        }
+    }
+
+    private void transferNewTimeouts() {
+        Timeout timeout;
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            if ((timeout = newTimeouts.poll()) == null) break;
+            if (timeout.isCancelled()) {
+                pendingCount.decrementAndGet();
+                continue;
+            }
+            long expirationTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (expirationTick - tick) / wheel.length;
+            // timeouts which deadline already passed go to the current bucket
+            long targetTick = Math.max(expirationTick, tick);
+            wheel[(int) (targetTick & mask)].add(timeout);
+        }
+    }
+}
@@ -25,6 +25,9 @@ import java.util.concurrent.TimeUnit;
 /**
  * Executes all tasks on same thread which submits them.
  *
+ * <p>It does not support termination, see {@link EventLoopExecutorService} for single threaded
+ * executor which does.
+ *
  * @author lambdaprime intid@protonmail.com
  */
 public class SameThreadExecutorService extends AbstractExecutorService {
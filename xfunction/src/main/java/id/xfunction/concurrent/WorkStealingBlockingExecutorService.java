@@ -0,0 +1,369 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.concurrent;
+
+import id.xfunction.Preconditions;
+import id.xfunction.function.Unchecked;
+import id.xfunction.lang.XThread;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Version of {@link BlockingExecutorService} where each worker thread has its own bounded queue and
+ * idle workers steal tasks from the queues of other workers.
+ *
+ * <p>Same as with {@link BlockingExecutorService}, thread submitting a new task blocks when there
+ * is no space left (back-pressure). Submitting thread puts the task to the queue of a random worker
+ * and if it is full tries queues of other workers. It blocks only when all queues are full and
+ * continues as soon as any of them has free space.
+ *
+ * <p>Queues are lock free and each of them has its own capacity limit so producers and workers
+ * don't contend on a single lock. Workers take tasks from the queues in batches.
+ *
+ * <p>Unlike {@link BlockingExecutorService}, tasks submitted after {@link #shutdown()} are rejected
+ * with {@link RejectedExecutionException} and {@link #shutdownNow()} is supported.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class WorkStealingBlockingExecutorService extends AbstractExecutorService {
+
+    private static final int BATCH_SIZE = 32;
+
+    /** Permits released on shutdown to unblock all producers */
+    private static final int SHUTDOWN_PERMITS = Integer.MAX_VALUE / 2;
+
+    private final Worker[] workers;
+    private final CountDownLatch terminated;
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    /**
+     * Workers which are looking for tasks (neither parked nor running tasks). While there are any,
+     * producers don't wake up other workers since searching ones will find the task anyway. Worker
+     * is counted by the thread which wakes it up so that following producers don't wake up more
+     * workers before it starts running.
+     */
+    private final AtomicInteger searchingCount = new AtomicInteger();
+
+    /** Producers which wait on {@link #spaceLock} until some of the queues has free space */
+    private final AtomicInteger blockedCount = new AtomicInteger();
+
+    private final Object spaceLock = new Object();
+
+    /**
+     * After shutdown, producers which put their task to the queue notify on this lock so that
+     * workers and {@link #shutdownNow()} can wait until there are no in flight producers
+     */
+    private final Object inFlightLock = new Object();
+
+    private volatile boolean isShutdown;
+    private volatile boolean isStopped;
+
+    private class Worker implements Runnable {
+        private final Thread thread;
+        private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final Semaphore permits;
+
+        /**
+         * Producers which passed the shutdown check and did not put their task to the queue yet.
+         * Workers don't exit while there are any so that no task is left in the queue after
+         * termination. They are never blocked so waiting for them is short.
+         */
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        /**
+         * Tasks taken from the queues but not started yet. Both worker and {@link #shutdownNow()}
+         * claim them with getAndSet so each task is either run or returned exactly once.
+         */
+        private final AtomicReferenceArray<Runnable> batch = new AtomicReferenceArray<>(BATCH_SIZE);
+
+        private final int index;
+
+        /** Producers reset it when they wake up the worker so only one of them calls unpark */
+        private final AtomicBoolean isIdle = new AtomicBoolean();
+
+        Worker(int index, int capacity) {
+            this.index = index;
+            this.permits = new Semaphore(capacity);
+            thread = XThread.newThread(this);
+        }
+
+        @Override
+        public void run() {
+            searchingCount.incrementAndGet();
+            try {
+                while (!isStopped) {
+                    int n = take(this);
+                    for (int i = 1; n == 0 && i < workers.length; i++) {
+                        n = take(workers[(index + i) % workers.length]);
+                    }
+                    if (n > 0) {
+                        searchingCount.decrementAndGet();
+                        // more tasks are waiting so let another worker to pick them up
+                        if (idleCount.get() > 0 && !isEmpty()) wakeUpAny(index + 1);
+                        runBatch(n);
+                        searchingCount.incrementAndGet();
+                        continue;
+                    }
+                    if (isShutdown) {
+                        // in flight producers should be checked before the queues
+                        if (!awaitInFlight() || isEmpty()) break;
+                        continue;
+                    }
+                    isIdle.set(true);
+                    idleCount.incrementAndGet();
+                    // queues should be checked after worker stopped searching so that producers
+                    // either see it searching or it sees their tasks
+                    searchingCount.decrementAndGet();
+                    if (isEmpty() && !isShutdown) LockSupport.park(this);
+                    // worker which was woken up is already counted as searching by the producer
+                    if (isIdle.compareAndSet(true, false)) searchingCount.incrementAndGet();
+                    idleCount.decrementAndGet();
+                }
+            } finally {
+                searchingCount.decrementAndGet();
+                terminated.countDown();
+            }
+        }
+
+        /** Moves next batch of tasks from the queue of the given worker to the current batch */
+        private int take(Worker from) {
+            int n = 0;
+            Runnable task;
+            while (n < BATCH_SIZE && (task = from.queue.poll()) != null) {
+                batch.lazySet(n++, task);
+            }
+            if (n > 0) {
+                from.permits.release(n);
+                if (blockedCount.get() > 0) {
+                    synchronized (spaceLock) {
+                        spaceLock.notifyAll();
+                    }
+                }
+            }
+            return n;
+        }
+
+        private void runBatch(int n) {
+            for (int i = 0; i < n; i++) {
+                var task = batch.getAndSet(i, null);
+                if (task == null) continue;
+                try {
+                    task.run();
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                }
+                // interrupt which was meant for the task should not affect next tasks
+                if (!isStopped) Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * @param poolSize number of worker threads
+     * @param capacity total capacity of all workers queues, it is split evenly between them
+     */
+    public WorkStealingBlockingExecutorService(int poolSize, int capacity) {
+        Preconditions.isTrue(poolSize > 0, "Pool size must be positive");
+        Preconditions.isTrue(capacity > 0, "Capacity must be positive");
+        int workerCapacity = (capacity + poolSize - 1) / poolSize;
+        workers = new Worker[poolSize];
+        for (int i = 0; i < poolSize; i++) workers[i] = new Worker(i, workerCapacity);
+        terminated = new CountDownLatch(poolSize);
+        for (var worker : workers) worker.thread.start();
+    }
+
+    public WorkStealingBlockingExecutorService(int capacity) {
+        this(ForkJoinPool.getCommonPoolParallelism(), capacity);
+    }
+
+    /**
+     * Blocks if queues of all workers are full.
+     *
+     * @throws RejectedExecutionException if executor is shutdown
+     */
+    @Override
+    public void execute(Runnable command) {
+        Objects.requireNonNull(command);
+        if (isShutdown) throw new RejectedExecutionException("Executor is shutdown");
+        int start = ThreadLocalRandom.current().nextInt(workers.length);
+        var target = tryAcquire(start);
+        if (target == null) target = Unchecked.get(() -> acquire(start));
+        target.inFlight.incrementAndGet();
+        try {
+            if (isShutdown) {
+                target.permits.release();
+                throw new RejectedExecutionException("Executor is shutdown");
+            }
+            target.queue.offer(command);
+        } finally {
+            if (target.inFlight.decrementAndGet() == 0 && isShutdown) {
+                synchronized (inFlightLock) {
+                    inFlightLock.notifyAll();
+                }
+            }
+        }
+        signal(target);
+    }
+
+    /** Returns worker which had free space in its queue or null if all of them are full */
+    private Worker tryAcquire(int start) {
+        for (int i = 0; i < workers.length; i++) {
+            var worker = workers[(start + i) % workers.length];
+            if (worker.permits.tryAcquire()) return worker;
+        }
+        return null;
+    }
+
+    /** Blocks until any of the workers has free space in its queue */
+    private Worker acquire(int start) throws InterruptedException {
+        blockedCount.incrementAndGet();
+        try {
+            synchronized (spaceLock) {
+                Worker target;
+                // workers release permits before they check blockedCount so either the permit
+                // is visible here or the worker notifies us after we started to wait
+                while ((target = tryAcquire(start)) == null) spaceLock.wait();
+                return target;
+            }
+        } finally {
+            blockedCount.decrementAndGet();
+        }
+    }
+
+    private void signal(Worker target) {
+        if (searchingCount.get() > 0 || wakeUp(target)) return;
+        wakeUpAny(target.index + 1);
+    }
+
+    private void wakeUpAny(int start) {
+        if (idleCount.get() == 0) return;
+        for (int i = 0; i < workers.length; i++) {
+            if (wakeUp(workers[(start + i) % workers.length])) return;
+        }
+    }
+
+    private boolean wakeUp(Worker worker) {
+        if (!worker.isIdle.get() || !worker.isIdle.compareAndSet(true, false)) return false;
+        searchingCount.incrementAndGet();
+        LockSupport.unpark(worker.thread);
+        return true;
+    }
+
+    private boolean hasInFlight() {
+        for (var worker : workers) {
+            if (worker.inFlight.get() != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Waits until all in flight producers put their tasks to the queues. Can be called only after
+     * shutdown since producers notify {@link #inFlightLock} only after it.
+     *
+     * @return false if waiting was interrupted
+     */
+    private boolean awaitInFlight() {
+        synchronized (inFlightLock) {
+            while (hasInFlight()) {
+                try {
+                    inFlightLock.wait();
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isEmpty() {
+        for (var worker : workers) {
+            if (!worker.queue.isEmpty()) return false;
+        }
+        return true;
+    }
+
+    /** Tasks which were already submitted will be executed. */
+    @Override
+    public synchronized void shutdown() {
+        if (isShutdown) return;
+        isShutdown = true;
+        for (var worker : workers) {
+            worker.permits.release(SHUTDOWN_PERMITS);
+            LockSupport.unpark(worker.thread);
+        }
+        synchronized (spaceLock) {
+            spaceLock.notifyAll();
+        }
+    }
+
+    /**
+     * Interrupts all workers and returns tasks which were submitted but not started yet. This
+     * includes tasks which workers already took from the queues as part of their current batch but
+     * did not start. Each task is either returned or run, never both.
+     */
+    @Override
+    public synchronized List<Runnable> shutdownNow() {
+        shutdown();
+        isStopped = true;
+        // let producers which are about to put their tasks finish so that the tasks are returned
+        boolean isInterrupted = false;
+        while (!awaitInFlight()) isInterrupted = true;
+        if (isInterrupted) Thread.currentThread().interrupt();
+        var pending = new ArrayList<Runnable>();
+        for (var worker : workers) {
+            Runnable task;
+            while ((task = worker.queue.poll()) != null) pending.add(task);
+        }
+        for (var worker : workers) {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                var task = worker.batch.getAndSet(i, null);
+                if (task != null) pending.add(task);
+            }
+            worker.thread.interrupt();
+        }
+        return pending;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return isShutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+}
@@ -18,6 +18,7 @@
 package id.xfunction.concurrent.flow;
 
 import id.xfunction.util.CacheQueue;
+import id.xfunction.util.ConcurrentCacheQueue;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.concurrent.Executor;
@@ -31,20 +32,38 @@ import java.util.concurrent.SubmissionPublisher;
  * <p>Items are replayed before the {@link
  * Subscriber#onSubscribe(java.util.concurrent.Flow.Subscription)}
  *
+ * <p>By default items are cached in {@link CacheQueue} which is not thread safe. When items are
+ * submitted from multiple threads use {@link ConcurrentCacheQueue} instead. Both of them collect
+ * hit/miss statistics which can be used to choose the right size of the cache and {@link
+ * CacheQueue} allows to select {@link CacheQueue.EvictionPolicy}.
+ *
  * @param <T> input type
  * @author lambdaprime intid@protonmail.com
  */
 public class ReplayablePublisher<T> implements Publisher<T>, AutoCloseable {
 
     private SubmissionPublisher<T> publisher = new SubmissionPublisher<>();
-    private CacheQueue<T> cache;
+    private Collection<T> cache;
 
     public ReplayablePublisher(int cacheSize) {
-        cache = new CacheQueue<>(cacheSize);
+        this(new CacheQueue<>(cacheSize));
     }
 
     public ReplayablePublisher(int cacheSize, Executor executor, int maxBufferCapacity) {
-        this(cacheSize);
+        this(new CacheQueue<>(cacheSize), executor, maxBufferCapacity);
+    }
+
+    /**
+     * @param cache collection where submitted items are stored for replay. Items which were
+     *     rejected by {@link Collection#add(Object)} are not published. See {@link CacheQueue},
+     *     {@link ConcurrentCacheQueue}
+     */
+    public ReplayablePublisher(Collection<T> cache) {
+        this.cache = cache;
+    }
+
+    public ReplayablePublisher(Collection<T> cache, Executor executor, int maxBufferCapacity) {
+        this(cache);
         publisher = new SubmissionPublisher<>(executor, maxBufferCapacity);
     }
 
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.function;
+
+import id.xfunction.Preconditions;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * {@link LazyInitializer} which recomputes the value once its time-to-live expires.
+ *
+ * <p>Readers of the value which did not expire yet never take the lock. The value is recomputed by
+ * the first reader which finds it expired, other readers block until it is ready. To avoid blocking
+ * the readers see {@link RefreshAheadLazyInitializer}.
+ *
+ * <p>If constructor throws an exception it is propagated to the reader and the value is recomputed
+ * on the next request.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ExpiringLazyInitializer<T> implements Supplier<T> {
+    private static final VarHandle ENTRY;
+
+    static {
+        try {
+            ENTRY =
+                    MethodHandles.lookup()
+                            .findVarHandle(ExpiringLazyInitializer.class, "entry", Entry.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** Value together with the time when it was computed */
+    static final class Entry<T> {
+        final T value;
+        final long loadedAt;
+
+        Entry(T value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final Supplier<T> ctor;
+    final long ttlNanos;
+    private Entry<T> entry;
+
+    /**
+     * @param ttl how long the value is valid after it was computed
+     */
+    public ExpiringLazyInitializer(Supplier<T> ctor, Duration ttl) {
+        Preconditions.isTrue(!ttl.isNegative() && !ttl.isZero(), "TTL must be positive");
+        this.ctor = ctor;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    @Override
+    public T get() {
+        var e = entry();
+        if (e != null && System.nanoTime() - e.loadedAt < ttlNanos) return e.value;
+        synchronized (this) {
+            e = entry;
+            if (e == null || System.nanoTime() - e.loadedAt >= ttlNanos) e = load();
+        }
+        return e.value;
+    }
+
+    /** Discard the current value so that it is recomputed on the next request */
+    public void invalidate() {
+        ENTRY.setRelease(this, null);
+    }
+
+    @Override
+    public String toString() {
+        var e = entry();
+        return e == null ? "<not yet initialized>" : String.valueOf(e.value);
+    }
+
+    /** Must be called under the lock */
+    Entry<T> load() {
+        var e = new Entry<>(ctor.get(), System.nanoTime());
+        ENTRY.setRelease(this, e);
+        return e;
+    }
+
+    @SuppressWarnings("unchecked")
+    Entry<T> entry() {
+        return (Entry<T>) ENTRY.getAcquire(this);
+    }
+}
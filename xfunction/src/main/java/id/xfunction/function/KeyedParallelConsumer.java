@@ -0,0 +1,447 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.function;
+
+import id.xfunction.PreconditionException;
+import id.xfunction.Preconditions;
+import id.xfunction.function.ParallelConsumer.OverflowPolicy;
+import id.xfunction.lang.XThread;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Parallel consumer which preserves order of the items with the same key.
+ *
+ * <p>Each item is assigned to one of the lanes by the hash of its key. Every lane has its own
+ * bounded queue and a single worker thread so items with the same key are consumed one after
+ * another, in the order they were accepted, while items with different keys are consumed in
+ * parallel. Consumer does not need any locking for the state which belongs to one key.
+ *
+ * <p>Since keys are assigned to lanes statically, few hot keys or unlucky hash distribution can
+ * make some lanes much busier than the others. When stats are enabled each lane tracks how many
+ * items it consumed and which keys are the most frequent ones (Space-Saving algorithm, counts are
+ * approximate and may overestimate the rare keys). Use {@link #getStats()} to decide if number of
+ * lanes or the key should be changed.
+ *
+ * <p>All exceptions in lane threads by default will be printed to stderr unless the exception
+ * handler is defined.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class KeyedParallelConsumer<T> implements Consumer<T>, AutoCloseable {
+
+    /** Default capacity of the queue of each lane */
+    public static final int DEFAULT_LANE_CAPACITY = 1024;
+
+    /**
+     * Number of most frequent keys each lane tracks when stats are enabled. Same number of keys is
+     * reported in {@link Stats#getHotKeys()}.
+     */
+    public static final int HOT_KEYS = 16;
+
+    /** How often (in number of consumed items) lanes publish their stats */
+    private static final int PUBLISH_INTERVAL = 1024;
+
+    // end of queue
+    private static final Object EOQ = new Object();
+
+    private final Function<? super T, ?> keyExtractor;
+    private final Consumer<T> consumer;
+    private final Lane[] lanes;
+    private final OverflowPolicy overflowPolicy;
+    private final boolean isStatsEnabled;
+    private final CountDownLatch terminated;
+    private final Thread.UncaughtExceptionHandler exHandler;
+    private volatile boolean isClosed;
+
+    /** After close, producers which put their item to the lane notify {@link #close()} on it */
+    private final Object inFlightLock = new Object();
+
+    /**
+     * Item together with its key, used when stats are enabled so that key is extracted only once
+     */
+    private static class KeyedItem {
+        private final Object item;
+        private final Object key;
+
+        KeyedItem(Object item, Object key) {
+            this.item = item;
+            this.key = key;
+        }
+    }
+
+    /** Key which was found among the most frequent keys of some lane */
+    public static class HotKey {
+        private final Object key;
+        private final long count;
+        private final long minCount;
+        private final int lane;
+
+        private HotKey(Object key, long count, long minCount, int lane) {
+            this.key = key;
+            this.count = count;
+            this.minCount = minCount;
+            this.lane = lane;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * Approximate number of items with this key consumed by the lane. It is never less than the
+         * real number.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /** Number of items with this key which the lane consumed for sure */
+        public long getMinCount() {
+            return minCount;
+        }
+
+        public int getLane() {
+            return lane;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "{ key: %s, count: %d, minCount: %d, lane: %d }", key, count, minCount, lane);
+        }
+    }
+
+    /**
+     * Stats of all lanes. Lanes publish their stats periodically and when they become idle so they
+     * may slightly lag behind.
+     */
+    public static class Stats {
+        private final long[] consumedCounts;
+        private final int[] queueSizes;
+        private final List<HotKey> hotKeys;
+
+        private Stats(long[] consumedCounts, int[] queueSizes, List<HotKey> hotKeys) {
+            this.consumedCounts = consumedCounts;
+            this.queueSizes = queueSizes;
+            this.hotKeys = hotKeys;
+        }
+
+        /** Number of items consumed by each lane */
+        public long[] getConsumedCounts() {
+            return consumedCounts.clone();
+        }
+
+        /** Number of items waiting in the queue of each lane */
+        public int[] getQueueSizes() {
+            return queueSizes.clone();
+        }
+
+        /**
+         * Ratio of the number of items consumed by the busiest lane to the average among all lanes.
+         * 1 means that load is perfectly balanced, N (number of lanes) means that all items went to
+         * one lane. Returns 0 if nothing was consumed yet.
+         */
+        public double getSkew() {
+            long max = 0, total = 0;
+            for (var count : consumedCounts) {
+                max = Math.max(max, count);
+                total += count;
+            }
+            if (total == 0) return 0;
+            return (double) max * consumedCounts.length / total;
+        }
+
+        /**
+         * Most frequent keys of all lanes ordered by {@link HotKey#getMinCount()}, most frequent
+         * first
+         */
+        public List<HotKey> getHotKeys() {
+            return hotKeys;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "{ consumedCounts: %s, queueSizes: %s, skew: %.2f, hotKeys: %s }",
+                    Arrays.toString(consumedCounts),
+                    Arrays.toString(queueSizes),
+                    getSkew(),
+                    hotKeys);
+        }
+    }
+
+    /** Stats published by the lane thread */
+    private static class LaneStats {
+        private static final LaneStats EMPTY = new LaneStats(0, List.of());
+        private final long consumedCount;
+        private final List<HotKey> hotKeys;
+
+        LaneStats(long consumedCount, List<HotKey> hotKeys) {
+            this.consumedCount = consumedCount;
+            this.hotKeys = hotKeys;
+        }
+    }
+
+    private class Lane implements Runnable {
+        private final int index;
+        private final BlockingQueue<Object> queue;
+
+        /**
+         * Producers which passed the {@link #isClosed} check and did not put their item to this
+         * lane yet. {@link #close()} waits until there are none before it puts {@link #EOQ}, so no
+         * item can be put after it. Counters are per lane so that producers of different lanes do
+         * not contend on them.
+         */
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        // Space-Saving counters {count, error}, accessed only by the lane thread
+        private final Map<Object, long[]> keyCounts = new HashMap<>();
+        private volatile LaneStats published = LaneStats.EMPTY;
+
+        Lane(int index, int capacity) {
+            this.index = index;
+            queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void run() {
+            long consumed = 0;
+            try {
+                while (true) {
+                    if (isStatsEnabled && queue.isEmpty()) publish(consumed);
+                    var item = queue.take();
+                    if (item == EOQ) break;
+                    var keyedItem = isStatsEnabled ? (KeyedItem) item : null;
+                    try {
+                        consumer.accept((T) (keyedItem != null ? keyedItem.item : item));
+                    } catch (Throwable e) {
+                        exHandler.uncaughtException(Thread.currentThread(), e);
+                    }
+                    consumed++;
+                    if (!isStatsEnabled) continue;
+                    countKey(keyedItem.key);
+                    if (consumed % PUBLISH_INTERVAL == 0) publish(consumed);
+                }
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            } finally {
+                if (isStatsEnabled) publish(consumed);
+                terminated.countDown();
+            }
+        }
+
+        private void countKey(Object key) {
+            var count = keyCounts.get(key);
+            if (count != null) {
+                count[0]++;
+                return;
+            }
+            if (keyCounts.size() < HOT_KEYS) {
+                keyCounts.put(key, new long[] {1, 0});
+                return;
+            }
+            // replace the least frequent key, new key inherits its count as an error
+            Object minKey = null;
+            long[] minCount = null;
+            for (var e : keyCounts.entrySet()) {
+                if (minCount == null || e.getValue()[0] < minCount[0]) {
+                    minKey = e.getKey();
+                    minCount = e.getValue();
+                }
+            }
+            keyCounts.remove(minKey);
+            minCount[1] = minCount[0];
+            minCount[0]++;
+            keyCounts.put(key, minCount);
+        }
+
+        private void publish(long consumed) {
+            if (published.consumedCount == consumed && consumed != 0) return;
+            var hotKeys = new ArrayList<HotKey>(keyCounts.size());
+            for (var e : keyCounts.entrySet()) {
+                var count = e.getValue();
+                hotKeys.add(new HotKey(e.getKey(), count[0], count[0] - count[1], index));
+            }
+            published = new LaneStats(consumed, hotKeys);
+        }
+    }
+
+    /**
+     * Creates consumer with lane per each available processor, {@link #DEFAULT_LANE_CAPACITY} and
+     * stats disabled. Producer blocks when lane queue is full.
+     *
+     * @param keyExtractor returns key of the item, should be cheap
+     */
+    public KeyedParallelConsumer(Function<? super T, ?> keyExtractor, Consumer<T> consumer) {
+        this(
+                keyExtractor,
+                consumer,
+                Runtime.getRuntime().availableProcessors(),
+                DEFAULT_LANE_CAPACITY,
+                OverflowPolicy.BLOCK,
+                false,
+                (t, ex) -> {
+                    ex.printStackTrace();
+                });
+    }
+
+    /**
+     * @param keyExtractor returns key of the item, should be cheap
+     * @param laneCount number of lanes (threads)
+     * @param laneCapacity max number of items waiting in the queue of each lane
+     * @param overflowPolicy what to do when accepting new item and its lane queue is full
+     * @param isStatsEnabled track stats of the lanes, see {@link #getStats()}
+     */
+    public KeyedParallelConsumer(
+            Function<? super T, ?> keyExtractor,
+            Consumer<T> consumer,
+            int laneCount,
+            int laneCapacity,
+            OverflowPolicy overflowPolicy,
+            boolean isStatsEnabled,
+            Thread.UncaughtExceptionHandler exHandler) {
+        Preconditions.isTrue(laneCount > 0, "Lane count must be positive");
+        Preconditions.isTrue(laneCapacity > 0, "Lane capacity must be positive");
+        this.keyExtractor = keyExtractor;
+        this.consumer = consumer;
+        this.overflowPolicy = overflowPolicy;
+        this.isStatsEnabled = isStatsEnabled;
+        this.exHandler = exHandler;
+        terminated = new CountDownLatch(laneCount);
+        @SuppressWarnings("unchecked")
+        var lanes = (Lane[]) new KeyedParallelConsumer<?>.Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) lanes[i] = new Lane(i, laneCapacity);
+        this.lanes = lanes;
+        for (var lane : lanes) XThread.newThread(lane).start();
+    }
+
+    /**
+     * @throws RejectedExecutionException if consumer is closed or lane of the item is full and
+     *     {@link OverflowPolicy#REJECT} policy is used
+     */
+    @Override
+    public void accept(T item) {
+        var key = keyExtractor.apply(item);
+        var lane = lanes[laneOf(key)];
+        var queue = lane.queue;
+        Object element = isStatsEnabled ? new KeyedItem(item, key) : item;
+        if (isClosed) throw new RejectedExecutionException("Parallel consumer is closed");
+        lane.inFlight.incrementAndGet();
+        try {
+            // close could happen before producer was counted
+            if (isClosed) throw new RejectedExecutionException("Parallel consumer is closed");
+            if (overflowPolicy == OverflowPolicy.REJECT) {
+                if (!queue.offer(element))
+                    throw new RejectedExecutionException("Lane queue is full");
+                return;
+            }
+            queue.put(element);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(e);
+        } finally {
+            if (lane.inFlight.decrementAndGet() == 0 && isClosed) {
+                synchronized (inFlightLock) {
+                    inFlightLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /** Index of the lane which consumes items with the given key */
+    public int laneOf(Object key) {
+        int h = Objects.hashCode(key);
+        // spread the bits so that keys with similar hash codes go to different lanes
+        h ^= h >>> 16;
+        return Math.floorMod(h * 0x9E3779B9, lanes.length);
+    }
+
+    /**
+     * @throws PreconditionException if stats are not enabled
+     */
+    public Stats getStats() {
+        Preconditions.isTrue(isStatsEnabled, "Stats are not enabled");
+        var consumedCounts = new long[lanes.length];
+        var queueSizes = new int[lanes.length];
+        var hotKeys = new ArrayList<HotKey>();
+        for (int i = 0; i < lanes.length; i++) {
+            var published = lanes[i].published;
+            consumedCounts[i] = published.consumedCount;
+            // do not count EOQ
+            queueSizes[i] = Math.max(0, lanes[i].queue.size() - (isClosed ? 1 : 0));
+            hotKeys.addAll(published.hotKeys);
+        }
+        hotKeys.sort(Comparator.comparingLong(HotKey::getMinCount).reversed());
+        return new Stats(
+                consumedCounts, queueSizes, hotKeys.subList(0, Math.min(HOT_KEYS, hotKeys.size())));
+    }
+
+    /** Waits until all accepted items are consumed */
+    @Override
+    public void close() throws Exception {
+        if (!isClosed) putEoq();
+        terminated.await();
+    }
+
+    /**
+     * Closes the consumer and puts {@link #EOQ} to each lane after all in flight producers of the
+     * lane put their items. Lanes keep taking items so neither producers nor EOQ are blocked for
+     * long, it waits for them uninterruptibly so that EOQ is always put.
+     */
+    private void putEoq() {
+        synchronized (inFlightLock) {
+            if (isClosed) return;
+            isClosed = true;
+        }
+        boolean isInterrupted = false;
+        for (var lane : lanes) {
+            synchronized (inFlightLock) {
+                while (lane.inFlight.get() != 0) {
+                    try {
+                        inFlightLock.wait();
+                    } catch (InterruptedException e) {
+                        isInterrupted = true;
+                    }
+                }
+            }
+            while (true) {
+                try {
+                    lane.queue.put(EOQ);
+                    break;
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                }
+            }
+        }
+        if (isInterrupted) Thread.currentThread().interrupt();
+    }
+}
@@ -17,15 +17,38 @@
  */
 package id.xfunction.function;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.function.Supplier;
 
 /**
  * Supplier which performs initialization of internal variable when it will be requested for the
  * first time.
  *
+ * <p>Once initialized the value is read with acquire semantics so readers never take the lock.
+ * Initialization publishes the value with release semantics which guarantees that readers see it
+ * fully constructed.
+ *
+ * <p>If constructor returns null it will be called again on the next request.
+ *
+ * <p>See {@link ExpiringLazyInitializer} and {@link RefreshAheadLazyInitializer} for the values
+ * which need to be recomputed periodically.
+ *
  * @author lambdaprime intid@protonmail.com
  */
 public class LazyInitializer<T> implements Supplier<T> {
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE =
+                    MethodHandles.lookup()
+                            .findVarHandle(LazyInitializer.class, "value", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private T value;
     private Supplier<T> ctor;
 
@@ -35,20 +58,27 @@ public class LazyInitializer<T> implements Supplier<T> {
 
     @Override
     public T get() {
-        if (value == null) {
-            synchronized (this) {
-                if (value == null) {
-                    value = ctor.get();
+        var v = value();
+        if (v != null) return v;
+        synchronized (this) {
+            v = value;
+            if (v == null) {
+                v = ctor.get();
+                if (v != null) {
+                    VALUE.setRelease(this, v);
+                    // not needed anymore
+                    ctor = null;
                 }
             }
         }
-        return value;
+        return v;
     }
 
     public void ifInitialized(ThrowingConsumer<T, Exception> consumer) {
-        if (value == null) return;
+        var v = value();
+        if (v == null) return;
         try {
-            consumer.accept(value);
+            consumer.accept(v);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -56,6 +86,12 @@ public class LazyInitializer<T> implements Supplier<T> {
 
     @Override
     public String toString() {
-        return value == null ? "<not yet initialized>" : value.toString();
+        var v = value();
+        return v == null ? "<not yet initialized>" : v.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private T value() {
+        return (T) VALUE.getAcquire(this);
     }
 }
@@ -17,11 +17,21 @@
  */
 package id.xfunction.function;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import id.xfunction.Preconditions;
+import id.xfunction.lang.XThread;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Parallel streams may partition the stream in any order which means that there is no guarantee
@@ -100,7 +110,22 @@ import java.util.function.Consumer;
  * Total: 1000
  * </pre>
  *
- * <p>It is achieved by making consumers to take items from the internal queue.
+ * <p>It is achieved by making consumers to take items from the internal queue. Items are put into
+ * the queue as is, without wrapping them into tasks.
+ *
+ * <p>By default the queue is unbounded so fast producer may exhaust the heap. Bounded parallel
+ * consumer either blocks the producer or rejects new items when its queue is full (see {@link
+ * OverflowPolicy}).
+ *
+ * <p>Besides consuming items one by one parallel consumer can work in batching modes:
+ *
+ * <ul>
+ *   <li>{@link #batching(Consumer, int, int, int)} - each worker takes all available items from the
+ *       queue (up to the batch size) and passes them to the batch consumer at once
+ *   <li>{@link #ordered(Function, Consumer, int, int, int)} - workers map items of their batches in
+ *       parallel but results are passed to the result consumer in the same order as items were
+ *       accepted
+ * </ul>
  *
  * <p>If your application finishes but does not terminate it may be because:
  *
@@ -116,42 +141,368 @@ import java.util.function.Consumer;
  */
 public class ParallelConsumer<T> implements Consumer<T>, AutoCloseable {
 
-    private ExecutorService executor;
-    private Consumer<T> consumer;
-    private Thread.UncaughtExceptionHandler exHandler =
-            (t, ex) -> {
-                ex.printStackTrace();
-            };
+    /** What bounded parallel consumer does when its queue is full */
+    public static enum OverflowPolicy {
+        /** Block the producer until there is space in the queue */
+        BLOCK,
+
+        /** Throw {@link RejectedExecutionException} */
+        REJECT
+    }
+
+    // end of queue
+    private static final Object EOQ = new Object();
+
+    private final BlockingQueue<Object> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final Consumer<T> consumer;
+    private final Consumer<List<T>> batchConsumer;
+    private final Reorderer<T, ?> reorderer;
+    private final CountDownLatch terminated;
+    private final Thread.UncaughtExceptionHandler exHandler;
+    private volatile boolean isClosed;
+
+    /**
+     * Producers which passed the {@link #isClosed} check and did not put their item to the queue
+     * yet. {@link #close()} waits until there are none before it puts {@link #EOQ}, so no item can
+     * be put after it.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /** After close, producers which put their item to the queue notify {@link #close()} on it */
+    private final Object inFlightLock = new Object();
+
+    /**
+     * Keeps results of the batches which were processed out of order until all preceding batches
+     * are processed. Number of batches in flight is limited so that single slow batch does not let
+     * the buffer grow indefinitely.
+     */
+    private static class Reorderer<T, R> {
+        private final Function<T, R> mapper;
+        private final Consumer<R> resultConsumer;
+        private final ReentrantLock takeLock = new ReentrantLock();
+        private final Semaphore window;
+        private final Object[] pending;
+        private long nextSeq;
+        private long nextToEmit;
+
+        Reorderer(Function<T, R> mapper, Consumer<R> resultConsumer, int maxBatchesInFlight) {
+            this.mapper = mapper;
+            this.resultConsumer = resultConsumer;
+            window = new Semaphore(maxBatchesInFlight);
+            pending = new Object[maxBatchesInFlight];
+        }
+
+        void process(long seq, List<T> batch, Thread.UncaughtExceptionHandler exHandler) {
+            var results = new ArrayList<R>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    results.add(mapper.apply(batch.get(i)));
+                } catch (Throwable e) {
+                    exHandler.uncaughtException(Thread.currentThread(), e);
+                }
+            }
+            synchronized (this) {
+                if (seq != nextToEmit) {
+                    pending[(int) (seq % pending.length)] = results;
+                    return;
+                }
+                emit(results, exHandler);
+                // emit all batches which were waiting for this one
+                int slot;
+                while (pending[slot = (int) (nextToEmit % pending.length)] != null) {
+                    @SuppressWarnings("unchecked")
+                    var next = (List<R>) pending[slot];
+                    pending[slot] = null;
+                    emit(next, exHandler);
+                }
+            }
+        }
+
+        private void emit(List<R> results, Thread.UncaughtExceptionHandler exHandler) {
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    resultConsumer.accept(results.get(i));
+                } catch (Throwable e) {
+                    exHandler.uncaughtException(Thread.currentThread(), e);
+                }
+            }
+            nextToEmit++;
+            window.release();
+        }
+    }
 
     public ParallelConsumer(Consumer<T> consumer) {
         this(consumer, ForkJoinPool.getCommonPoolParallelism());
     }
 
     public ParallelConsumer(Consumer<T> consumer, int parallelismLevel) {
-        this.consumer = consumer;
-        this.executor = Executors.newFixedThreadPool(parallelismLevel);
+        this(consumer, parallelismLevel, Integer.MAX_VALUE, OverflowPolicy.BLOCK);
     }
 
     public ParallelConsumer(Consumer<T> consumer, Thread.UncaughtExceptionHandler exHandler) {
-        this(consumer, ForkJoinPool.getCommonPoolParallelism());
+        this(
+                consumer,
+                ForkJoinPool.getCommonPoolParallelism(),
+                Integer.MAX_VALUE,
+                OverflowPolicy.BLOCK,
+                exHandler);
+    }
+
+    /**
+     * Creates bounded parallel consumer
+     *
+     * @param capacity max number of items which are accepted but not consumed yet
+     * @param overflowPolicy what to do when accepting new item and capacity is reached
+     */
+    public ParallelConsumer(
+            Consumer<T> consumer,
+            int parallelismLevel,
+            int capacity,
+            OverflowPolicy overflowPolicy) {
+        this(
+                consumer,
+                parallelismLevel,
+                capacity,
+                overflowPolicy,
+                (t, ex) -> {
+                    ex.printStackTrace();
+                });
+    }
+
+    /**
+     * @see #ParallelConsumer(Consumer, int, int, OverflowPolicy)
+     */
+    public ParallelConsumer(
+            Consumer<T> consumer,
+            int parallelismLevel,
+            int capacity,
+            OverflowPolicy overflowPolicy,
+            Thread.UncaughtExceptionHandler exHandler) {
+        this(consumer, null, null, parallelismLevel, 1, capacity, overflowPolicy, exHandler);
+    }
+
+    private ParallelConsumer(
+            Consumer<T> consumer,
+            Consumer<List<T>> batchConsumer,
+            Reorderer<T, ?> reorderer,
+            int parallelismLevel,
+            int batchSize,
+            int capacity,
+            OverflowPolicy overflowPolicy,
+            Thread.UncaughtExceptionHandler exHandler) {
+        Preconditions.isTrue(parallelismLevel > 0, "Parallelism level must be positive");
+        Preconditions.isTrue(batchSize > 0, "Batch size must be positive");
+        Preconditions.isTrue(capacity > 0, "Capacity must be positive");
+        this.consumer = consumer;
+        this.batchConsumer = batchConsumer;
+        this.reorderer = reorderer;
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
         this.exHandler = exHandler;
+        queue =
+                capacity == Integer.MAX_VALUE
+                        ? new LinkedBlockingQueue<>()
+                        : new ArrayBlockingQueue<>(capacity);
+        terminated = new CountDownLatch(parallelismLevel);
+        for (int i = 0; i < parallelismLevel; i++) {
+            XThread.newThread(consumer != null ? this::runSingle : this::runBatches).start();
+        }
+    }
+
+    /**
+     * Parallel consumer which passes items to the batch consumer in batches. Workers do not wait
+     * for the batch to be full, instead they take all items which are available in the queue at the
+     * moment (but no more than batch size). Producer is blocked when the queue is full.
+     *
+     * <p>Batch lists are not reused so batch consumer may keep them.
+     *
+     * @param batchSize max number of items in one batch
+     * @param capacity max number of items which are accepted but not consumed yet
+     */
+    public static <T> ParallelConsumer<T> batching(
+            Consumer<List<T>> batchConsumer, int parallelismLevel, int batchSize, int capacity) {
+        return new ParallelConsumer<>(
+                null,
+                batchConsumer,
+                null,
+                parallelismLevel,
+                batchSize,
+                capacity,
+                OverflowPolicy.BLOCK,
+                (t, ex) -> {
+                    ex.printStackTrace();
+                });
+    }
+
+    /**
+     * Parallel consumer which maps items in parallel and passes results to the result consumer in
+     * the same order as items were accepted. Result consumer is never called concurrently.
+     *
+     * <p>Items are taken by workers in batches (see {@link #batching(Consumer, int, int, int)}).
+     * Results of each batch are kept until results of all preceding batches are passed to the
+     * result consumer. To bound memory only twice as many batches as there are workers can be in
+     * flight.
+     *
+     * <p>When mapper fails on some item its result is skipped.
+     *
+     * @param batchSize max number of items in one batch
+     * @param capacity max number of items which are accepted but not consumed yet
+     */
+    public static <T, R> ParallelConsumer<T> ordered(
+            Function<T, R> mapper,
+            Consumer<R> resultConsumer,
+            int parallelismLevel,
+            int batchSize,
+            int capacity) {
+        return new ParallelConsumer<>(
+                null,
+                null,
+                new Reorderer<>(mapper, resultConsumer, 2 * parallelismLevel),
+                parallelismLevel,
+                batchSize,
+                capacity,
+                OverflowPolicy.BLOCK,
+                (t, ex) -> {
+                    ex.printStackTrace();
+                });
     }
 
+    /**
+     * @throws RejectedExecutionException if consumer is closed or it is bounded with {@link
+     *     OverflowPolicy#REJECT} policy and its queue is full
+     */
     @Override
     public void accept(T t) {
-        executor.submit(
-                () -> {
+        if (isClosed) throw new RejectedExecutionException("Parallel consumer is closed");
+        inFlight.incrementAndGet();
+        try {
+            // close could happen before producer was counted
+            if (isClosed) throw new RejectedExecutionException("Parallel consumer is closed");
+            if (overflowPolicy == OverflowPolicy.REJECT) {
+                if (!queue.offer(t))
+                    throw new RejectedExecutionException("Parallel consumer queue is full");
+                return;
+            }
+            queue.put(t);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(e);
+        } finally {
+            if (inFlight.decrementAndGet() == 0 && isClosed) {
+                synchronized (inFlightLock) {
+                    inFlightLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /** Waits until all accepted items are consumed */
+    @Override
+    public void close() throws Exception {
+        if (!isClosed) putEoq();
+        terminated.await();
+    }
+
+    /**
+     * Closes the consumer and puts {@link #EOQ} after all in flight producers put their items.
+     * Workers keep taking items so neither producers nor EOQ are blocked for long, it waits for
+     * them uninterruptibly so that EOQ is always put.
+     */
+    private void putEoq() {
+        boolean isInterrupted = false;
+        synchronized (inFlightLock) {
+            if (isClosed) return;
+            isClosed = true;
+            while (inFlight.get() != 0) {
+                try {
+                    inFlightLock.wait();
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                }
+            }
+        }
+        while (true) {
+            try {
+                queue.put(EOQ);
+                break;
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) Thread.currentThread().interrupt();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runSingle() {
+        try {
+            Object item;
+            while ((item = queue.take()) != EOQ) {
+                try {
+                    consumer.accept((T) item);
+                } catch (Throwable e) {
+                    exHandler.uncaughtException(Thread.currentThread(), e);
+                }
+            }
+            // put it back for other workers
+            queue.put(EOQ);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        } finally {
+            terminated.countDown();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runBatches() {
+        try {
+            boolean isEnd = false;
+            while (!isEnd) {
+                var batch = new ArrayList<Object>(Math.min(batchSize, 1024));
+                if (reorderer == null) {
+                    isEnd = takeBatch(batch);
+                    if (batch.isEmpty()) continue;
                     try {
-                        consumer.accept(t);
+                        batchConsumer.accept((List<T>) (List<?>) batch);
                     } catch (Throwable e) {
                         exHandler.uncaughtException(Thread.currentThread(), e);
                     }
-                });
+                } else {
+                    reorderer.window.acquire();
+                    long seq;
+                    // batches should be numbered in the same order as they are taken
+                    reorderer.takeLock.lock();
+                    try {
+                        isEnd = takeBatch(batch);
+                        seq = reorderer.nextSeq++;
+                    } finally {
+                        reorderer.takeLock.unlock();
+                    }
+                    // empty batch still needs to be processed to release its sequence number
+                    reorderer.process(seq, (List<T>) (List<?>) batch, exHandler);
+                }
+            }
+            queue.put(EOQ);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        } finally {
+            terminated.countDown();
+        }
     }
 
-    @Override
-    public void close() throws Exception {
-        executor.shutdown();
-        executor.awaitTermination(Integer.MAX_VALUE, TimeUnit.DAYS);
+    /**
+     * @return true if end of queue is reached
+     */
+    private boolean takeBatch(List<Object> batch) throws InterruptedException {
+        var item = queue.take();
+        if (item == EOQ) return true;
+        batch.add(item);
+        if (batchSize > 1) queue.drainTo(batch, batchSize - 1);
+        // EOQ is the last item ever put into the queue but do not rely on it
+        int pos = batch.indexOf(EOQ);
+        if (pos == -1) return false;
+        batch.remove(pos);
+        return true;
     }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.function;
+
+import id.xfunction.Preconditions;
+import id.xfunction.lang.XThread;
+import id.xfunction.logging.XLogger;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * {@link ExpiringLazyInitializer} which recomputes the value asynchronously shortly before it
+ * expires. Suitable for configuration, access tokens and similar values which are expensive to load
+ * and should not block their readers.
+ *
+ * <p>The first reader which finds the value inside the refresh window (last {@code refreshAhead} of
+ * its time-to-live) schedules its reload and, as all other readers, continues to use the current
+ * value. Only one reload runs at a time. Once reload completes readers switch to the new value.
+ *
+ * <p>Readers block only when there is no value yet or when it expired without being refreshed
+ * (nobody requested it during the refresh window or reload failed). If reload fails the error is
+ * logged and the current value is kept, the next reader inside the refresh window retries.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class RefreshAheadLazyInitializer<T> extends ExpiringLazyInitializer<T> {
+    private final long refreshAtNanos;
+    private final Executor executor;
+    private final AtomicBoolean isRefreshing = new AtomicBoolean();
+
+    /** Reloads values on a new thread */
+    public RefreshAheadLazyInitializer(Supplier<T> ctor, Duration ttl, Duration refreshAhead) {
+        this(
+                ctor,
+                ttl,
+                refreshAhead,
+                task -> XThread.newThread(task, "lazy-initializer-refresh").start());
+    }
+
+    /**
+     * @param ttl how long the value is valid after it was computed
+     * @param refreshAhead how long before the expiration the value is reloaded
+     * @param executor executor to reload the value on
+     */
+    public RefreshAheadLazyInitializer(
+            Supplier<T> ctor, Duration ttl, Duration refreshAhead, Executor executor) {
+        super(ctor, ttl);
+        Preconditions.isTrue(
+                !refreshAhead.isNegative() && refreshAhead.compareTo(ttl) < 0,
+                "Refresh ahead duration must be non negative and less than TTL");
+        this.refreshAtNanos = ttlNanos - refreshAhead.toNanos();
+        this.executor = executor;
+    }
+
+    @Override
+    public T get() {
+        var e = entry();
+        if (e == null) return super.get();
+        long age = System.nanoTime() - e.loadedAt;
+        if (age >= ttlNanos) return super.get();
+        if (age >= refreshAtNanos && isRefreshing.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> refresh(e));
+            } catch (RejectedExecutionException ex) {
+                logger().severe("Could not schedule refresh", ex);
+                isRefreshing.set(false);
+            }
+        }
+        return e.value;
+    }
+
+    private void refresh(Entry<T> expected) {
+        try {
+            synchronized (this) {
+                // value could be already reloaded by the reader which found it expired
+                if (entry() == expected) load();
+            }
+        } catch (Throwable t) {
+            logger().severe("Refresh failed", t);
+        } finally {
+            isRefreshing.set(false);
+        }
+    }
+
+    /** Logger is created only on failure so that initializer does not initialize logging */
+    private static XLogger logger() {
+        return XLogger.getLogger(RefreshAheadLazyInitializer.class);
+    }
+}
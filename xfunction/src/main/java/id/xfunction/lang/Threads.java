@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.lang;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates threads for {@link XThread}.
+ *
+ * <p>This version always creates platform threads. Multi-release jar contains its Java 21 version
+ * (see src/main/java21) which can create virtual threads.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+class Threads {
+
+    static boolean isVirtual() {
+        return false;
+    }
+
+    static Thread newThread(Runnable task, String name) {
+        return name == null ? new Thread(task) : new Thread(task, name);
+    }
+
+    static ExecutorService newFixedThreadPool(int nThreads) {
+        return Executors.newFixedThreadPool(nThreads);
+    }
+}
@@ -28,7 +28,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -50,7 +49,7 @@ public class XProcess {
     private Optional<String> stdoutAsString = Optional.empty();
     private Optional<String> stderrAsString = Optional.empty();
     private Optional<CompletableFuture<Integer>> code = Optional.empty();
-    private ExecutorService executor = Executors.newFixedThreadPool(2);
+    private ExecutorService executor = XThread.newFixedThreadPool(2);
     private boolean isStderrConsumed;
     private boolean isStdoutConsumed;
     private Semaphore stdoutSemaphore = new Semaphore(1);
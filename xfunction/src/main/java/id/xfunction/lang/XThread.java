@@ -18,14 +18,28 @@
 package id.xfunction.lang;
 
 import id.xfunction.function.Unchecked;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Additions to standard java.lang.Thread
  *
+ * <p>Threads which xfunction creates internally (workers of {@link
+ * id.xfunction.concurrent.BlockingExecutorService}, {@link id.xfunction.function.ParallelConsumer},
+ * {@link XProcess} etc) are created through this class. When xfunction runs on Java 21 or higher
+ * and system property {@link #VIRTUAL_THREADS_PROPERTY} is set to true they are virtual threads.
+ * Otherwise they are platform threads. Keep in mind that virtual threads are always daemon threads
+ * and they do not prevent JVM from exiting.
+ *
  * @author lambdaprime intid@protonmail.com
  */
 public class XThread {
 
+    /**
+     * System property which enables virtual threads when running on Java 21 or higher, default is
+     * false
+     */
+    public static final String VIRTUAL_THREADS_PROPERTY = "id.xfunction.virtualThreads";
+
     /**
      * Standard way to sleep in Java is pretty verbose because it throws checked exception which you
      * need to handle:
@@ -50,4 +64,31 @@ public class XThread {
     public static void sleep(long msec) {
         Unchecked.run(() -> Thread.sleep(msec == -1 ? Integer.MAX_VALUE : msec));
     }
+
+    /** Returns true if threads created by this class are virtual */
+    public static boolean isVirtualThreadsEnabled() {
+        return Threads.isVirtual();
+    }
+
+    /** Creates new unstarted thread, see {@link XThread} */
+    public static Thread newThread(Runnable task) {
+        return Threads.newThread(task, null);
+    }
+
+    /** Creates new unstarted thread with the given name, see {@link XThread} */
+    public static Thread newThread(Runnable task, String name) {
+        return Threads.newThread(task, name);
+    }
+
+    /**
+     * Creates executor which runs at most nThreads tasks at the same time, others wait in an
+     * unbounded queue.
+     *
+     * <p>With platform threads it is {@link
+     * java.util.concurrent.Executors#newFixedThreadPool(int)}. With virtual threads each task runs
+     * in its own virtual thread and number of concurrently running tasks is limited by a semaphore.
+     */
+    public static ExecutorService newFixedThreadPool(int nThreads) {
+        return Threads.newFixedThreadPool(nThreads);
+    }
 }
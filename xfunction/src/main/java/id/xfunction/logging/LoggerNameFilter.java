@@ -87,8 +87,8 @@ public class LoggerNameFilter implements Filter {
         String name = record.getLoggerName();
         if (name == null) return false;
         if (record.getLevel().intValue() >= Level.WARNING.intValue()) return true;
-        if (excludedLoggers.prefixMatches(name) != 0) return false;
+        if (excludedLoggers.hasPrefixOf(name)) return false;
         if (namePrefixes.isEmpty()) return true;
-        return namePrefixes.prefixMatches(name) != 0;
+        return namePrefixes.hasPrefixOf(name);
     }
 }
@@ -19,6 +19,7 @@ package id.xfunction.nio.file;
 
 import id.xfunction.Preconditions;
 import id.xfunction.function.Unchecked;
+import id.xfunction.lang.XThread;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.FileSystems;
@@ -137,7 +138,7 @@ class GlobFileSearch {
                         .skip(1);
         FileVisitor<Path> visitor = createVisitor(globExpression);
         // do not use common pool since it can be out of threads and then we may stuck
-        new Thread(
+        XThread.newThread(
                         () -> {
                             try {
                                 Files.walkFileTree(startFrom, visitor);
@@ -19,6 +19,7 @@ package id.xfunction.nio.file;
 
 import id.xfunction.Preconditions;
 import id.xfunction.function.Unchecked;
+import id.xfunction.lang.XThread;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -163,7 +164,7 @@ public class XFiles {
         var buf = new StringBuilder();
         var separator = System.lineSeparator();
         // do not use common pool since it can be out of threads and then we may stuck
-        new Thread(
+        XThread.newThread(
                         () -> {
                             while (!future.isDone()) {
                                 try {
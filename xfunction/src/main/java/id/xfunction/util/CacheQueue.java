@@ -17,13 +17,16 @@
  */
 package id.xfunction.util;
 
+import id.xfunction.Preconditions;
+import java.util.AbstractCollection;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
- * Cache implementation in form of a FIFO queue which caches only N last added items. Ordinary
- * {@link java.util.Queue} does not delete elements automatically - this cache does.
+ * Cache implementation in form of a queue which holds at most N items. Ordinary {@link
+ * java.util.Queue} does not delete elements automatically - this cache does.
  *
  * <ul>
  *   <li>provides O(1) access time to the items
@@ -32,68 +35,287 @@ import java.util.LinkedHashMap;
  *   <li>never exceed its defined maximum size
  * </ul>
  *
- * <p>It is based on {@link LinkedHashMap} (and relies on {@link LinkedHashMap#removeEldestEntry})
- * so all {@link LinkedHashMap} properties applies to {@link CacheQueue}.
+ * <p>Which item is removed when queue is full is decided by {@link EvictionPolicy}:
+ *
+ * <ul>
+ *   <li>{@link EvictionPolicy#FIFO} (default) - queue keeps N last added items
+ *   <li>{@link EvictionPolicy#LRU} - queue keeps N most recently accessed items
+ *   <li>{@link EvictionPolicy#TINY_LFU} - queue keeps items which are accessed most frequently
+ * </ul>
+ *
+ * <p>It is based on {@link LinkedHashMap} so all {@link LinkedHashMap} properties applies to {@link
+ * CacheQueue}.
+ *
+ * <p>Queue counts hits, misses and evictions which are available through {@link #getStats()}. Hit
+ * is when {@link #add(Object)} or {@link #contains(Object)} finds item inside the queue, miss is
+ * when it does not.
  *
  * @author lambdaprime intid@protonmail.com
  */
 public class CacheQueue<T> implements Collection<T> {
 
+    /** Policies which decide which item to remove when queue is full */
+    public static enum EvictionPolicy {
+        /** Remove the item which was added first */
+        FIFO,
+
+        /**
+         * Remove the item which was accessed least recently. Both {@link CacheQueue#add(Object)}
+         * and {@link CacheQueue#contains(Object)} count as an access. Items are iterated starting
+         * from least recently accessed one.
+         */
+        LRU,
+
+        /**
+         * Frequency aware policy similar to W-TinyLFU.
+         *
+         * <p>New items are always added to the small LRU window (1% of the queue). When item leaves
+         * the window it is admitted to the main LRU region only if it was accessed more frequently
+         * than the item which it is going to replace there, otherwise it is removed. This protects
+         * frequently accessed items from being pushed out by the stream of items which are seen
+         * only once.
+         *
+         * <p>Access frequencies are estimated with a small sketch which periodically halves all
+         * counters so that items which were popular long time ago eventually lose their priority.
+         */
+        TINY_LFU
+    }
+
+    /** Snapshot of the queue statistics */
+    public static class Stats {
+        private final long hitCount, missCount, evictionCount;
+
+        public Stats(long hitCount, long missCount, long evictionCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /** Returns ratio of hits to all requests or 1 if there were no requests */
+        public double getHitRate() {
+            long total = hitCount + missCount;
+            return total == 0 ? 1.0 : (double) hitCount / total;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats [hitCount="
+                    + hitCount
+                    + ", missCount="
+                    + missCount
+                    + ", evictionCount="
+                    + evictionCount
+                    + "]";
+        }
+    }
+
+    private EvictionPolicy policy;
     private LinkedHashMap<T, Boolean> cache;
+    private Collection<T> items;
+    private long hitCount, missCount, evictionCount;
+
+    // used only by TINY_LFU
+    private LinkedHashMap<T, Boolean> window;
+    private int windowSize, mainSize;
+    private FrequencySketch sketch;
 
     public CacheQueue(int maxSize) {
-        cache =
-                new LinkedHashMap<T, Boolean>() {
-                    @Override
-                    protected boolean removeEldestEntry(java.util.Map.Entry<T, Boolean> eldest) {
-                        return size() > maxSize;
+        this(maxSize, EvictionPolicy.FIFO);
+    }
+
+    public CacheQueue(int maxSize, EvictionPolicy policy) {
+        Preconditions.notNull(policy, "Eviction policy is missing");
+        this.policy = policy;
+        switch (policy) {
+            case FIFO:
+            case LRU:
+                cache = newLinkedHashMap(maxSize, policy == EvictionPolicy.LRU);
+                items = cache.keySet();
+                break;
+            case TINY_LFU:
+                windowSize = Math.max(1, maxSize / 100);
+                mainSize = Math.max(0, maxSize - windowSize);
+                cache = new LinkedHashMap<>(16, 0.75f, true);
+                window = new LinkedHashMap<>(16, 0.75f, true);
+                sketch = new FrequencySketch(maxSize);
+                items = new TinyLfuItems();
+                break;
+            default:
+                throw new UnsupportedOperationException("Unknown policy " + policy);
+        }
+    }
+
+    private LinkedHashMap<T, Boolean> newLinkedHashMap(int maxSize, boolean accessOrder) {
+        return new LinkedHashMap<T, Boolean>(16, 0.75f, accessOrder) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(java.util.Map.Entry<T, Boolean> eldest) {
+                if (size() <= maxSize) return false;
+                evictionCount++;
+                return true;
+            }
+        };
+    }
+
+    /** Items of TINY_LFU queue: main region followed by the window */
+    private class TinyLfuItems extends AbstractCollection<T> {
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                Iterator<T> iter = cache.keySet().iterator();
+                boolean isWindow;
+
+                @Override
+                public boolean hasNext() {
+                    if (!iter.hasNext() && !isWindow) {
+                        iter = window.keySet().iterator();
+                        isWindow = true;
                     }
-                };
+                    return iter.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    hasNext();
+                    return iter.next();
+                }
+
+                @Override
+                public void remove() {
+                    iter.remove();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return cache.size() + window.size();
+        }
+    }
+
+    public EvictionPolicy getEvictionPolicy() {
+        return policy;
+    }
+
+    /** Returns statistics accumulated since queue was created or since {@link #resetStats()} */
+    public Stats getStats() {
+        return new Stats(hitCount, missCount, evictionCount);
+    }
+
+    public void resetStats() {
+        hitCount = missCount = evictionCount = 0;
     }
 
     @Override
     public int size() {
-        return cache.size();
+        return items.size();
     }
 
     @Override
     public boolean isEmpty() {
-        return cache.isEmpty();
+        return items.isEmpty();
     }
 
     @Override
     public boolean contains(Object o) {
-        return cache.containsKey(o);
+        boolean isFound;
+        switch (policy) {
+            case LRU:
+                // get() moves item to the end of access ordered map
+                isFound = cache.get(o) != null;
+                break;
+            case TINY_LFU:
+                sketch.increment(o);
+                isFound = cache.get(o) != null || window.get(o) != null;
+                break;
+            default:
+                isFound = cache.containsKey(o);
+        }
+        if (isFound) hitCount++;
+        else missCount++;
+        return isFound;
     }
 
     @Override
     public Iterator<T> iterator() {
-        return cache.keySet().iterator();
+        return items.iterator();
     }
 
     @Override
     public Object[] toArray() {
-        return cache.keySet().toArray();
+        return items.toArray();
     }
 
     @Override
     public <T> T[] toArray(T[] a) {
-        return cache.keySet().toArray(a);
+        return items.toArray(a);
     }
 
     @Override
     public boolean add(T e) {
-        return cache.put(e, true) == null;
+        if (policy == EvictionPolicy.TINY_LFU) return addTinyLfu(e);
+        var isAdded = cache.put(e, true) == null;
+        if (isAdded) missCount++;
+        else hitCount++;
+        return isAdded;
+    }
+
+    private boolean addTinyLfu(T e) {
+        sketch.increment(e);
+        if (cache.get(e) != null || window.get(e) != null) {
+            hitCount++;
+            return false;
+        }
+        missCount++;
+        window.put(e, true);
+        if (window.size() <= windowSize) return true;
+        var candidate = removeEldest(window);
+        if (cache.size() < mainSize) {
+            cache.put(candidate, true);
+            return true;
+        }
+        evictionCount++;
+        if (mainSize == 0) return true;
+        var victim = cache.keySet().iterator().next();
+        if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+            cache.remove(victim);
+            cache.put(candidate, true);
+        }
+        return true;
+    }
+
+    private T removeEldest(Map<T, Boolean> map) {
+        var iter = map.keySet().iterator();
+        var eldest = iter.next();
+        iter.remove();
+        return eldest;
     }
 
     @Override
     public boolean remove(Object o) {
-        return cache.remove(o) != null;
+        if (cache.remove(o) != null) return true;
+        return window != null && window.remove(o) != null;
     }
 
     @Override
     public boolean containsAll(Collection<?> c) {
-        return cache.keySet().containsAll(c);
+        for (var o : c) {
+            if (!cache.containsKey(o) && (window == null || !window.containsKey(o))) return false;
+        }
+        return true;
     }
 
     @Override
@@ -114,10 +336,11 @@ public class CacheQueue<T> implements Collection<T> {
     @Override
     public void clear() {
         cache.clear();
+        if (window != null) window.clear();
     }
 
     @Override
     public String toString() {
-        return cache.keySet().toString();
+        return items.toString();
     }
 }
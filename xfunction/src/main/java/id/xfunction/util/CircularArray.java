@@ -18,13 +18,19 @@
 package id.xfunction.util;
 
 /**
+ * Keeps N last added values and calculates their average.
+ *
+ * <p>Running total is tracked with compensated summation so it does not drift no matter how many
+ * values were added.
+ *
+ * @see DoubleRollingWindow
  * @author lambdaprime intid@protonmail.com
  */
 public class CircularArray {
     private double[] array;
     private int tail;
     private int size;
-    private double total;
+    private CompensatedSum total = new CompensatedSum();
 
     public CircularArray(int size) {
         this.array = new double[size];
@@ -33,16 +39,16 @@ public class CircularArray {
     }
 
     public void add(double value) {
-        total -= array[tail];
+        total.add(-array[tail]);
         array[tail] = value;
-        total += value;
+        total.add(value);
         if (size < array.length) size++;
         tail = (tail + 1) % array.length;
     }
 
     public double avg() {
         if (size == 0) return 0;
-        return total / size;
+        return total.get() / size;
     }
 
     public int getSize() {
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.util;
+
+/**
+ * Sum of doubles which uses Kahan-Babuska-Neumaier compensated summation.
+ *
+ * <p>Ordinary floating point sum loses low order bits every time a value is added to the much
+ * bigger (or subtracted from) total. When values are constantly added and removed, like in rolling
+ * windows, this error accumulates. Compensated summation keeps lost bits in a separate variable so
+ * the error does not depend on the number of performed operations.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+class CompensatedSum {
+    private double sum;
+    private double compensation;
+
+    void add(double value) {
+        double t = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) compensation += (sum - t) + value;
+        else compensation += (value - t) + sum;
+        sum = t;
+    }
+
+    double get() {
+        return sum + compensation;
+    }
+
+    void reset() {
+        sum = 0;
+        compensation = 0;
+    }
+
+    @Override
+    public String toString() {
+        return Double.toString(get());
+    }
+}
@@ -0,0 +1,1032 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.util;
+
+import id.xfunction.Preconditions;
+import id.xfunction.lang.XRE;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Compressed bit set for the full range of integers including negative ones (similar to Roaring
+ * bitmaps).
+ *
+ * <p>Unlike {@link IntBitSet}, which allocates all words at once, this set divides the range of
+ * integers into chunks of 65536 values and allocates memory only for the chunks which have bits
+ * set. Each chunk is stored in one of the containers:
+ *
+ * <ul>
+ *   <li>array - sorted array of 16-bit values, used for sparse chunks (up to 4096 values)
+ *   <li>bitmap - 1024 long words, used for dense chunks
+ *   <li>run - sorted array of [start, length] pairs, used for chunks which consist of long
+ *       sequences of consecutive values
+ * </ul>
+ *
+ * <p>Container type is selected automatically for range and bulk operations. Single value updates
+ * keep container type unless it exceeds its limits, use {@link #optimize()} to compress the set
+ * after many such updates.
+ *
+ * <p>Chunk key is the upper 16 bits of the value with the sign bit flipped, which keeps chunks, and
+ * so all set bits, in ascending order of signed integers.
+ *
+ * <p>Methods follow {@link IntBitSet} API where possible.
+ *
+ * <p>This class is not thread safe.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class CompressedIntBitSet {
+
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int ARRAY_MAX_SIZE = 4096;
+    private static final int BITMAP_WORDS = CHUNK_SIZE / 64;
+    private static final int BITMAP_BYTES = BITMAP_WORDS * 8;
+    private static final byte ARRAY = 0, BITMAP = 1, RUN = 2;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+    private long cardinality;
+
+    public CompressedIntBitSet() {}
+
+    /** Creates a copy of the given set */
+    public CompressedIntBitSet(CompressedIntBitSet other) {
+        keys = Arrays.copyOf(other.keys, Math.max(4, other.size));
+        containers = new Container[keys.length];
+        for (int i = 0; i < other.size; i++) containers[i] = other.containers[i].copy();
+        size = other.size;
+        cardinality = other.cardinality;
+    }
+
+    /** Returns value of the bit with given index */
+    public boolean get(int i) {
+        int pos = indexOf(high(i));
+        return pos >= 0 && containers[pos].contains(low(i));
+    }
+
+    /** Sets bit with given index to true */
+    public void set(int i) {
+        int pos = indexOf(high(i));
+        if (pos < 0) {
+            insert(-pos - 1, high(i), new ArrayContainer(low(i)));
+            cardinality++;
+            return;
+        }
+        var c = containers[pos];
+        int before = c.cardinality();
+        containers[pos] = c.add(low(i));
+        cardinality += containers[pos].cardinality() - before;
+    }
+
+    /** Sets bit with given index to false */
+    public void clear(int i) {
+        int pos = indexOf(high(i));
+        if (pos < 0) return;
+        var c = containers[pos];
+        int before = c.cardinality();
+        c = c.remove(low(i));
+        if (c == null) {
+            removeAt(pos);
+            cardinality -= before;
+            return;
+        }
+        containers[pos] = c;
+        cardinality += c.cardinality() - before;
+    }
+
+    /** Flip single bit by its position */
+    public void flip(int i) {
+        if (get(i)) clear(i);
+        else set(i);
+    }
+
+    /** Sets all bits between [fromIndex, toIndex) to true */
+    public void set(int fromIndex, int toIndex) {
+        updateRange(fromIndex, toIndex, RangeOperation.SET);
+    }
+
+    /** Sets all bits between [fromIndex, toIndex) to false */
+    public void clear(int fromIndex, int toIndex) {
+        updateRange(fromIndex, toIndex, RangeOperation.CLEAR);
+    }
+
+    /** Flip all bits between [fromIndex, toIndex) */
+    public void flip(int fromIndex, int toIndex) {
+        updateRange(fromIndex, toIndex, RangeOperation.FLIP);
+    }
+
+    /** Sets all bits to false */
+    public void clear() {
+        Arrays.fill(containers, 0, size, null);
+        size = 0;
+        cardinality = 0;
+    }
+
+    /**
+     * Returns number of bits set to true.
+     *
+     * <p>Complexity is O(1)
+     */
+    public long cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Return the index of the first bit which is set to true and which occurs on or after the
+     * specified starting index. Unlike {@link IntBitSet#nextSetBit(int)} result is empty when no
+     * such bit exists, since -1 is a valid index here.
+     */
+    public OptionalInt nextSetBit(int fromIndex) {
+        int pos = indexOf(high(fromIndex));
+        if (pos >= 0) {
+            int next = containers[pos].next(low(fromIndex));
+            if (next != -1) return OptionalInt.of(base(keys[pos]) | next);
+            pos++;
+        } else {
+            pos = -pos - 1;
+        }
+        // containers are never empty
+        return pos < size
+                ? OptionalInt.of(base(keys[pos]) | containers[pos].next(0))
+                : OptionalInt.empty();
+    }
+
+    /** Performs logical OR of this set with the other one */
+    public void or(CompressedIntBitSet other) {
+        merge(other, true, true, Container::or);
+    }
+
+    /** Performs logical AND of this set with the other one */
+    public void and(CompressedIntBitSet other) {
+        merge(other, false, false, Container::and);
+    }
+
+    /** Performs logical XOR of this set with the other one */
+    public void xor(CompressedIntBitSet other) {
+        merge(other, true, true, Container::xor);
+    }
+
+    /** Clears all bits of this set which are set in the other one */
+    public void andNot(CompressedIntBitSet other) {
+        merge(other, true, false, Container::andNot);
+    }
+
+    /** Returns true if this set has any bits in common with the other one */
+    public boolean intersects(CompressedIntBitSet other) {
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) i++;
+            else if (keys[i] > other.keys[j]) j++;
+            else if (Container.and(containers[i++], other.containers[j++]) != null) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Converts containers to the representation which uses least memory. It is useful after many
+     * single bit updates.
+     */
+    public void optimize() {
+        for (int i = 0; i < size; i++) {
+            containers[i] = Container.fromWords(containers[i].words());
+        }
+    }
+
+    /** Return stream of all set bit indices */
+    public IntStream streamOfSetBits() {
+        return StreamSupport.intStream(
+                Spliterators.spliterator(
+                        new SetBitsIterator(),
+                        cardinality,
+                        Spliterator.ORDERED
+                                | Spliterator.DISTINCT
+                                | Spliterator.SORTED
+                                | Spliterator.NONNULL),
+                false);
+    }
+
+    /** Calls action for all set bit indices in ascending order */
+    public void forEachSetBit(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(base(keys[i]), action);
+        }
+    }
+
+    /** Size of this set when it is serialized with {@link #toByteArray()} */
+    public int getSerializedSize() {
+        int len = 4;
+        for (int i = 0; i < size; i++) {
+            len += 3 + containers[i].serializedSize();
+        }
+        return len;
+    }
+
+    /**
+     * Serializes this set into compact binary form. Each container is written as is (with no
+     * conversion) so the size of serialized set is close to the size of the set in memory.
+     *
+     * @see #fromByteArray(byte[])
+     */
+    public byte[] toByteArray() {
+        var buf = ByteBuffer.allocate(getSerializedSize());
+        buf.putInt(size);
+        for (int i = 0; i < size; i++) {
+            buf.putChar(keys[i]);
+            containers[i].write(buf);
+        }
+        return buf.array();
+    }
+
+    /**
+     * Restores the set from its binary form.
+     *
+     * @see #toByteArray()
+     */
+    public static CompressedIntBitSet fromByteArray(byte[] data) {
+        var buf = ByteBuffer.wrap(data);
+        var set = new CompressedIntBitSet();
+        int n = buf.getInt();
+        Preconditions.isLessOrEqual(0, n, "Negative number of containers");
+        set.keys = new char[Math.max(4, n)];
+        set.containers = new Container[set.keys.length];
+        for (int i = 0; i < n; i++) {
+            set.keys[i] = buf.getChar();
+            if (i > 0) Preconditions.isLess(set.keys[i - 1], set.keys[i], "Keys are not sorted");
+            var c = Container.read(buf);
+            set.containers[i] = c;
+            set.cardinality += c.cardinality();
+        }
+        set.size = n;
+        return set;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (int i = 0; i < size; i++) {
+            h = 31 * h + keys[i];
+            h = 31 * h + Arrays.hashCode(containers[i].words());
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof CompressedIntBitSet)) return false;
+        var other = (CompressedIntBitSet) obj;
+        if (size != other.size || cardinality != other.cardinality) return false;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != other.keys[i]) return false;
+            if (!Arrays.equals(containers[i].words(), other.containers[i].words())) return false;
+        }
+        return true;
+    }
+
+    /** Returns indices of all set bits in the format similar to {@link java.util.BitSet} */
+    @Override
+    public String toString() {
+        return streamOfSetBits()
+                .mapToObj(Integer::toString)
+                .collect(Collectors.joining(", ", "{", "}"));
+    }
+
+    private enum RangeOperation {
+        SET,
+        CLEAR,
+        FLIP
+    }
+
+    private void updateRange(int fromIndex, int toIndex, RangeOperation op) {
+        Preconditions.isLessOrEqual(fromIndex, toIndex, "Negative range");
+        if (fromIndex == toIndex) return;
+        int last = toIndex - 1;
+        for (int key = high(fromIndex); key <= high(last); key++) {
+            int from = key == high(fromIndex) ? low(fromIndex) : 0;
+            int to = key == high(last) ? low(last) + 1 : CHUNK_SIZE;
+            int pos = indexOf(key);
+            var c = pos >= 0 ? containers[pos] : null;
+            Container result;
+            if (from == 0 && to == CHUNK_SIZE && (op != RangeOperation.FLIP || c == null)) {
+                result = op == RangeOperation.CLEAR ? null : RunContainer.full();
+            } else {
+                if (c == null && op == RangeOperation.CLEAR) continue;
+                var words = c == null ? new long[BITMAP_WORDS] : c.words();
+                switch (op) {
+                    case SET:
+                        setRange(words, from, to);
+                        break;
+                    case CLEAR:
+                        clearRange(words, from, to);
+                        break;
+                    default:
+                        flipRange(words, from, to);
+                }
+                result = Container.fromWords(words);
+            }
+            if (c != null) cardinality -= c.cardinality();
+            if (result != null) cardinality += result.cardinality();
+            if (pos >= 0) {
+                if (result == null) removeAt(pos);
+                else containers[pos] = result;
+            } else if (result != null) {
+                insert(-pos - 1, key, result);
+            }
+        }
+    }
+
+    private interface ContainerOperation {
+        Container apply(Container a, Container b);
+    }
+
+    /**
+     * @param keepThis keep containers which present only in this set
+     * @param keepOther add containers which present only in the other set
+     */
+    private void merge(
+            CompressedIntBitSet other, boolean keepThis, boolean keepOther, ContainerOperation op) {
+        var newKeys = new char[Math.max(4, size + (keepOther ? other.size : 0))];
+        var newContainers = new Container[newKeys.length];
+        int n = 0, i = 0, j = 0;
+        long newCardinality = 0;
+        while (i < size || j < other.size) {
+            Container c;
+            int key;
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                key = keys[i];
+                c = keepThis ? containers[i] : null;
+                i++;
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                key = other.keys[j];
+                c = keepOther ? other.containers[j].copy() : null;
+                j++;
+            } else {
+                key = keys[i];
+                c = op.apply(containers[i++], other.containers[j++]);
+            }
+            if (c == null) continue;
+            newKeys[n] = (char) key;
+            newContainers[n++] = c;
+            newCardinality += c.cardinality();
+        }
+        keys = newKeys;
+        containers = newContainers;
+        size = n;
+        cardinality = newCardinality;
+    }
+
+    private int indexOf(int key) {
+        return Arrays.binarySearch(keys, 0, size, (char) key);
+    }
+
+    private void insert(int pos, int key, Container c) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+        System.arraycopy(containers, pos, containers, pos + 1, size - pos);
+        keys[pos] = (char) key;
+        containers[pos] = c;
+        size++;
+    }
+
+    private void removeAt(int pos) {
+        System.arraycopy(keys, pos + 1, keys, pos, size - pos - 1);
+        System.arraycopy(containers, pos + 1, containers, pos, size - pos - 1);
+        containers[--size] = null;
+    }
+
+    /** Chunk key with the sign bit flipped so that unsigned key order is the signed value order */
+    private static int high(int i) {
+        return (i >>> 16) ^ 0x8000;
+    }
+
+    /** Inverse of {@link #high(int)}: the lowest value of the chunk with the given key */
+    private static int base(int key) {
+        return (key ^ 0x8000) << 16;
+    }
+
+    private static int low(int i) {
+        return i & 0xffff;
+    }
+
+    private static void setRange(long[] words, int from, int to) {
+        int a = from >>> 6, b = (to - 1) >>> 6;
+        // shift distances are taken modulo 64
+        long firstMask = -1L << from, lastMask = -1L >>> -to;
+        if (a == b) {
+            words[a] |= firstMask & lastMask;
+            return;
+        }
+        words[a] |= firstMask;
+        Arrays.fill(words, a + 1, b, -1L);
+        words[b] |= lastMask;
+    }
+
+    private static void clearRange(long[] words, int from, int to) {
+        int a = from >>> 6, b = (to - 1) >>> 6;
+        long firstMask = -1L << from, lastMask = -1L >>> -to;
+        if (a == b) {
+            words[a] &= ~(firstMask & lastMask);
+            return;
+        }
+        words[a] &= ~firstMask;
+        Arrays.fill(words, a + 1, b, 0);
+        words[b] &= ~lastMask;
+    }
+
+    private static void flipRange(long[] words, int from, int to) {
+        int a = from >>> 6, b = (to - 1) >>> 6;
+        long firstMask = -1L << from, lastMask = -1L >>> -to;
+        if (a == b) {
+            words[a] ^= firstMask & lastMask;
+            return;
+        }
+        words[a] ^= firstMask;
+        for (int i = a + 1; i < b; i++) words[i] = ~words[i];
+        words[b] ^= lastMask;
+    }
+
+    /** Returns index of the next set bit in the chunk or -1 */
+    private static int nextSetBit(long[] words, int from) {
+        if (from >= CHUNK_SIZE) return -1;
+        int i = from >>> 6;
+        long word = words[i] & (-1L << from);
+        while (word == 0) {
+            if (++i == words.length) return -1;
+            word = words[i];
+        }
+        return (i << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /** Returns index of the next clear bit in the chunk or {@link #CHUNK_SIZE} */
+    private static int nextClearBit(long[] words, int from) {
+        if (from >= CHUNK_SIZE) return CHUNK_SIZE;
+        int i = from >>> 6;
+        long word = ~words[i] & (-1L << from);
+        while (word == 0) {
+            if (++i == words.length) return CHUNK_SIZE;
+            word = ~words[i];
+        }
+        return (i << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    private class SetBitsIterator implements PrimitiveIterator.OfInt {
+        private int pos;
+        // containers are never empty
+        private boolean hasNext = size > 0;
+        private int next = hasNext ? base(keys[0]) | containers[0].next(0) : 0;
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext) throw new NoSuchElementException();
+            int res = next;
+            int low = containers[pos].next(low(res) + 1);
+            if (low != -1) {
+                next = base(keys[pos]) | low;
+            } else if (++pos < size) {
+                next = base(keys[pos]) | containers[pos].next(0);
+            } else {
+                hasNext = false;
+            }
+            return res;
+        }
+    }
+
+    /** Container of the 16-bit values for one chunk. Containers are never empty. */
+    private abstract static class Container {
+
+        abstract int cardinality();
+
+        abstract boolean contains(int x);
+
+        /** Returns container with x added (which can be this container or a new one) */
+        abstract Container add(int x);
+
+        /**
+         * Returns container with x removed (which can be this container or a new one) or null if
+         * container became empty
+         */
+        abstract Container remove(int x);
+
+        /** Returns smallest value in container which is greater or equal to x, otherwise -1 */
+        abstract int next(int x);
+
+        abstract void forEach(int base, IntConsumer action);
+
+        /** Sets all values of this container in the given bitmap */
+        abstract void orInto(long[] words);
+
+        abstract Container copy();
+
+        abstract int serializedSize();
+
+        abstract void write(ByteBuffer buf);
+
+        long[] words() {
+            var words = new long[BITMAP_WORDS];
+            orInto(words);
+            return words;
+        }
+
+        static Container read(ByteBuffer buf) {
+            byte type = buf.get();
+            switch (type) {
+                case ARRAY:
+                    {
+                        int card = buf.getChar();
+                        var values = new char[card];
+                        buf.asCharBuffer().get(values);
+                        buf.position(buf.position() + card * 2);
+                        return new ArrayContainer(values, card);
+                    }
+                case BITMAP:
+                    {
+                        var words = new long[BITMAP_WORDS];
+                        buf.asLongBuffer().get(words);
+                        buf.position(buf.position() + BITMAP_BYTES);
+                        return new BitmapContainer(words);
+                    }
+                case RUN:
+                    {
+                        int n = buf.getChar();
+                        var runs = new char[n * 2];
+                        buf.asCharBuffer().get(runs);
+                        buf.position(buf.position() + n * 4);
+                        return new RunContainer(runs, n);
+                    }
+                default:
+                    throw new XRE("Unknown container type %s", type);
+            }
+        }
+
+        /** Creates container which uses least memory or null if bitmap is empty */
+        static Container fromWords(long[] words) {
+            int card = 0, runs = 0;
+            long prev = 0;
+            for (long w : words) {
+                card += Long.bitCount(w);
+                // count first bits of runs
+                runs += Long.bitCount(w & ~((w << 1) | (prev >>> 63)));
+                prev = w;
+            }
+            if (card == 0) return null;
+            int arrayBytes = card <= ARRAY_MAX_SIZE ? 2 * card : Integer.MAX_VALUE;
+            if (RunContainer.bytes(runs) < Math.min(arrayBytes, BITMAP_BYTES))
+                return RunContainer.fromWords(words, runs);
+            if (card <= ARRAY_MAX_SIZE) return ArrayContainer.fromWords(words, card);
+            return new BitmapContainer(words, card);
+        }
+
+        static Container or(Container a, Container b) {
+            if (a instanceof ArrayContainer
+                    && b instanceof ArrayContainer
+                    && a.cardinality() + b.cardinality() <= ARRAY_MAX_SIZE)
+                return ((ArrayContainer) a).union((ArrayContainer) b);
+            var words = a.words();
+            b.orInto(words);
+            return fromWords(words);
+        }
+
+        static Container and(Container a, Container b) {
+            if (a instanceof ArrayContainer) return ((ArrayContainer) a).filter(b, true);
+            if (b instanceof ArrayContainer) return ((ArrayContainer) b).filter(a, true);
+            var words = a.words();
+            var other = b.words();
+            for (int i = 0; i < words.length; i++) words[i] &= other[i];
+            return fromWords(words);
+        }
+
+        static Container andNot(Container a, Container b) {
+            if (a instanceof ArrayContainer) return ((ArrayContainer) a).filter(b, false);
+            var words = a.words();
+            var other = b.words();
+            for (int i = 0; i < words.length; i++) words[i] &= ~other[i];
+            return fromWords(words);
+        }
+
+        static Container xor(Container a, Container b) {
+            var words = a.words();
+            var other = b.words();
+            for (int i = 0; i < words.length; i++) words[i] ^= other[i];
+            return fromWords(words);
+        }
+    }
+
+    private static class ArrayContainer extends Container {
+        private char[] values;
+        private int card;
+
+        ArrayContainer(int x) {
+            values = new char[] {(char) x};
+            card = 1;
+        }
+
+        ArrayContainer(char[] values, int card) {
+            this.values = values;
+            this.card = card;
+        }
+
+        static ArrayContainer fromWords(long[] words, int card) {
+            var values = new char[card];
+            int n = 0;
+            for (int i = 0; i < words.length; i++) {
+                long w = words[i];
+                while (w != 0) {
+                    values[n++] = (char) ((i << 6) + Long.numberOfTrailingZeros(w));
+                    w &= w - 1;
+                }
+            }
+            return new ArrayContainer(values, card);
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        boolean contains(int x) {
+            return Arrays.binarySearch(values, 0, card, (char) x) >= 0;
+        }
+
+        @Override
+        Container add(int x) {
+            int pos = Arrays.binarySearch(values, 0, card, (char) x);
+            if (pos >= 0) return this;
+            if (card == ARRAY_MAX_SIZE) {
+                var words = words();
+                words[x >>> 6] |= 1L << x;
+                return new BitmapContainer(words, card + 1);
+            }
+            pos = -pos - 1;
+            if (card == values.length)
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX_SIZE, card + (card >> 1) + 1));
+            System.arraycopy(values, pos, values, pos + 1, card - pos);
+            values[pos] = (char) x;
+            card++;
+            return this;
+        }
+
+        @Override
+        Container remove(int x) {
+            int pos = Arrays.binarySearch(values, 0, card, (char) x);
+            if (pos < 0) return this;
+            if (card == 1) return null;
+            System.arraycopy(values, pos + 1, values, pos, card - pos - 1);
+            card--;
+            return this;
+        }
+
+        @Override
+        int next(int x) {
+            if (x >= CHUNK_SIZE) return -1;
+            int pos = Arrays.binarySearch(values, 0, card, (char) x);
+            if (pos < 0) pos = -pos - 1;
+            return pos < card ? values[pos] : -1;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < card; i++) action.accept(base | values[i]);
+        }
+
+        @Override
+        void orInto(long[] words) {
+            for (int i = 0; i < card; i++) words[values[i] >>> 6] |= 1L << values[i];
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, card), card);
+        }
+
+        @Override
+        int serializedSize() {
+            return 2 + 2 * card;
+        }
+
+        @Override
+        void write(ByteBuffer buf) {
+            buf.put(ARRAY);
+            buf.putChar((char) card);
+            for (int i = 0; i < card; i++) buf.putChar(values[i]);
+        }
+
+        /** Merges two sorted arrays */
+        ArrayContainer union(ArrayContainer other) {
+            var res = new char[card + other.card];
+            int i = 0, j = 0, n = 0;
+            while (i < card && j < other.card) {
+                char a = values[i], b = other.values[j];
+                if (a <= b) i++;
+                if (b <= a) j++;
+                res[n++] = a <= b ? a : b;
+            }
+            while (i < card) res[n++] = values[i++];
+            while (j < other.card) res[n++] = other.values[j++];
+            return new ArrayContainer(res, n);
+        }
+
+        /** Keeps only values which are (or are not) present in other container */
+        ArrayContainer filter(Container other, boolean isPresent) {
+            var res = new char[card];
+            int n = 0;
+            for (int i = 0; i < card; i++) {
+                if (other.contains(values[i]) == isPresent) res[n++] = values[i];
+            }
+            return n == 0 ? null : new ArrayContainer(res, n);
+        }
+    }
+
+    private static class BitmapContainer extends Container {
+        private long[] words;
+        private int card;
+
+        BitmapContainer(long[] words) {
+            this(words, Arrays.stream(words).mapToInt(Long::bitCount).sum());
+        }
+
+        BitmapContainer(long[] words, int card) {
+            this.words = words;
+            this.card = card;
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        boolean contains(int x) {
+            return (words[x >>> 6] & (1L << x)) != 0;
+        }
+
+        @Override
+        Container add(int x) {
+            if (contains(x)) return this;
+            words[x >>> 6] |= 1L << x;
+            card++;
+            return this;
+        }
+
+        @Override
+        Container remove(int x) {
+            if (!contains(x)) return this;
+            words[x >>> 6] &= ~(1L << x);
+            card--;
+            if (card <= ARRAY_MAX_SIZE) return ArrayContainer.fromWords(words, card);
+            return this;
+        }
+
+        @Override
+        int next(int x) {
+            return nextSetBit(words, x);
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < words.length; i++) {
+                long w = words[i];
+                while (w != 0) {
+                    action.accept(base | ((i << 6) + Long.numberOfTrailingZeros(w)));
+                    w &= w - 1;
+                }
+            }
+        }
+
+        @Override
+        void orInto(long[] words) {
+            for (int i = 0; i < words.length; i++) words[i] |= this.words[i];
+        }
+
+        @Override
+        long[] words() {
+            return words.clone();
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), card);
+        }
+
+        @Override
+        int serializedSize() {
+            return BITMAP_BYTES;
+        }
+
+        @Override
+        void write(ByteBuffer buf) {
+            buf.put(BITMAP);
+            for (long w : words) buf.putLong(w);
+        }
+    }
+
+    /** Keeps pairs of [start, length - 1] */
+    private static class RunContainer extends Container {
+        private char[] runs;
+        private int n;
+        private int card;
+
+        RunContainer(char[] runs, int n) {
+            this.runs = runs;
+            this.n = n;
+            for (int i = 0; i < n; i++) card += runs[2 * i + 1] + 1;
+        }
+
+        static RunContainer full() {
+            return new RunContainer(new char[] {0, CHUNK_SIZE - 1}, 1);
+        }
+
+        static int bytes(int numberOfRuns) {
+            return 2 + 4 * numberOfRuns;
+        }
+
+        static RunContainer fromWords(long[] words, int numberOfRuns) {
+            var runs = new char[2 * numberOfRuns];
+            int n = 0;
+            int start = nextSetBit(words, 0);
+            while (start != -1) {
+                int end = nextClearBit(words, start);
+                runs[2 * n] = (char) start;
+                runs[2 * n + 1] = (char) (end - start - 1);
+                n++;
+                start = nextSetBit(words, end);
+            }
+            return new RunContainer(runs, n);
+        }
+
+        private int start(int i) {
+            return runs[2 * i];
+        }
+
+        private int end(int i) {
+            return runs[2 * i] + runs[2 * i + 1];
+        }
+
+        /** Returns index of the last run which starts before or at x, or -1 */
+        private int find(int x) {
+            int lo = 0, hi = n - 1, res = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (start(mid) <= x) {
+                    res = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return res;
+        }
+
+        private void insertRun(int i, int start, int length) {
+            if (2 * n == runs.length) runs = Arrays.copyOf(runs, Math.max(4, runs.length * 2));
+            System.arraycopy(runs, 2 * i, runs, 2 * i + 2, 2 * (n - i));
+            runs[2 * i] = (char) start;
+            runs[2 * i + 1] = (char) length;
+            n++;
+        }
+
+        private void removeRun(int i) {
+            System.arraycopy(runs, 2 * i + 2, runs, 2 * i, 2 * (n - i - 1));
+            n--;
+        }
+
+        /** Converts to other container if runs do not save memory anymore */
+        private Container compact() {
+            int arrayBytes = card <= ARRAY_MAX_SIZE ? 2 * card : Integer.MAX_VALUE;
+            if (bytes(n) < Math.min(arrayBytes, BITMAP_BYTES)) return this;
+            return toOtherContainer(words(), card);
+        }
+
+        private static Container toOtherContainer(long[] words, int card) {
+            if (card <= ARRAY_MAX_SIZE) return ArrayContainer.fromWords(words, card);
+            return new BitmapContainer(words, card);
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        boolean contains(int x) {
+            int i = find(x);
+            return i >= 0 && x <= end(i);
+        }
+
+        @Override
+        Container add(int x) {
+            int i = find(x);
+            if (i >= 0 && x <= end(i)) return this;
+            card++;
+            boolean joinsPrev = i >= 0 && end(i) + 1 == x;
+            boolean joinsNext = i + 1 < n && start(i + 1) == x + 1;
+            if (joinsPrev && joinsNext) {
+                runs[2 * i + 1] = (char) (end(i + 1) - start(i));
+                removeRun(i + 1);
+            } else if (joinsPrev) {
+                runs[2 * i + 1]++;
+            } else if (joinsNext) {
+                runs[2 * i + 2]--;
+                runs[2 * i + 3]++;
+            } else {
+                insertRun(i + 1, x, 0);
+            }
+            return compact();
+        }
+
+        @Override
+        Container remove(int x) {
+            int i = find(x);
+            if (i < 0 || x > end(i)) return this;
+            if (card == 1) return null;
+            card--;
+            int start = start(i), end = end(i);
+            if (start == end) {
+                removeRun(i);
+            } else if (x == start) {
+                runs[2 * i]++;
+                runs[2 * i + 1]--;
+            } else if (x == end) {
+                runs[2 * i + 1]--;
+            } else {
+                runs[2 * i + 1] = (char) (x - 1 - start);
+                insertRun(i + 1, x + 1, end - x - 1);
+            }
+            return compact();
+        }
+
+        @Override
+        int next(int x) {
+            if (x >= CHUNK_SIZE) return -1;
+            int i = find(x);
+            if (i >= 0 && x <= end(i)) return x;
+            return i + 1 < n ? start(i + 1) : -1;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < n; i++) {
+                for (int x = start(i), end = end(i); x <= end; x++) action.accept(base | x);
+            }
+        }
+
+        @Override
+        void orInto(long[] words) {
+            for (int i = 0; i < n; i++) setRange(words, start(i), end(i) + 1);
+        }
+
+        @Override
+        Container copy() {
+            return new RunContainer(Arrays.copyOf(runs, 2 * n), n);
+        }
+
+        @Override
+        int serializedSize() {
+            return 2 + 4 * n;
+        }
+
+        @Override
+        void write(ByteBuffer buf) {
+            buf.put(RUN);
+            buf.putChar((char) n);
+            for (int i = 0; i < 2 * n; i++) buf.putChar(runs[i]);
+        }
+    }
+}
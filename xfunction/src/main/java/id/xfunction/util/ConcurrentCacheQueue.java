@@ -0,0 +1,320 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.util;
+
+import id.xfunction.Preconditions;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thread safe version of {@link CacheQueue} with segmented LRU eviction.
+ *
+ * <p>Instead of guarding single {@link LinkedHashMap} with one global lock, items are distributed
+ * by their {@link Object#hashCode()} between independent segments. Each segment is a small access
+ * ordered {@link LinkedHashMap} with its own lock so threads which add different items rarely
+ * contend with each other. There is no state shared between the segments.
+ *
+ * <ul>
+ *   <li>{@link #add(Object)}, {@link #contains(Object)}, {@link #remove(Object)} are O(1) and lock
+ *       only one segment
+ *   <li>{@link #add(Object)} of an existing item and {@link #contains(Object)} which finds the item
+ *       mark it as recently used
+ *   <li>does not allow duplicates (requires {@link Object#equals(Object)}, {@link
+ *       Object#hashCode()})
+ *   <li>never exceed its defined maximum size
+ *   <li>iteration returns items from least recently used to most recently used
+ * </ul>
+ *
+ * <p>Since every segment evicts its own least recently used item, the item which is removed is the
+ * least recently used one only within its segment and not necessarily within the whole queue. For
+ * small queues (less than 16 items per segment) only one segment is used so the eviction order is
+ * exactly the same as in {@link CacheQueue} with {@link CacheQueue.EvictionPolicy#LRU} policy.
+ *
+ * <p>To order items from different segments during iteration each item keeps the {@link
+ * System#nanoTime()} of its last use. Items used at the same nanosecond in different segments may
+ * be returned in any order. Reading the clock is the main overhead of multiple segments compared to
+ * the single one (where clock is not used) so they pay off only when the queue is contended by
+ * several cores.
+ *
+ * <p>Same as {@link CacheQueue} it counts hits, misses and evictions. Counters are kept per segment
+ * and updated under the segment lock so they do not introduce any additional contention.
+ *
+ * <p>Iterators are weakly consistent: they operate over the snapshot of the queue taken at the
+ * moment when iterator was created and do not support {@link Iterator#remove()}.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ConcurrentCacheQueue<T> implements Collection<T> {
+
+    private static final int MIN_SEGMENT_SIZE = 16;
+
+    private final Segment<T>[] segments;
+    private final int segmentShift;
+
+    /**
+     * Each segment is ordered by access and keeps the time of the last use of the item so that
+     * items from different segments can be put back in order.
+     */
+    private static class Segment<T> extends LinkedHashMap<T, Stamp> {
+        private static final long serialVersionUID = 1L;
+        private final int maxSize;
+        private long hitCount, missCount, evictionCount;
+
+        Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<T, Stamp> eldest) {
+            if (size() <= maxSize) return false;
+            evictionCount++;
+            return true;
+        }
+    }
+
+    /**
+     * Time of the last use of the item. It is updated in place so that hits do not allocate
+     * anything.
+     */
+    private static class Stamp {
+        long nanos;
+
+        Stamp(long nanos) {
+            this.nanos = nanos;
+        }
+    }
+
+    /** Creates queue with concurrency level equal to number of available processors */
+    public ConcurrentCacheQueue(int maxSize) {
+        this(maxSize, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param concurrencyLevel estimated number of threads which will be modifying the queue
+     *     concurrently
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentCacheQueue(int maxSize, int concurrencyLevel) {
+        Preconditions.isTrue(maxSize > 0, "Max size should be positive");
+        Preconditions.isTrue(concurrencyLevel > 0, "Concurrency level should be positive");
+        // number of segments is a power of two not greater than concurrencyLevel and each segment
+        // should be able to hold at least MIN_SEGMENT_SIZE items
+        int n =
+                Integer.highestOneBit(
+                        Math.max(1, Math.min(concurrencyLevel, maxSize / MIN_SEGMENT_SIZE)));
+        segments = new Segment[n];
+        for (int i = 0; i < n; i++) {
+            // distribute remainder between first segments so that total size is equal to maxSize
+            segments[i] = new Segment<>(maxSize / n + (i < maxSize % n ? 1 : 0));
+        }
+        segmentShift = 32 - Integer.numberOfTrailingZeros(n);
+    }
+
+    private Segment<T> segmentFor(Object o) {
+        if (segments.length == 1) return segments[0];
+        int h = o == null ? 0 : o.hashCode();
+        // segments are selected by the higher bits of the mixed hash because lower bits are used
+        // by the LinkedHashMap of the segment itself
+        return segments[(h * 0x9E3779B9) >>> segmentShift];
+    }
+
+    /**
+     * Returns statistics accumulated since queue was created or since {@link #resetStats()}
+     *
+     * @see CacheQueue#getStats()
+     */
+    public CacheQueue.Stats getStats() {
+        long hitCount = 0, missCount = 0, evictionCount = 0;
+        for (var s : segments) {
+            synchronized (s) {
+                hitCount += s.hitCount;
+                missCount += s.missCount;
+                evictionCount += s.evictionCount;
+            }
+        }
+        return new CacheQueue.Stats(hitCount, missCount, evictionCount);
+    }
+
+    public void resetStats() {
+        for (var s : segments) {
+            synchronized (s) {
+                s.hitCount = s.missCount = s.evictionCount = 0;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (var s : segments) {
+            synchronized (s) {
+                size += s.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (var s : segments) {
+            synchronized (s) {
+                if (!s.isEmpty()) return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        var s = segmentFor(o);
+        var now = stamp();
+        synchronized (s) {
+            // get moves the item to the tail of the access ordered segment
+            var stamp = s.get(o);
+            if (stamp == null) {
+                s.missCount++;
+                return false;
+            }
+            stamp.nanos = now;
+            s.hitCount++;
+            return true;
+        }
+    }
+
+    @Override
+    public boolean add(T e) {
+        var s = segmentFor(e);
+        var now = stamp();
+        synchronized (s) {
+            // get moves the item to the tail of the access ordered segment
+            var stamp = s.get(e);
+            if (stamp != null) {
+                stamp.nanos = now;
+                s.hitCount++;
+                return false;
+            }
+            s.put(e, new Stamp(now));
+            s.missCount++;
+            return true;
+        }
+    }
+
+    /** Single segment is already ordered so there is no need to read the clock */
+    private long stamp() {
+        return segments.length == 1 ? 0 : System.nanoTime();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        var s = segmentFor(o);
+        synchronized (s) {
+            return s.remove(o) != null;
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (var s : segments) {
+            synchronized (s) {
+                s.clear();
+            }
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return snapshot().iterator();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return snapshot().toArray();
+    }
+
+    @Override
+    public <E> E[] toArray(E[] a) {
+        return snapshot().toArray(a);
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for (var o : c) {
+            var s = segmentFor(o);
+            synchronized (s) {
+                // same as Collection#contains it does not change the order
+                if (!s.containsKey(o)) return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        boolean isChanged = false;
+        for (var e : c) {
+            isChanged |= add(e);
+        }
+        return isChanged;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        boolean isChanged = false;
+        for (var o : c) {
+            isChanged |= remove(o);
+        }
+        return isChanged;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    /** Returns all items ordered by the time they were used */
+    private List<T> snapshot() {
+        if (segments.length == 1) {
+            synchronized (segments[0]) {
+                return Collections.unmodifiableList(new ArrayList<>(segments[0].keySet()));
+            }
+        }
+        var entries = new ArrayList<Map.Entry<T, Long>>();
+        for (var s : segments) {
+            synchronized (s) {
+                for (var e : s.entrySet())
+                    entries.add(new SimpleImmutableEntry<>(e.getKey(), e.getValue().nanos));
+            }
+        }
+        entries.sort(Map.Entry.comparingByValue());
+        var res = new ArrayList<T>(entries.size());
+        for (var e : entries) res.add(e.getKey());
+        return Collections.unmodifiableList(res);
+    }
+}
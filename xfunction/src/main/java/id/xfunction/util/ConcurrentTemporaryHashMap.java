@@ -0,0 +1,529 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.util;
+
+import id.xfunction.Preconditions;
+import java.time.Duration;
+import java.util.AbstractCollection;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Thread safe version of {@link TemporaryHashMap} which in addition supports per entry expiration
+ * periods and removal listeners.
+ *
+ * <p>Entries are stored in {@link ConcurrentHashMap} so all read operations are lock free. Expired
+ * entries are never returned: each read checks the expiration time of the entry and removes it if
+ * it is expired.
+ *
+ * <p>To reclaim expired entries which are not accessed anymore, their expiration times are tracked
+ * by hierarchical timing wheels. Every write operation advances the timing wheel and removes
+ * expired entries in amortized O(1). To remove expired entries when there are no writes, users can
+ * setup {@link java.util.concurrent.ScheduledExecutorService} to call {@link #cleanupExpired()}.
+ *
+ * <p>Timing wheels are distributed between independent segments (each with its own lock) based on
+ * the hash of the key so threads which update different keys rarely contend with each other.
+ *
+ * <p>Same as in {@link TemporaryHashMap}, replacing value with {@link #put(Object, Object)} does
+ * not affect the expiration time of the key. Use {@link #put(Object, Object, Duration)} to change
+ * it.
+ *
+ * <p>{@link #size()} may include expired entries which are not removed yet.
+ *
+ * <p>Null keys and values are not allowed.
+ *
+ * <p>Views ({@link #keySet()}, {@link #values()}, {@link #entrySet()}) are unmodifiable and weakly
+ * consistent.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ConcurrentTemporaryHashMap<K, V> implements Map<K, V> {
+
+    /**
+     * Timing wheel levels. Each tick of the level i is 2^SHIFTS[i] milliseconds (64ms, 4s, 4.4min,
+     * 4.6h, 12.4d).
+     */
+    private static final int[] SHIFTS = {6, 12, 18, 24, 30};
+
+    /** Number of buckets on each level. Last level keeps all entries which do not fit the others */
+    private static final int[] BUCKETS = {64, 64, 64, 64, 1};
+
+    public static enum RemovalCause {
+        /** Entry expired */
+        EXPIRED,
+
+        /** Entry was removed by the user */
+        REMOVED
+    }
+
+    @FunctionalInterface
+    public static interface RemovalListener<K, V> {
+        void onRemoval(K key, V value, RemovalCause cause);
+    }
+
+    private final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<>();
+    private final List<RemovalListener<K, V>> listeners = new CopyOnWriteArrayList<>();
+    private final Segment<K, V>[] segments;
+    private final int segmentShift;
+    private final long periodMillis;
+
+    /** Creates map with concurrency level equal to number of available processors */
+    public ConcurrentTemporaryHashMap(Duration period) {
+        this(period, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param period default expiration period for all entries
+     * @param concurrencyLevel estimated number of threads which will be modifying the map
+     *     concurrently
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentTemporaryHashMap(Duration period, int concurrencyLevel) {
+        Preconditions.isTrue(!period.isNegative(), "Negative period");
+        Preconditions.isTrue(concurrencyLevel > 0, "Concurrency level should be positive");
+        periodMillis = period.toMillis();
+        int n = Integer.highestOneBit(concurrencyLevel);
+        segments = new Segment[n];
+        for (int i = 0; i < n; i++) segments[i] = new Segment<>();
+        segmentShift = 32 - Integer.numberOfTrailingZeros(n);
+    }
+
+    /**
+     * Register listener which is called when entries are expired or removed. Listeners are called
+     * in the thread which removed the entry and they are never called under any lock.
+     *
+     * <p>Removal of entries by {@link #clear()} does not trigger listeners.
+     */
+    public void addRemovalListener(RemovalListener<K, V> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        for (var s : segments) {
+            synchronized (s) {
+                s.clear();
+            }
+        }
+        map.clear();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return values().contains(value);
+    }
+
+    @Override
+    public V get(Object key) {
+        while (true) {
+            var node = map.get(key);
+            if (node == null) return null;
+            var value = node.value;
+            if (node.expiresAt > currentTimeMillis()) return value;
+            if (expire(node)) return null;
+            // pair was renewed or removed concurrently, read it again
+        }
+    }
+
+    /** Adds pair with default expiration period. */
+    @Override
+    public V put(K key, V value) {
+        return put(key, value, periodMillis, false);
+    }
+
+    /**
+     * Adds pair with the given expiration period. If key is already present then its expiration
+     * period is updated as well.
+     *
+     * <p>Pair with zero period expires right away: it is not kept in the map (previous pair with
+     * the same key is removed) and removal listeners are called with {@link RemovalCause#EXPIRED}.
+     */
+    public V put(K key, V value, Duration period) {
+        Preconditions.isTrue(!period.isNegative(), "Negative period");
+        return put(key, value, period.toMillis(), true);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        for (var e : m.entrySet()) {
+            put(e.getKey(), e.getValue());
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        var seg = segmentFor(key);
+        List<Node<K, V>> expired = newListOrNull();
+        Node<K, V> node;
+        boolean isExpired = false;
+        synchronized (seg) {
+            long now = currentTimeMillis();
+            seg.advance(now, map, expired);
+            node = map.remove(key);
+            if (node != null) {
+                seg.unlink(node);
+                isExpired = node.expiresAt <= now;
+            }
+        }
+        notifyListeners(expired, RemovalCause.EXPIRED);
+        if (node == null) return null;
+        notifyListener(node, isExpired ? RemovalCause.EXPIRED : RemovalCause.REMOVED);
+        return isExpired ? null : node.value;
+    }
+
+    /** Returns unmodifiable view of the keys which are not expired */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<K> iterator() {
+                return new NodeIterator<>(map.values().iterator(), n -> n.key);
+            }
+
+            @Override
+            public int size() {
+                return map.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+        };
+    }
+
+    /** Returns unmodifiable view of the values which are not expired */
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new NodeIterator<>(map.values().iterator(), n -> n.value);
+            }
+
+            @Override
+            public int size() {
+                return map.size();
+            }
+        };
+    }
+
+    /** Returns unmodifiable view of the pairs which are not expired */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new NodeIterator<>(
+                        map.values().iterator(), n -> new SimpleImmutableEntry<>(n.key, n.value));
+            }
+
+            @Override
+            public int size() {
+                return map.size();
+            }
+        };
+    }
+
+    /** Removes all expired pairs */
+    public void cleanupExpired() {
+        long now = currentTimeMillis();
+        for (var seg : segments) {
+            List<Node<K, V>> expired = newListOrNull();
+            synchronized (seg) {
+                seg.advance(now, map, expired);
+                seg.expireCurrentBucket(map, expired);
+            }
+            notifyListeners(expired, RemovalCause.EXPIRED);
+        }
+    }
+
+    @Override
+    public String toString() {
+        var iter = entrySet().iterator();
+        var buf = new StringBuilder("{");
+        while (iter.hasNext()) {
+            var e = iter.next();
+            buf.append(e.getKey()).append('=').append(e.getValue());
+            if (iter.hasNext()) buf.append(", ");
+        }
+        return buf.append('}').toString();
+    }
+
+    /** Visible for testing */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private V put(K key, V value, long period, boolean updatePeriod) {
+        Preconditions.notNull(key, "Null keys are not allowed");
+        Preconditions.notNull(value, "Null values are not allowed");
+        var seg = segmentFor(key);
+        List<Node<K, V>> expired = newListOrNull();
+        V prev = null;
+        // pair which expired right away because of zero period
+        Node<K, V> expiredNow = null;
+        synchronized (seg) {
+            long now = currentTimeMillis();
+            seg.advance(now, map, expired);
+            var node = map.get(key);
+            if (node != null && node.expiresAt <= now) {
+                map.remove(key, node);
+                seg.unlink(node);
+                if (expired != null) expired.add(node);
+                node = null;
+            }
+            if (node != null) {
+                prev = node.value;
+                node.value = value;
+                if (updatePeriod) {
+                    seg.unlink(node);
+                    node.expiresAt = now + period;
+                    if (period == 0) {
+                        map.remove(key, node);
+                        expiredNow = node;
+                    } else {
+                        seg.schedule(node);
+                    }
+                }
+            } else if (period > 0) {
+                node = new Node<>(key, value, now + period);
+                map.put(key, node);
+                seg.schedule(node);
+            } else if (expired != null) {
+                expiredNow = new Node<>(key, value, now);
+            }
+        }
+        notifyListeners(expired, RemovalCause.EXPIRED);
+        if (expiredNow != null) notifyListener(expiredNow, RemovalCause.EXPIRED);
+        return prev;
+    }
+
+    /**
+     * Removes the node if it is still expired. Expiration is checked again under the segment lock
+     * because node could be renewed in place by {@link #put(Object, Object, Duration)}.
+     *
+     * @return false if node was not expired or it was already removed
+     */
+    private boolean expire(Node<K, V> node) {
+        var seg = segmentFor(node.key);
+        synchronized (seg) {
+            if (node.expiresAt > currentTimeMillis()) return false;
+            if (!map.remove(node.key, node)) return false;
+            seg.unlink(node);
+        }
+        notifyListener(node, RemovalCause.EXPIRED);
+        return true;
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        if (segments.length == 1) return segments[0];
+        // segments are selected by the higher bits of the mixed hash because lower bits are used
+        // by the hash map itself
+        return segments[(key.hashCode() * 0x9E3779B9) >>> segmentShift];
+    }
+
+    private List<Node<K, V>> newListOrNull() {
+        return listeners.isEmpty() ? null : new ArrayList<>();
+    }
+
+    private void notifyListeners(List<Node<K, V>> nodes, RemovalCause cause) {
+        if (nodes == null) return;
+        for (var node : nodes) notifyListener(node, cause);
+    }
+
+    private void notifyListener(Node<K, V> node, RemovalCause cause) {
+        for (var l : listeners) l.onRemoval(node.key, node.value, cause);
+    }
+
+    private static class Node<K, V> {
+        final K key;
+        volatile V value;
+        volatile long expiresAt;
+
+        /** Links of the timing wheel bucket, guarded by the segment lock */
+        Node<K, V> prev, next;
+
+        Node(K key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        /** Creates sentinel node of the bucket */
+        Node() {
+            this(null, null, 0);
+            prev = next = this;
+        }
+    }
+
+    /**
+     * Hierarchical timing wheel. Each bucket is a doubly linked list of nodes which expire during
+     * its tick. Buckets of the levels other than 0 are cascaded to the lower levels once their tick
+     * comes.
+     */
+    private static class Segment<K, V> {
+        private final Node<K, V>[][] wheel;
+
+        /** Time up to which the wheel was advanced */
+        private long time;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Segment() {
+            wheel = new Node[BUCKETS.length][];
+            for (int i = 0; i < BUCKETS.length; i++) {
+                wheel[i] = new Node[BUCKETS[i]];
+                for (int j = 0; j < BUCKETS[i]; j++) wheel[i][j] = new Node<>();
+            }
+        }
+
+        void schedule(Node<K, V> node) {
+            var sentinel = findBucket(node.expiresAt);
+            node.prev = sentinel.prev;
+            node.next = sentinel;
+            sentinel.prev.next = node;
+            sentinel.prev = node;
+        }
+
+        void unlink(Node<K, V> node) {
+            if (node.next == null) return;
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = node.next = null;
+        }
+
+        void clear() {
+            for (var level : wheel) {
+                for (var sentinel : level) sentinel.prev = sentinel.next = sentinel;
+            }
+        }
+
+        /**
+         * Processes all buckets whose ticks passed since the last call. Expired nodes are removed
+         * from the map, others are scheduled again (cascaded to the lower levels).
+         */
+        void advance(long now, Map<K, Node<K, V>> map, List<Node<K, V>> expired) {
+            long prevTime = time;
+            if (now <= prevTime) return;
+            time = now;
+            for (int i = 0; i < SHIFTS.length; i++) {
+                long prevTicks = prevTime >>> SHIFTS[i];
+                long delta = (now >>> SHIFTS[i]) - prevTicks;
+                if (delta <= 0) break;
+                var level = wheel[i];
+                int steps = (int) Math.min(1 + delta, level.length);
+                for (int j = 0; j < steps; j++) {
+                    expireBucket(level[(int) ((prevTicks + j) & (level.length - 1))], map, expired);
+                }
+            }
+        }
+
+        /** Processes bucket with the current tick which is not finished yet */
+        void expireCurrentBucket(Map<K, Node<K, V>> map, List<Node<K, V>> expired) {
+            var level = wheel[0];
+            expireBucket(level[(int) ((time >>> SHIFTS[0]) & (level.length - 1))], map, expired);
+        }
+
+        private void expireBucket(
+                Node<K, V> sentinel, Map<K, Node<K, V>> map, List<Node<K, V>> expired) {
+            var node = sentinel.next;
+            sentinel.prev = sentinel.next = sentinel;
+            while (node != sentinel) {
+                var next = node.next;
+                node.prev = node.next = null;
+                if (node.expiresAt > time) {
+                    schedule(node);
+                } else if (map.remove(node.key, node) && expired != null) {
+                    expired.add(node);
+                }
+                node = next;
+            }
+        }
+
+        private Node<K, V> findBucket(long expiresAt) {
+            long duration = expiresAt - time;
+            for (int i = 0; i < SHIFTS.length - 1; i++) {
+                if (duration < (1L << SHIFTS[i + 1])) {
+                    var level = wheel[i];
+                    return level[(int) ((expiresAt >>> SHIFTS[i]) & (level.length - 1))];
+                }
+            }
+            return wheel[SHIFTS.length - 1][0];
+        }
+    }
+
+    /** Iterates over nodes which are not expired */
+    private class NodeIterator<T> implements Iterator<T> {
+        private final Iterator<Node<K, V>> iter;
+        private final Function<Node<K, V>, T> mapper;
+        private final long now = currentTimeMillis();
+        private Node<K, V> next;
+
+        NodeIterator(Iterator<Node<K, V>> iter, Function<Node<K, V>, T> mapper) {
+            this.iter = iter;
+            this.mapper = mapper;
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null && iter.hasNext()) {
+                var node = iter.next();
+                if (node.expiresAt > now) next = node;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) throw new NoSuchElementException();
+            var res = mapper.apply(next);
+            advance();
+            return res;
+        }
+    }
+}
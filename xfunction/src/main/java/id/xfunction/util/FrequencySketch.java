@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.util;
+
+/**
+ * Count-Min sketch which estimates how often items were seen.
+ *
+ * <p>Each item is mapped to 4 counters of 4 bits each. Estimated frequency is the minimum of them
+ * so it can only be greater than the real one (because of the hash collisions) and never exceeds
+ * 15.
+ *
+ * <p>After the number of increments reaches 10 times the expected number of items all counters are
+ * halved. This way the sketch forgets items which were popular long time ago.
+ *
+ * <p>Used by {@link CacheQueue.EvictionPolicy#TINY_LFU}
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+class FrequencySketch {
+
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    // every long keeps 16 counters
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int size;
+
+    /**
+     * @param expectedSize expected number of distinct items which are going to be tracked
+     */
+    FrequencySketch(int expectedSize) {
+        int len = Integer.highestOneBit(Math.max(8, Math.min(expectedSize, 1 << 24) - 1) << 1);
+        table = new long[len];
+        tableMask = len - 1;
+        sampleSize = (int) Math.min(10L * Math.max(expectedSize, 1), Integer.MAX_VALUE);
+    }
+
+    /** Returns estimated number of times item was seen, between 0 and 15 */
+    int frequency(Object item) {
+        int hash = spread(item);
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    void increment(Object item) {
+        int hash = spread(item);
+        int start = (hash & 3) << 2;
+        boolean isIncremented = false;
+        for (int i = 0; i < 4; i++) {
+            isIncremented |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (isIncremented && ++size == sampleSize) reset();
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) == mask) return false;
+        table[index] += 1L << offset;
+        return true;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size /= 2;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private static int spread(Object item) {
+        int h = item == null ? 0 : item.hashCode();
+        h = ((h >>> 16) ^ h) * 0x45d9f3b;
+        h = ((h >>> 16) ^ h) * 0x45d9f3b;
+        return (h >>> 16) ^ h;
+    }
+}
@@ -18,15 +18,23 @@
 package id.xfunction.util;
 
 import id.xfunction.XJson;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.RandomAccess;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -38,13 +46,128 @@ import java.util.stream.Stream;
  * ImmutableMultiMap.of(1, "a", 2, "b", 1, "c")
  * }</pre>
  *
+ * <p>Larger maps can be created with {@link Builder} or collected from the stream with {@link
+ * #toImmutableMultiMap(Function, Function)}.
+ *
+ * <p>All pairs are stored in flat arrays: keys in insertion order, values grouped by key in one
+ * array and offsets of each key group inside of it. Keys are looked up through open addressing hash
+ * table of key indices. Lists returned by {@link #get(Object)} are unmodifiable views over the
+ * values array, no values are copied.
+ *
  * @author lambdaprime intid@protonmail.com
  */
 public class ImmutableMultiMap<K, V> implements Iterable<Entry<K, List<V>>> {
 
-    private static final ImmutableMultiMap<?, ?> EMPTY = new ImmutableMultiMap();
+    private static final ImmutableMultiMap<?, ?> EMPTY =
+            new ImmutableMultiMap<>(new Object[0], new int[1], new Object[0], new int[1]);
+
+    /** Distinct keys in insertion order */
+    private final Object[] keys;
+
+    /** Values of the key i are stored between [offsets[i], offsets[i + 1]) */
+    private final int[] offsets;
+
+    private final Object[] values;
+
+    /** Open addressing hash table of key indices (index + 1, 0 means empty slot) */
+    private final int[] table;
+
+    /**
+     * Builder which collects all pairs in a single pass and then groups them by key without
+     * allocating any per key collections.
+     */
+    public static class Builder<K, V> {
+        private Object[] keys;
+        private int[] table;
+        private int keyCount;
+
+        /** Key index and value of each pair in the order they were added */
+        private int[] pairKeys;
+
+        private Object[] pairValues;
+        private int pairCount;
+
+        /** Number of values for each key */
+        private int[] counts;
+
+        public Builder() {
+            this(8);
+        }
+
+        /**
+         * @param expectedSize expected number of pairs
+         */
+        public Builder(int expectedSize) {
+            int capacity = Math.max(1, expectedSize);
+            keys = new Object[capacity];
+            counts = new int[capacity];
+            pairKeys = new int[capacity];
+            pairValues = new Object[capacity];
+            table = new int[Integer.highestOneBit(capacity) * 4];
+        }
+
+        public Builder<K, V> put(K key, V value) {
+            int keyIndex = findOrAddKey(key);
+            if (pairCount == pairKeys.length) {
+                pairKeys = Arrays.copyOf(pairKeys, pairCount * 2);
+                pairValues = Arrays.copyOf(pairValues, pairCount * 2);
+            }
+            pairKeys[pairCount] = keyIndex;
+            pairValues[pairCount++] = value;
+            counts[keyIndex]++;
+            return this;
+        }
 
-    private final Map<K, List<V>> map;
+        public Builder<K, V> putAll(K key, Iterable<? extends V> values) {
+            for (var v : values) put(key, v);
+            return this;
+        }
+
+        public Builder<K, V> putAll(Iterable<? extends Entry<? extends K, ? extends V>> entries) {
+            for (var e : entries) put(e.getKey(), e.getValue());
+            return this;
+        }
+
+        /** Adds all pairs from other builder to this one */
+        @SuppressWarnings("unchecked")
+        public Builder<K, V> putAll(Builder<K, V> other) {
+            for (int i = 0; i < other.pairCount; i++) {
+                put((K) other.keys[other.pairKeys[i]], (V) other.pairValues[i]);
+            }
+            return this;
+        }
+
+        public ImmutableMultiMap<K, V> build() {
+            if (pairCount == 0) return of();
+            var offsets = new int[keyCount + 1];
+            for (int i = 0; i < keyCount; i++) offsets[i + 1] = offsets[i] + counts[i];
+            // stable counting sort of values by their keys
+            var pos = Arrays.copyOf(offsets, keyCount);
+            var values = new Object[pairCount];
+            for (int i = 0; i < pairCount; i++) values[pos[pairKeys[i]]++] = pairValues[i];
+            return new ImmutableMultiMap<>(
+                    Arrays.copyOf(keys, keyCount), offsets, values, table.clone());
+        }
+
+        private int findOrAddKey(K key) {
+            int mask = table.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                int slot = table[i];
+                if (slot == 0) break;
+                if (Objects.equals(keys[slot - 1], key)) return slot - 1;
+            }
+            if (keyCount == keys.length) {
+                keys = Arrays.copyOf(keys, keyCount * 2);
+                counts = Arrays.copyOf(counts, keyCount * 2);
+            }
+            keys[keyCount] = key;
+            keyCount++;
+            // keep load factor below 0.5
+            if (keyCount * 2 > table.length) table = newTable(keys, keyCount);
+            else insert(table, key, keyCount - 1);
+            return keyCount - 1;
+        }
+    }
 
     public static <K1, V1> ImmutableMultiMap<K1, V1> of() {
         return (ImmutableMultiMap<K1, V1>) EMPTY;
@@ -161,88 +284,192 @@ public class ImmutableMultiMap<K, V> implements Iterable<Entry<K, List<V>>> {
     }
 
     public ImmutableMultiMap(ImmutableMultiMap<K, V> other) {
-        this.map = other.map;
+        keys = other.keys;
+        offsets = other.offsets;
+        values = other.values;
+        table = other.table;
     }
 
     public ImmutableMultiMap(Iterable<Map.Entry<K, V>> entries) {
-        var tmpMap = new LinkedHashMap<K, List<V>>();
-        for (var e : entries) {
-            var values = tmpMap.get(e.getKey());
-            if (values == null) {
-                values = new ArrayList<>();
-                tmpMap.put(e.getKey(), values);
-            }
-            values.add(e.getValue());
-        }
-        map = new LinkedHashMap<>();
-        tmpMap.entrySet().stream().forEach(e -> map.put(e.getKey(), List.copyOf(e.getValue())));
+        this(
+                new Builder<K, V>(
+                                entries instanceof Collection
+                                        ? ((Collection<?>) entries).size()
+                                        : 8)
+                        .putAll(entries)
+                        .build());
     }
 
     public ImmutableMultiMap(Map.Entry<K, V>... entries) {
         this(Arrays.asList(entries));
     }
 
+    private ImmutableMultiMap(Object[] keys, int[] offsets, Object[] values, int[] table) {
+        this.keys = keys;
+        this.offsets = offsets;
+        this.values = values;
+        this.table = table;
+    }
+
+    /**
+     * Returns {@link Collector} which accumulates elements into {@link ImmutableMultiMap} whose
+     * keys and values are the result of applying the provided mapping functions to the input
+     * elements. Values of each key are kept in the encounter order.
+     */
+    public static <T, K, V> Collector<T, ?, ImmutableMultiMap<K, V>> toImmutableMultiMap(
+            Function<? super T, ? extends K> keyMapper,
+            Function<? super T, ? extends V> valueMapper) {
+        return Collector.of(
+                Builder<K, V>::new,
+                (b, t) -> b.put(keyMapper.apply(t), valueMapper.apply(t)),
+                Builder::putAll,
+                Builder::build);
+    }
+
+    /** Returns unmodifiable view of the values for the given key, or empty list if none */
     public List<V> get(K key) {
-        var values = map.get(key);
-        if (values == null) return List.of();
-        return values;
+        int i = indexOf(key);
+        if (i < 0) return List.of();
+        return new ValuesList<>(values, offsets[i], offsets[i + 1]);
     }
 
     public boolean containsKey(K key) {
-        return map.containsKey(key);
+        return indexOf(key) >= 0;
+    }
+
+    /** Number of keys */
+    public int size() {
+        return keys.length;
     }
 
     @Override
     public String toString() {
-        return map.toString();
+        var buf = new StringBuilder("{");
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) buf.append(", ");
+            buf.append(keys[i]).append('=').append(valuesOf(i));
+        }
+        return buf.append('}').toString();
     }
 
     public String toJsonString() {
+        var map = new LinkedHashMap<K, List<V>>();
+        for (int i = 0; i < keys.length; i++) map.put(keyOf(i), valuesOf(i));
         return XJson.asString(map);
     }
 
+    @SuppressWarnings("unchecked")
     public Optional<V> getFirstParameter(K key) {
-        var values = map.get(key);
-        if (values == null) return Optional.empty();
-        if (values.isEmpty()) return Optional.empty();
-        return Optional.of(values.get(0));
+        int i = indexOf(key);
+        if (i < 0) return Optional.empty();
+        return Optional.of((V) values[offsets[i]]);
     }
 
     public boolean isEmpty() {
-        return map.isEmpty();
+        return keys.length == 0;
     }
 
     /**
      * @return single value map with only first value included
      */
+    @SuppressWarnings("unchecked")
     public Map<K, V> toMap() {
-        return map.entrySet().stream()
-                .filter(e -> !e.getValue().isEmpty())
-                .collect(Collectors.toMap(Entry::getKey, e -> e.getValue().get(0)));
+        var map = new HashMap<K, V>();
+        for (int i = 0; i < keys.length; i++) map.put(keyOf(i), (V) values[offsets[i]]);
+        return map;
     }
 
+    @SuppressWarnings("unchecked")
     public Stream<V> values() {
-        return map.values().stream().flatMap(List::stream);
+        return Arrays.stream(values).map(v -> (V) v);
     }
 
     public Stream<Entry<K, List<V>>> stream() {
-        return map.entrySet().stream();
+        return IntStream.range(0, keys.length).mapToObj(this::entryOf);
     }
 
     /** Read only iterator */
     @Override
     public Iterator<Entry<K, List<V>>> iterator() {
-        var iter = map.entrySet().iterator();
         return new Iterator<Map.Entry<K, List<V>>>() {
+            private int i;
+
             @Override
             public boolean hasNext() {
-                return iter.hasNext();
+                return i < keys.length;
             }
 
             @Override
             public Entry<K, List<V>> next() {
-                return iter.next();
+                if (!hasNext()) throw new NoSuchElementException();
+                return entryOf(i++);
             }
         };
     }
+
+    private int indexOf(Object key) {
+        if (keys.length == 0) return -1;
+        int mask = table.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int slot = table[i];
+            if (slot == 0) return -1;
+            if (Objects.equals(keys[slot - 1], key)) return slot - 1;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyOf(int i) {
+        return (K) keys[i];
+    }
+
+    private List<V> valuesOf(int i) {
+        return new ValuesList<>(values, offsets[i], offsets[i + 1]);
+    }
+
+    private Entry<K, List<V>> entryOf(int i) {
+        return new SimpleImmutableEntry<>(keyOf(i), valuesOf(i));
+    }
+
+    private static int hash(Object key) {
+        int h = Objects.hashCode(key) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int[] newTable(Object[] keys, int keyCount) {
+        // power of two which keeps load factor below 0.5
+        var table = new int[Integer.highestOneBit(Math.max(1, keyCount)) * 4];
+        for (int i = 0; i < keyCount; i++) insert(table, keys[i], i);
+        return table;
+    }
+
+    private static void insert(int[] table, Object key, int keyIndex) {
+        int mask = table.length - 1;
+        int i = hash(key) & mask;
+        while (table[i] != 0) i = (i + 1) & mask;
+        table[i] = keyIndex + 1;
+    }
+
+    /** Unmodifiable view of the range of values array */
+    private static class ValuesList<V> extends AbstractList<V> implements RandomAccess {
+        private final Object[] values;
+        private final int from, to;
+
+        ValuesList(Object[] values, int from, int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(int index) {
+            Objects.checkIndex(index, to - from);
+            return (V) values[from + index];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
 }
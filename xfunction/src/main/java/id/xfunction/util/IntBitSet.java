@@ -18,10 +18,11 @@
 package id.xfunction.util;
 
 import id.xfunction.Preconditions;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.Iterator;
+import java.util.Comparator;
 import java.util.Spliterator;
-import java.util.Spliterators;
+import java.util.function.IntConsumer;
 import java.util.stream.IntStream;
 import java.util.stream.StreamSupport;
 
@@ -36,6 +37,11 @@ import java.util.stream.StreamSupport;
  *
  * <p>This class is using int as word so it is possible to obtain array of integers with no cost.
  *
+ * <p>All scanning and bulk operations ({@link #nextSetBit(int)}, {@link #cardinality()}, {@link
+ * #and(IntBitSet)}, ...) work with the whole words instead of individual bits. {@link
+ * #streamOfSetBits()} is sized and can be split between multiple threads so it is suitable for
+ * parallel streams.
+ *
  * @author lambdaprime intid@protonmail.com
  */
 public class IntBitSet {
@@ -56,7 +62,7 @@ public class IntBitSet {
      * @param array creates new {@link IntBitSet} backed up by given array
      */
     public IntBitSet(int[] array) {
-        this.len = array.length;
+        this.len = array.length * LEN;
         this.array = array;
     }
 
@@ -118,15 +124,178 @@ public class IntBitSet {
      * specified starting index. If no such bit exists then return -1
      */
     public int nextSetBit(int fromIndex) {
+        Preconditions.isLessOrEqual(0, fromIndex, "Negative index");
         int idx = index(fromIndex);
-        while (idx < array.length) {
-            int n = array[idx];
-            n &= 1 << (fromIndex % LEN);
-            if (n != 0) return fromIndex;
-            fromIndex++;
-            idx = index(fromIndex);
+        if (idx >= array.length) return -1;
+        // clear bits preceding fromIndex (shift distance is taken modulo 32)
+        int word = array[idx] & (-1 << fromIndex);
+        while (word == 0) {
+            if (++idx == array.length) return -1;
+            word = array[idx];
+        }
+        return idx * LEN + Integer.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Return the index of the first bit which is set to false and which occurs on or after the
+     * specified starting index. If no such bit exists then return -1
+     */
+    public int nextClearBit(int fromIndex) {
+        Preconditions.isLessOrEqual(0, fromIndex, "Negative index");
+        if (fromIndex >= len) return -1;
+        int idx = index(fromIndex);
+        int word = ~array[idx] & (-1 << fromIndex);
+        while (word == 0) {
+            if (++idx == array.length) return -1;
+            word = ~array[idx];
+        }
+        int res = idx * LEN + Integer.numberOfTrailingZeros(word);
+        return res < len ? res : -1;
+    }
+
+    /** Returns value of the bit with given index */
+    public boolean get(int i) {
+        checkIndex(i);
+        return (array[index(i)] & (1 << i)) != 0;
+    }
+
+    /** Sets bit with given index to true */
+    public void set(int i) {
+        checkIndex(i);
+        array[index(i)] |= 1 << i;
+    }
+
+    /** Sets all bits between [fromIndex, toIndex) to true */
+    public void set(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex) return;
+        int idxA = index(fromIndex);
+        int idxB = index(toIndex - 1);
+        // shift distances are taken modulo 32
+        int firstMask = -1 << fromIndex;
+        int lastMask = -1 >>> -toIndex;
+        if (idxA == idxB) {
+            array[idxA] |= firstMask & lastMask;
+            return;
+        }
+        array[idxA] |= firstMask;
+        Arrays.fill(array, idxA + 1, idxB, -1);
+        array[idxB] |= lastMask;
+    }
+
+    /** Sets bit with given index to false */
+    public void clear(int i) {
+        checkIndex(i);
+        array[index(i)] &= ~(1 << i);
+    }
+
+    /** Sets all bits between [fromIndex, toIndex) to false */
+    public void clear(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex) return;
+        int idxA = index(fromIndex);
+        int idxB = index(toIndex - 1);
+        int firstMask = -1 << fromIndex;
+        int lastMask = -1 >>> -toIndex;
+        if (idxA == idxB) {
+            array[idxA] &= ~(firstMask & lastMask);
+            return;
+        }
+        array[idxA] &= ~firstMask;
+        Arrays.fill(array, idxA + 1, idxB, 0);
+        array[idxB] &= ~lastMask;
+    }
+
+    /** Sets all bits to false */
+    public void clear() {
+        Arrays.fill(array, 0);
+    }
+
+    /** Returns number of bits set to true */
+    public int cardinality() {
+        return wordsCardinality(0, array.length);
+    }
+
+    /** Returns number of bits set to true between [fromIndex, toIndex) */
+    public int cardinality(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex) return 0;
+        int idxA = index(fromIndex);
+        int idxB = index(toIndex - 1);
+        int firstMask = -1 << fromIndex;
+        int lastMask = -1 >>> -toIndex;
+        if (idxA == idxB) return Integer.bitCount(array[idxA] & firstMask & lastMask);
+        return Integer.bitCount(array[idxA] & firstMask)
+                + wordsCardinality(idxA + 1, idxB)
+                + Integer.bitCount(array[idxB] & lastMask);
+    }
+
+    private int wordsCardinality(int fromWord, int toWord) {
+        int count = 0;
+        for (int i = fromWord; i < toWord; i++) {
+            count += Integer.bitCount(array[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Performs logical AND of this set with the other one. Bits of this set which are outside of
+     * the other set are cleared.
+     */
+    public void and(IntBitSet other) {
+        int n = Math.min(array.length, other.array.length);
+        for (int i = 0; i < n; i++) {
+            array[i] &= other.array[i];
+        }
+        Arrays.fill(array, n, array.length, 0);
+    }
+
+    /**
+     * Performs logical OR of this set with the other one. Bits of the other set which are outside
+     * of this set are ignored.
+     */
+    public void or(IntBitSet other) {
+        int n = Math.min(array.length, other.array.length);
+        for (int i = 0; i < n; i++) {
+            array[i] |= other.array[i];
+        }
+        clearTail();
+    }
+
+    /**
+     * Performs logical XOR of this set with the other one. Bits of the other set which are outside
+     * of this set are ignored.
+     */
+    public void xor(IntBitSet other) {
+        int n = Math.min(array.length, other.array.length);
+        for (int i = 0; i < n; i++) {
+            array[i] ^= other.array[i];
         }
-        return -1;
+        clearTail();
+    }
+
+    /** Clears all bits of this set which are set in the other one */
+    public void andNot(IntBitSet other) {
+        int n = Math.min(array.length, other.array.length);
+        for (int i = 0; i < n; i++) {
+            array[i] &= ~other.array[i];
+        }
+    }
+
+    /** Clears bits of the last word which are outside of this set */
+    private void clearTail() {
+        if (len % LEN != 0) array[array.length - 1] &= -1 >>> -len;
+    }
+
+    private void checkIndex(int i) {
+        Preconditions.isLessOrEqual(0, i, "Negative index");
+        Preconditions.isLess(i, len, "Out of range");
+    }
+
+    private void checkRange(int fromIndex, int toIndex) {
+        Preconditions.isLessOrEqual(0, fromIndex, "Negative index");
+        Preconditions.isLessOrEqual(fromIndex, toIndex, "Negative range");
+        Preconditions.isLessOrEqual(toIndex, len, "Out of range");
     }
 
     public String toBinaryString() {
@@ -145,31 +314,88 @@ public class IntBitSet {
         return buf.toString();
     }
 
-    /** Return stream of all set bit indices */
+    /**
+     * Return stream of all set bit indices.
+     *
+     * <p>Stream is sized and it can be efficiently split by words for parallel processing.
+     */
     public IntStream streamOfSetBits() {
-        // TODO IntStream::iterate is not available in Android yet, so the following line is
-        // commented for now and we implement it through Spliterator
-        // return IntStream.iterate(nextSetBit(0), i -> i != -1, i -> nextSetBit(i +
-        // 1)).sequential();
-        return StreamSupport.stream(
-                        Spliterators.spliteratorUnknownSize(
-                                new Iterator<Integer>() {
-                                    int i = nextSetBit(0);
-
-                                    @Override
-                                    public boolean hasNext() {
-                                        return i != -1;
-                                    }
-
-                                    @Override
-                                    public Integer next() {
-                                        var r = i;
-                                        i = nextSetBit(i + 1);
-                                        return r;
-                                    }
-                                },
-                                Spliterator.ORDERED),
-                        false)
-                .mapToInt(Integer::intValue);
+        return StreamSupport.intStream(new SetBitsSpliterator(0, 0, 0, array.length), false);
+    }
+
+    /** Iterates over set bits of the words in range [index, fence) */
+    private class SetBitsSpliterator implements Spliterator.OfInt {
+        // not yet consumed bits of the current word
+        private int word;
+        // index of the first bit of the current word
+        private int base;
+        // next word to read
+        private int index;
+        private int fence;
+        private int size = -1;
+
+        SetBitsSpliterator(int word, int base, int index, int fence) {
+            this.word = word;
+            this.base = base;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            while (word == 0) {
+                if (index >= fence) return false;
+                base = index * LEN;
+                word = array[index++];
+            }
+            int bit = Integer.numberOfTrailingZeros(word);
+            word &= word - 1;
+            if (size > 0) size--;
+            action.accept(base + bit);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            while (true) {
+                while (word != 0) {
+                    action.accept(base + Integer.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+                if (index >= fence) break;
+                base = index * LEN;
+                word = array[index++];
+            }
+            size = 0;
+        }
+
+        @Override
+        public OfInt trySplit() {
+            int mid = (index + fence) >>> 1;
+            if (index >= mid) return null;
+            // prefix receives remaining bits of the current word to preserve encounter order
+            var prefix = new SetBitsSpliterator(word, base, index, mid);
+            word = 0;
+            index = mid;
+            size = -1;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            if (size == -1) size = Integer.bitCount(word) + wordsCardinality(index, fence);
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | SORTED | NONNULL | SIZED | SUBSIZED;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            // natural order
+            return null;
+        }
     }
 }
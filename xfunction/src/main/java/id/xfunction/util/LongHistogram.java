@@ -0,0 +1,156 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.util;
+
+import id.xfunction.Preconditions;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of non negative long values (latencies, sizes etc).
+ *
+ * <p>Values are counted in log-linear buckets: each power of two range is split into 16 buckets of
+ * equal width so relative error of the reported percentiles does not exceed 1/16 (6.25%). Values
+ * below 16 are counted exactly. Whole range of long values takes 976 buckets (~8KB).
+ *
+ * <p>Recording is wait free (except tracking of the maximum) and can be done concurrently from any
+ * number of threads. {@link #snapshot()} does not block recording threads, it may miss values which
+ * are recorded concurrently with it.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class LongHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /** Immutable state of the histogram at some moment */
+    public static class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /** Number of recorded values */
+        public long getCount() {
+            return count;
+        }
+
+        /** Sum of recorded values */
+        public long getSum() {
+            return sum;
+        }
+
+        /** Maximum recorded value or 0 if histogram is empty */
+        public long getMax() {
+            return max;
+        }
+
+        /** Mean of recorded values or 0 if histogram is empty */
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Returns value such that given fraction of recorded values are less or equal to it (within
+         * precision of the histogram), or 0 if histogram is empty
+         *
+         * @param fraction from 0 to 1, for example 0.99 for 99th percentile
+         */
+        public long getPercentile(double fraction) {
+            Preconditions.isTrue(0 <= fraction && fraction <= 1, "Fraction must be in [0, 1]");
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(fraction * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(upperBound(i), max);
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "{ count: %d, mean: %.1f, p50: %d, p90: %d, p99: %d, max: %d }",
+                    count,
+                    getMean(),
+                    getPercentile(0.5),
+                    getPercentile(0.9),
+                    getPercentile(0.99),
+                    max);
+        }
+    }
+
+    /**
+     * @param value negative values are counted as 0
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(indexOf(value));
+        sum.add(value);
+        long m;
+        while (value > (m = max.get()) && !max.compareAndSet(m, value))
+            ;
+    }
+
+    public Snapshot snapshot() {
+        var copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.sum(), max.get());
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        sum.reset();
+        max.set(0);
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /** Largest value which falls into the bucket */
+    private static long upperBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lowerBound = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
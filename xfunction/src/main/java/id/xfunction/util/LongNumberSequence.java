@@ -18,13 +18,7 @@
 package id.xfunction.util;
 
 import id.xfunction.Preconditions;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
-import java.util.stream.LongStream;
 
 /**
  * Collection which keeps track of incoming positive number sequence (1, 2, 3, 4, ...) and allows to
@@ -35,6 +29,9 @@ import java.util.stream.LongStream;
  * <p>This collection can keep track only of N last numbers of the sequence. All numbers less than
  * "last added maximum number - N" are removed.
  *
+ * <p>Last N numbers are stored in the circular bitmap of N bits so the memory usage is fixed and
+ * adding new numbers does not allocate any memory.
+ *
  * <p>This collection is not thread safe.
  *
  * <h2>Examples</h2>
@@ -64,6 +61,9 @@ import java.util.stream.LongStream;
  * // prints "[6, 7, 8, 9, 10, 11, 12]" (1, 2, 3 does not belong to the sequence anymore
  * // since it is not sequence of numbers between [1, 10] but between [4, 13]
  * System.out.println(seq.getMissing(1, 13));
+ *
+ * // same numbers as ranges, prints "[[6, 12]]"
+ * System.out.println(seq.getMissingRanges());
  * }</pre>
  *
  * @author lambdaprime intid@protonmail.com
@@ -72,14 +72,26 @@ public class LongNumberSequence {
 
     private long lastMax = -1;
     private int size;
-    private TreeSet<Long> missing = new TreeSet<>();
+
+    /**
+     * Ring bitmap of received numbers from the current window [start, lastMax]. Number n is stored
+     * at the position n % size. Positions which do not belong to the window are always cleared.
+     */
+    private IntBitSet received;
+
+    private int receivedCount;
+
+    /** Position of lastMax inside the ring bitmap */
+    private int lastMaxPos;
 
     /**
      * @param size how many N last numbers to keep. All numbers less than "last added maximum number
      *     - N" are removed.
      */
     public LongNumberSequence(int size) {
+        Preconditions.isTrue(size > 0, "Size should be positive");
         this.size = size;
+        received = new IntBitSet(size);
     }
 
     /**
@@ -91,62 +103,203 @@ public class LongNumberSequence {
 
     /** Returns whether there are any missing number of last N numbers or not */
     public boolean hasMissing() {
-        return lastMax == -1 ? true : !missing.isEmpty();
+        return getMissingCount() != 0;
+    }
+
+    /**
+     * Returns number of missing numbers of last N numbers
+     *
+     * <p>Complexity is O(1)
+     */
+    public int getMissingCount() {
+        if (lastMax == -1) return size;
+        return (int) (lastMax - start() + 1) - receivedCount;
     }
 
     /**
      * Add new number to the sequence.
      *
-     * <p>Complexity is log(N)
+     * <p>Complexity is amortized O(1) and it does not allocate any memory
      */
     public void add(long n) {
         Preconditions.isTrue(n > 0, "Only positive numbers are allowed in the sequence");
         if (lastMax < n) {
-            long prevLastMax = lastMax;
+            if (lastMax == -1 || n - lastMax >= size) {
+                received.clear();
+                receivedCount = 0;
+                lastMaxPos = position(n);
+            } else {
+                int gap = (int) (n - lastMax);
+                // clear all numbers which do not belong to the window anymore
+                long start = start();
+                int count = (int) (n - size + 1 - start);
+                if (count == 1) {
+                    int pos = positionOf(start);
+                    if (received.get(pos)) {
+                        received.clear(pos);
+                        receivedCount--;
+                    }
+                } else if (count > 0) {
+                    int from = positionOf(start);
+                    int to = from + count;
+                    if (to <= size) {
+                        receivedCount -= received.cardinality(from, to);
+                        received.clear(from, to);
+                    } else {
+                        receivedCount -=
+                                received.cardinality(from, size)
+                                        + received.cardinality(0, to - size);
+                        received.clear(from, size);
+                        received.clear(0, to - size);
+                    }
+                }
+                lastMaxPos = wrap((long) lastMaxPos + gap);
+            }
             lastMax = n;
-            long start = Math.max(1, lastMax - size + 1);
-            while (!missing.isEmpty() && (missing.first() < start)) missing.pollFirst();
-            for (long i = Math.max(start, prevLastMax + 1); i < lastMax; i++) missing.add(i);
-        } else {
-            missing.remove(n);
+            received.set(lastMaxPos);
+            receivedCount++;
+        } else if (n >= start()) {
+            int pos = positionOf(n);
+            if (!received.get(pos)) {
+                received.set(pos);
+                receivedCount++;
+            }
         }
     }
 
     /**
      * Check if certain number is missing
      *
-     * <p>Complexity is log(N)
+     * <p>Complexity is O(1)
      */
     public boolean isMissing(long n) {
-        return missing.contains(n);
+        return lastMax != -1 && start() <= n && n <= lastMax && !received.get(positionOf(n));
     }
 
     /**
      * Returns unmodifiable collection of missing numbers from the sequence of numbers seen so far
      */
     public Collection<Long> getMissing() {
-        if (lastMax == -1) {
-            return getMissing(1, size);
-        }
-        return Collections.unmodifiableCollection(missing);
+        return getMissingRanges().asCollection();
     }
 
     /**
      * Returns unmodifiable collection of missing numbers between [first, last] from the sequence of
-     * numbers seen so far
+     * numbers seen so far.
+     *
+     * <p>Missing numbers are not materialized so even very large ranges of missing numbers take
+     * constant memory.
      */
     public Collection<Long> getMissing(long first, long last) {
+        return getMissingRanges(first, last).asCollection();
+    }
+
+    /**
+     * Copies missing numbers between [first, last] from the sequence of numbers seen so far to the
+     * given array. It does not allocate any memory.
+     *
+     * @return number of copied numbers which is less than array length only when all missing
+     *     numbers were copied
+     */
+    public int getMissing(long first, long last, long[] out) {
+        return scanMissing(first, last, null, out);
+    }
+
+    /** Returns ranges of missing numbers from the sequence of numbers seen so far */
+    public LongRangeSet getMissingRanges() {
+        if (lastMax == -1) {
+            return getMissingRanges(1, size);
+        }
+        return getMissingRanges(start(), lastMax);
+    }
+
+    /**
+     * Returns ranges of missing numbers between [first, last] from the sequence of numbers seen so
+     * far
+     */
+    public LongRangeSet getMissingRanges(long first, long last) {
+        var ranges = new LongRangeSet();
+        getMissingRanges(first, last, ranges);
+        return ranges;
+    }
+
+    /**
+     * Adds ranges of missing numbers between [first, last] from the sequence of numbers seen so far
+     * to the given set. When the set is reused it does not allocate any memory.
+     *
+     * <p>Can be used to build retransmit (NACK) requests.
+     */
+    public void getMissingRanges(long first, long last, LongRangeSet out) {
+        scanMissing(first, last, out, null);
+    }
+
+    /**
+     * Sends missing numbers to the set of ranges (when it is not null) or to the array (until it is
+     * full)
+     *
+     * @return number of numbers copied to the array
+     */
+    private int scanMissing(long first, long last, LongRangeSet ranges, long[] out) {
+        if (first > last) return 0;
         if (lastMax < first) {
-            return LongStream.rangeClosed(first, last).boxed().collect(Collectors.toList());
+            return emit(first, last, ranges, out, 0);
+        }
+        int n = 0;
+        long lo = Math.max(first, start()), hi = Math.min(last, lastMax);
+        if (lo <= hi) {
+            int from = positionOf(lo);
+            long to = from + (hi - lo + 1);
+            n = scanMissing(lo, from, (int) Math.min(size, to), ranges, out, n);
+            if (to > size) n = scanMissing(lo + size - from, 0, (int) (to - size), ranges, out, n);
         }
         if (lastMax < last) {
-            List<Long> res = new ArrayList<>((int) (last - first));
-            res.addAll(missing.tailSet(first));
-            for (long i = lastMax + 1; i <= last; i++) {
-                res.add(i);
-            }
-            return Collections.unmodifiableCollection(res);
+            n = emit(lastMax + 1, last, ranges, out, n);
         }
-        return Collections.unmodifiableCollection(missing.subSet(first, last + 1));
+        return n;
+    }
+
+    /**
+     * Scans positions [from, to) of the ring bitmap
+     *
+     * @param base number which is stored at the position "from"
+     */
+    private int scanMissing(long base, int from, int to, LongRangeSet ranges, long[] out, int n) {
+        int pos = from;
+        while (pos < to && (out == null || n < out.length)) {
+            int clear = received.nextClearBit(pos);
+            if (clear == -1 || clear >= to) break;
+            int set = received.nextSetBit(clear);
+            if (set == -1 || set > to) set = to;
+            n = emit(base + clear - from, base + set - 1 - from, ranges, out, n);
+            pos = set;
+        }
+        return n;
+    }
+
+    private static int emit(long from, long to, LongRangeSet ranges, long[] out, int n) {
+        if (ranges != null) {
+            ranges.add(from, to);
+            return n;
+        }
+        for (long i = from; i <= to && n < out.length; i++) out[n++] = i;
+        return n;
+    }
+
+    private long start() {
+        return Math.max(1, lastMax - size + 1);
+    }
+
+    private int position(long n) {
+        return (int) (n % size);
+    }
+
+    /** Position of number from the current window */
+    private int positionOf(long n) {
+        return wrap(lastMaxPos - (lastMax - n) + size);
+    }
+
+    /** Wraps position which is less than 2 * size */
+    private int wrap(long pos) {
+        return (int) (pos >= size ? pos - size : pos);
     }
 }
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.util;
+
+import id.xfunction.Preconditions;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.LongStream;
+
+/**
+ * Set of long numbers which is stored as sorted list of disjoint ranges [from, to].
+ *
+ * <p>Adjacent and overlapping ranges are merged together so the set of numbers {1, 2, 3, 7, 8} is
+ * stored as two ranges [1, 3], [7, 8]. It is useful to represent sets which consist of long
+ * sequences of consecutive numbers (like lists of missing packets).
+ *
+ * <p>Adding ranges in ascending order takes amortized O(1) and does not allocate memory once
+ * internal array reaches its capacity. Clearing the set keeps its capacity so it can be reused.
+ *
+ * <p>This collection is not thread safe.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class LongRangeSet {
+
+    /** Pairs of [from, to] */
+    private long[] ranges;
+
+    private int size;
+
+    public LongRangeSet() {
+        this(8);
+    }
+
+    /**
+     * @param capacity initial number of ranges
+     */
+    public LongRangeSet(int capacity) {
+        Preconditions.isLessOrEqual(0, capacity, "Negative capacity");
+        ranges = new long[2 * Math.max(1, capacity)];
+    }
+
+    /** Adds single number to the set */
+    public void add(long n) {
+        add(n, n);
+    }
+
+    /** Adds all numbers between [from, to] to the set */
+    public void add(long from, long to) {
+        Preconditions.isLessOrEqual(from, to, "Negative range");
+        // fast path for ranges added in ascending order
+        if (size == 0 || getTo(size - 1) < from) {
+            if (size > 0 && getTo(size - 1) == from - 1) {
+                ranges[2 * size - 1] = to;
+                return;
+            }
+            insert(size, from, to);
+            return;
+        }
+        // first range which ends at from - 1 or later
+        int i = lowerBound(from);
+        // ranges [i, j) overlap or touch [from, to]
+        int j = i;
+        while (j < size && (getFrom(j) <= to || getFrom(j) - 1 == to)) j++;
+        if (i == j) {
+            insert(i, from, to);
+            return;
+        }
+        ranges[2 * i] = Math.min(from, getFrom(i));
+        ranges[2 * i + 1] = Math.max(to, getTo(j - 1));
+        System.arraycopy(ranges, 2 * j, ranges, 2 * i + 2, 2 * (size - j));
+        size -= j - i - 1;
+    }
+
+    /** Checks if number belongs to any range of the set */
+    public boolean contains(long n) {
+        int i = lowerBound(n);
+        return i < size && getFrom(i) <= n && n <= getTo(i);
+    }
+
+    /** Number of disjoint ranges in the set */
+    public int getRangeCount() {
+        return size;
+    }
+
+    /** Start (inclusive) of the range with the given index */
+    public long getFrom(int rangeIndex) {
+        return ranges[2 * rangeIndex];
+    }
+
+    /** End (inclusive) of the range with the given index */
+    public long getTo(int rangeIndex) {
+        return ranges[2 * rangeIndex + 1];
+    }
+
+    /**
+     * Returns total number of numbers in all ranges.
+     *
+     * <p>Complexity is O(number of ranges)
+     */
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < size; i++) count += getTo(i) - getFrom(i) + 1;
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Removes all ranges from the set. Capacity of the set stays the same. */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Copies numbers of the set in ascending order to the given array.
+     *
+     * @return number of copied numbers which is less than array length only when all numbers of the
+     *     set were copied
+     */
+    public int toArray(long[] out) {
+        int n = 0;
+        for (int i = 0; i < size && n < out.length; i++) {
+            for (long x = getFrom(i), to = getTo(i); n < out.length; x++) {
+                out[n++] = x;
+                if (x == to) break;
+            }
+        }
+        return n;
+    }
+
+    /** Returns stream of all numbers of the set in ascending order */
+    public LongStream stream() {
+        return LongStream.range(0, size)
+                .flatMap(i -> LongStream.rangeClosed(getFrom((int) i), getTo((int) i)));
+    }
+
+    /**
+     * Returns unmodifiable view of all numbers of the set. Numbers are not materialized so the view
+     * of even very large ranges takes constant memory.
+     *
+     * <p>Collection size is limited to {@link Integer#MAX_VALUE}.
+     */
+    public Collection<Long> asCollection() {
+        return new AbstractCollection<Long>() {
+            @Override
+            public Iterator<Long> iterator() {
+                return new NumbersIterator();
+            }
+
+            @Override
+            public int size() {
+                return (int) Math.min(Integer.MAX_VALUE, count());
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Long && LongRangeSet.this.contains((Long) o);
+            }
+        };
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (int i = 0; i < 2 * size; i++) h = 31 * h + Long.hashCode(ranges[i]);
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof LongRangeSet)) return false;
+        var other = (LongRangeSet) obj;
+        return Arrays.equals(ranges, 0, 2 * size, other.ranges, 0, 2 * other.size);
+    }
+
+    /** Returns ranges of the set in the format "[[1, 3], [7, 8]]" */
+    @Override
+    public String toString() {
+        var buf = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) buf.append(", ");
+            buf.append('[').append(getFrom(i)).append(", ").append(getTo(i)).append(']');
+        }
+        return buf.append(']').toString();
+    }
+
+    /** Index of the first range which ends at n - 1 or later, otherwise size */
+    private int lowerBound(long n) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            long to = getTo(mid);
+            if (to < n && to != n - 1) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private void insert(int i, long from, long to) {
+        if (2 * size == ranges.length) ranges = Arrays.copyOf(ranges, 2 * ranges.length);
+        System.arraycopy(ranges, 2 * i, ranges, 2 * i + 2, 2 * (size - i));
+        ranges[2 * i] = from;
+        ranges[2 * i + 1] = to;
+        size++;
+    }
+
+    private class NumbersIterator implements Iterator<Long> {
+        private int range;
+        private long next = size > 0 ? getFrom(0) : 0;
+
+        @Override
+        public boolean hasNext() {
+            return range < size;
+        }
+
+        @Override
+        public Long next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            long res = next;
+            if (res == getTo(range)) {
+                range++;
+                if (range < size) next = getFrom(range);
+            } else {
+                next++;
+            }
+            return res;
+        }
+    }
+}
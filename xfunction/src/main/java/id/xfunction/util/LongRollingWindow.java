@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.util;
+
+/**
+ * Statistics over the fixed size window of N last added values.
+ *
+ * <ul>
+ *   <li>{@link #add(long)} is amortized O(1) and does not allocate any memory
+ *   <li>{@link #min()}, {@link #max()} are O(1). They are tracked with monotonic queues so there is
+ *       no need to scan the window
+ *   <li>{@link #sum()}, {@link #avg()}, {@link #variance()} are O(1). They are tracked with
+ *       compensated summation so rounding errors do not accumulate no matter how many values were
+ *       added and removed from the window
+ *   <li>{@link #percentile(double)} is O(N). It is calculated on demand by selecting the value from
+ *       the copy of the window (buffer for the copy is allocated only once)
+ * </ul>
+ *
+ * <p>All statistics are 0 when window is empty.
+ *
+ * <p>This class is not thread safe.
+ *
+ * @see DoubleRollingWindow
+ * @see IntRollingWindow
+ * @author lambdaprime intid@protonmail.com
+ */
+public class LongRollingWindow {
+    private long[] values;
+    private long[] buffer;
+    private RollingWindowStats stats;
+    private long total;
+    // values are summed relative to the first value to reduce cancellation in variance
+    private long shift;
+
+    /**
+     * @param capacity max number of last values to keep in the window
+     */
+    public LongRollingWindow(int capacity) {
+        stats = new RollingWindowStats(capacity, (a, b) -> Long.compare(values[a], values[b]));
+        values = new long[capacity];
+    }
+
+    /** Adds new value to the window and removes the oldest one if window is full */
+    public void add(long value) {
+        int pos = stats.nextPosition();
+        if (stats.isFull()) {
+            total -= values[pos];
+            stats.remove(values[pos] - shift);
+        } else if (stats.size() == 0) {
+            shift = value;
+        }
+        values[pos] = value;
+        total += value;
+        stats.add(value - shift);
+    }
+
+    public long min() {
+        if (stats.size() == 0) return 0;
+        return values[stats.minPosition()];
+    }
+
+    public long max() {
+        if (stats.size() == 0) return 0;
+        return values[stats.maxPosition()];
+    }
+
+    /**
+     * Sum of the values in the window. Similar to {@link java.util.LongSummaryStatistics} it is not
+     * protected from the overflow.
+     */
+    public long sum() {
+        return total;
+    }
+
+    public double avg() {
+        if (stats.size() == 0) return 0;
+        return shift + stats.avg();
+    }
+
+    /** Population variance of the values in the window */
+    public double variance() {
+        return stats.variance();
+    }
+
+    /** Population standard deviation of the values in the window */
+    public double stddev() {
+        return Math.sqrt(variance());
+    }
+
+    /**
+     * Returns value below which given percentage of values in the window fall (nearest-rank
+     * method).
+     *
+     * @param percentile number between [0, 100]
+     */
+    public long percentile(double percentile) {
+        int rank = stats.rank(percentile);
+        int size = stats.size();
+        if (size == 0) return 0;
+        if (buffer == null) buffer = new long[values.length];
+        System.arraycopy(values, 0, buffer, 0, size);
+        return RollingWindowStats.select(buffer, size, rank);
+    }
+
+    /** Number of values currently in the window */
+    public int getSize() {
+        return stats.size();
+    }
+
+    public int getCapacity() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return stats.size() == 0;
+    }
+
+    /** Removes all values from the window */
+    public void clear() {
+        total = 0;
+        shift = 0;
+        stats.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "LongRollingWindow [size="
+                + stats.size()
+                + ", min="
+                + min()
+                + ", max="
+                + max()
+                + ", avg="
+                + avg()
+                + ", stddev="
+                + stddev()
+                + "]";
+    }
+}
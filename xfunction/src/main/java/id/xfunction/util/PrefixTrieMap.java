@@ -0,0 +1,381 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.util;
+
+import id.xfunction.Preconditions;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Map which keeps all keys in prefix trie (radix tree) data structure and allows to find value of
+ * the longest key which is a prefix of a given string.
+ *
+ * <p>It is useful for routing and configuration based on prefixes, for example logging level per
+ * logger name prefix:
+ *
+ * <pre>{@code
+ * var levels = new PrefixTrieMap<Level>();
+ * levels.put("", Level.INFO);
+ * levels.put("id.xfunction", Level.FINE);
+ * levels.put("id.xfunction.concurrent", Level.WARNING);
+ *
+ * // prints "FINE"
+ * System.out.println(levels.getByLongestPrefix("id.xfunction.util.XJson"));
+ *
+ * // prints "INFO"
+ * System.out.println(levels.getByLongestPrefix("java.net.http"));
+ * }</pre>
+ *
+ * <p>Empty key is allowed and it is a prefix of all strings. Null keys and values are not allowed.
+ *
+ * <p>Keys are stored in sorted order.
+ *
+ * <p>Complexity is O(L) where L is length of the key.
+ *
+ * <p>This map is thread safe. Trie nodes are immutable and all updates are done with copy-on-write
+ * (only nodes on the path to the updated key are copied) and then published atomically. Read
+ * operations ({@link #get(Object)}, {@link #containsKey(Object)}, {@link
+ * #getByLongestPrefix(CharSequence)}, {@link #longestPrefixMatch(CharSequence)}) never block, are
+ * not recursive and do not allocate any memory. Updates are serialized between each other, this
+ * makes the map best suited for the cases when reads are much more frequent than updates. Iterators
+ * are working over the snapshot of the map which was taken when they were created.
+ *
+ * @param <V> type of values
+ * @author lambdaprime intid@protonmail.com
+ */
+public class PrefixTrieMap<V> extends AbstractMap<String, V> {
+
+    private volatile Tree<V> tree = new Tree<>(Node.empty(), 0);
+
+    @Override
+    public V get(Object key) {
+        if (!(key instanceof String)) return null;
+        String str = (String) key;
+        Node<V> node = tree.root;
+        int i = 0;
+        while (i < str.length()) {
+            int pos = node.indexOf(str.charAt(i));
+            if (pos < 0) return null;
+            node = node.children[pos];
+            if (!startsWith(str, i, node.label)) return null;
+            i += node.label.length;
+        }
+        return node.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns value of the longest key which is a prefix of a given string. If no such key exist
+     * returns null.
+     */
+    public V getByLongestPrefix(CharSequence str) {
+        Node<V> node = tree.root;
+        V res = node.value;
+        int i = 0;
+        while (i < str.length()) {
+            int pos = node.indexOf(str.charAt(i));
+            if (pos < 0) break;
+            node = node.children[pos];
+            if (!startsWith(str, i, node.label)) break;
+            i += node.label.length;
+            if (node.value != null) res = node.value;
+        }
+        return res;
+    }
+
+    /**
+     * Returns length of the longest key which is a prefix of a given string. If no such key exist
+     * returns -1 (0 is returned when the only matching key is an empty string).
+     */
+    public int longestPrefixMatch(CharSequence str) {
+        Node<V> node = tree.root;
+        int res = node.value != null ? 0 : -1;
+        int i = 0;
+        while (i < str.length()) {
+            int pos = node.indexOf(str.charAt(i));
+            if (pos < 0) break;
+            node = node.children[pos];
+            if (!startsWith(str, i, node.label)) break;
+            i += node.label.length;
+            if (node.value != null) res = i;
+        }
+        return res;
+    }
+
+    @Override
+    public synchronized V put(String key, V value) {
+        Preconditions.notNull(key, "Null keys are not allowed");
+        Preconditions.notNull(value, "Null values are not allowed");
+        var t = tree;
+        var old = new Object[1];
+        var root = put(t.root, key, 0, value, old);
+        tree = new Tree<>(root, old[0] == null ? t.size + 1 : t.size);
+        @SuppressWarnings("unchecked")
+        V res = (V) old[0];
+        return res;
+    }
+
+    /**
+     * Removes the key and compacts the trie: nodes which are left without any value and children
+     * are removed, nodes with single child are merged with it.
+     */
+    @Override
+    public synchronized V remove(Object key) {
+        if (!(key instanceof String)) return null;
+        var t = tree;
+        var old = new Object[1];
+        var root = remove(t.root, (String) key, 0, old);
+        if (root == t.root) return null;
+        tree = new Tree<>(root, t.size - 1);
+        @SuppressWarnings("unchecked")
+        V res = (V) old[0];
+        return res;
+    }
+
+    @Override
+    public synchronized void clear() {
+        tree = new Tree<>(Node.empty(), 0);
+    }
+
+    @Override
+    public int size() {
+        return tree.size;
+    }
+
+    /** Returns unmodifiable snapshot of all entries sorted by key */
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        var t = tree;
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                return new EntryIterator<>(t.root);
+            }
+
+            @Override
+            public int size() {
+                return t.size;
+            }
+        };
+    }
+
+    private static <V> Node<V> put(Node<V> node, String key, int i, V value, Object[] old) {
+        if (i == key.length()) {
+            old[0] = node.value;
+            return node.withValue(value);
+        }
+        int pos = node.indexOf(key.charAt(i));
+        if (pos < 0) {
+            return node.withChild(
+                    -pos - 1, new Node<>(key.substring(i).toCharArray(), value, Node.noChildren()));
+        }
+        Node<V> child = node.children[pos];
+        int common = commonPrefixLength(child.label, key, i);
+        if (common < child.label.length) {
+            // split the child so that its first part ends at the common prefix
+            var tail = child.withLabel(Arrays.copyOfRange(child.label, common, child.label.length));
+            Node<V>[] children = Node.newChildren(1);
+            children[0] = tail;
+            child = new Node<>(Arrays.copyOf(child.label, common), null, children);
+        }
+        return node.replaceChild(pos, put(child, key, i + common, value, old));
+    }
+
+    /** Returns same node if nothing was removed */
+    private static <V> Node<V> remove(Node<V> node, String key, int i, Object[] old) {
+        if (i == key.length()) {
+            if (node.value == null) return node;
+            old[0] = node.value;
+            return node.withValue(null);
+        }
+        int pos = node.indexOf(key.charAt(i));
+        if (pos < 0) return node;
+        Node<V> child = node.children[pos];
+        if (!startsWith(key, i, child.label)) return node;
+        Node<V> newChild = remove(child, key, i + child.label.length, old);
+        if (newChild == child) return node;
+        if (newChild.value == null) {
+            if (newChild.children.length == 0) return node.withoutChild(pos);
+            if (newChild.children.length == 1) newChild = newChild.mergeWithChild();
+        }
+        return node.replaceChild(pos, newChild);
+    }
+
+    private static int commonPrefixLength(char[] label, CharSequence str, int offset) {
+        int len = Math.min(label.length, str.length() - offset);
+        int i = 0;
+        while (i < len && label[i] == str.charAt(offset + i)) i++;
+        return i;
+    }
+
+    private static boolean startsWith(CharSequence str, int offset, char[] label) {
+        if (str.length() - offset < label.length) return false;
+        for (int i = 0; i < label.length; i++) {
+            if (str.charAt(offset + i) != label[i]) return false;
+        }
+        return true;
+    }
+
+    private static class Tree<V> {
+        final Node<V> root;
+        final int size;
+
+        Tree(Node<V> root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+    }
+
+    /** Immutable trie node */
+    private static class Node<V> {
+        @SuppressWarnings("rawtypes")
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        /** Substring which this node adds to the path from the root */
+        final char[] label;
+
+        /** Value of the key which ends on this node, otherwise null */
+        final V value;
+
+        /** Sorted first characters of child labels */
+        final char[] keys;
+
+        final Node<V>[] children;
+
+        Node(char[] label, V value, Node<V>[] children) {
+            this.label = label;
+            this.value = value;
+            this.children = children;
+            keys = new char[children.length];
+            for (int i = 0; i < children.length; i++) keys[i] = children[i].label[0];
+        }
+
+        @SuppressWarnings("unchecked")
+        static <V> Node<V>[] noChildren() {
+            return NO_CHILDREN;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        static <V> Node<V>[] newChildren(int length) {
+            return new Node[length];
+        }
+
+        static <V> Node<V> empty() {
+            return new Node<>(new char[0], null, noChildren());
+        }
+
+        int indexOf(char ch) {
+            return Arrays.binarySearch(keys, ch);
+        }
+
+        Node<V> withValue(V value) {
+            return new Node<>(label, value, children);
+        }
+
+        Node<V> withLabel(char[] label) {
+            return new Node<>(label, value, children);
+        }
+
+        Node<V> withChild(int pos, Node<V> child) {
+            Node<V>[] newChildren = newChildren(children.length + 1);
+            System.arraycopy(children, 0, newChildren, 0, pos);
+            newChildren[pos] = child;
+            System.arraycopy(children, pos, newChildren, pos + 1, children.length - pos);
+            return new Node<>(label, value, newChildren);
+        }
+
+        Node<V> replaceChild(int pos, Node<V> child) {
+            var newChildren = children.clone();
+            newChildren[pos] = child;
+            return new Node<>(label, value, newChildren);
+        }
+
+        Node<V> withoutChild(int pos) {
+            Node<V>[] newChildren = newChildren(children.length - 1);
+            System.arraycopy(children, 0, newChildren, 0, pos);
+            System.arraycopy(children, pos + 1, newChildren, pos, children.length - pos - 1);
+            return new Node<>(label, value, newChildren);
+        }
+
+        /** Merge node without value with its only child */
+        Node<V> mergeWithChild() {
+            var child = children[0];
+            var newLabel = Arrays.copyOf(label, label.length + child.label.length);
+            System.arraycopy(child.label, 0, newLabel, label.length, child.label.length);
+            return child.withLabel(newLabel);
+        }
+    }
+
+    private static class EntryIterator<V> implements Iterator<Entry<String, V>> {
+        private Deque<Node<V>> nodes = new ArrayDeque<>();
+        private Deque<Integer> nextChild = new ArrayDeque<>();
+        private StringBuilder buf = new StringBuilder();
+        private Entry<String, V> next;
+
+        EntryIterator(Node<V> root) {
+            nodes.push(root);
+            nextChild.push(0);
+            if (root.value != null) next = new SimpleImmutableEntry<>("", root.value);
+            else advance();
+        }
+
+        /** Depth first search which stops on the next node with value */
+        private void advance() {
+            next = null;
+            while (next == null && !nodes.isEmpty()) {
+                Node<V> node = nodes.peek();
+                int pos = nextChild.pop();
+                if (pos < node.children.length) {
+                    nextChild.push(pos + 1);
+                    Node<V> child = node.children[pos];
+                    buf.append(child.label);
+                    nodes.push(child);
+                    nextChild.push(0);
+                    if (child.value != null)
+                        next = new SimpleImmutableEntry<>(buf.toString(), child.value);
+                } else {
+                    nodes.pop();
+                    buf.setLength(buf.length() - node.label.length);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, V> next() {
+            if (next == null) throw new NoSuchElementException();
+            var ret = next;
+            advance();
+            return ret;
+        }
+    }
+}
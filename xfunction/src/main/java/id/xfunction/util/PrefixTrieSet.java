@@ -17,46 +17,37 @@
  */
 package id.xfunction.util;
 
-import static java.util.stream.Collectors.joining;
-
 import id.xfunction.Preconditions;
-import java.util.AbstractMap;
 import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.TreeMap;
+import java.util.NoSuchElementException;
 import java.util.function.Predicate;
 
 /**
  * Set which keeps all elements in prefix trie data structure.
  *
+ * <p>Trie is compressed (radix tree): chains of nodes with single child are merged into one node
+ * which keeps the whole substring:
+ *
  * <pre>{@code
- *                *
- *              /   \
- *            h/    t\
- *            *       *
- *          e/        e\
- *          *           *
- *        l/            e\
- *        *               *
- *      l/ \            \0|
- *      /  p\             *
- *     *     *
- *   o/    \0|
- *   *       *
- * \0|
- *   *
+ *        *
+ *      /   \
+ *   hel     tee
+ *   / \
+ * lo   p
  * }</pre>
  *
  * <p>Items stored in sorted order.
  *
  * <p>It implements all methods of Set collection interface except remove.
  *
- * <p>Complexity is O(L) where L is length of the item.
+ * <p>Complexity is O(L) where L is length of the item. Lookup operations ({@link
+ * #contains(Object)}, {@link #longestPrefixMatch(CharSequence)}, {@link
+ * #hasPrefixOf(CharSequence)}) are not recursive and do not allocate any memory.
  *
  * <p>Adding empty string is not allowed since empty string is a prefix of all possible strings.
  * This would mean that Trie with empty string will match all strings and can cause a confusion.
@@ -67,24 +58,45 @@ import java.util.function.Predicate;
  */
 public class PrefixTrieSet extends AbstractSet<String> {
 
-    private Node root = new Node();
+    private Node root = new Node(new char[0], false);
     private int size;
-    private boolean isAdded;
 
     /** Adding empty string throws an exception */
     @Override
     public boolean add(String str) {
         Preconditions.notNull(str);
         Preconditions.isTrue(!str.isBlank(), "Empty string not allowed");
-        isAdded = false;
-        add(root, (str + '\0').toCharArray(), 0);
-        if (isAdded) size++;
-        return isAdded;
+        Node node = root;
+        int i = 0;
+        while (i < str.length()) {
+            int pos = node.indexOf(str.charAt(i));
+            if (pos < 0) {
+                node.insert(-pos - 1, new Node(str.substring(i).toCharArray(), true));
+                size++;
+                return true;
+            }
+            Node child = node.children[pos];
+            int common = commonPrefixLength(child.label, str, i);
+            if (common < child.label.length) {
+                // split the node so that its first part ends at the common prefix
+                Node head = new Node(Arrays.copyOf(child.label, common), false);
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                head.insert(0, child);
+                node.children[pos] = head;
+                child = head;
+            }
+            node = child;
+            i += common;
+        }
+        if (node.isTerminal) return false;
+        node.isTerminal = true;
+        size++;
+        return true;
     }
 
     @Override
     public Iterator<String> iterator() {
-        return new PrefixTrieIterator(root);
+        return new PrefixTrieIterator();
     }
 
     @Override
@@ -92,6 +104,12 @@ public class PrefixTrieSet extends AbstractSet<String> {
         return size;
     }
 
+    @Override
+    public void clear() {
+        root = new Node(new char[0], false);
+        size = 0;
+    }
+
     @Override
     public boolean remove(Object o) {
         throw new UnsupportedOperationException();
@@ -112,7 +130,16 @@ public class PrefixTrieSet extends AbstractSet<String> {
         if (o == null) return false;
         if (!(o instanceof String)) return false;
         String s = (String) o;
-        return contains(root, s.toCharArray(), 0);
+        Node node = root;
+        int i = 0;
+        while (i < s.length()) {
+            int pos = node.indexOf(s.charAt(i));
+            if (pos < 0) return false;
+            node = node.children[pos];
+            if (!startsWith(s, i, node.label)) return false;
+            i += node.label.length;
+        }
+        return node.isTerminal;
     }
 
     /**
@@ -121,88 +148,157 @@ public class PrefixTrieSet extends AbstractSet<String> {
      *
      * <p>This operation is thread-safe as long as no write operations (eg. {@link #add(String)})
      * are taking place.
+     *
+     * @see #longestPrefixMatch(CharSequence)
      */
     public int prefixMatches(String str) {
-        return prefixMatches(root, str.toCharArray(), new boolean[1], 0);
+        return longestPrefixMatch(str);
     }
 
-    private int prefixMatches(Node n, char[] a, boolean[] isMatched, int i) {
-        if (n.childs.containsKey('\0')) {
-            isMatched[0] = true;
-            return 0;
+    /**
+     * Returns length of the longest item from the current trie which is a prefix of a given string.
+     * If no such item exist returns 0.
+     *
+     * <p>This operation is thread-safe as long as no write operations (eg. {@link #add(String)})
+     * are taking place.
+     */
+    public int longestPrefixMatch(CharSequence str) {
+        Node node = root;
+        int i = 0;
+        int res = 0;
+        while (i < str.length()) {
+            int pos = node.indexOf(str.charAt(i));
+            if (pos < 0) break;
+            node = node.children[pos];
+            if (!startsWith(str, i, node.label)) break;
+            i += node.label.length;
+            if (node.isTerminal) res = i;
+        }
+        return res;
+    }
+
+    /**
+     * Checks if any item from the current trie is a prefix of a given string. It is faster than
+     * {@link #longestPrefixMatch(CharSequence)} since it stops on the first (shortest) match.
+     *
+     * <p>This operation is thread-safe as long as no write operations (eg. {@link #add(String)})
+     * are taking place.
+     */
+    public boolean hasPrefixOf(CharSequence str) {
+        Node node = root;
+        int i = 0;
+        while (i < str.length()) {
+            int pos = node.indexOf(str.charAt(i));
+            if (pos < 0) return false;
+            node = node.children[pos];
+            if (!startsWith(str, i, node.label)) return false;
+            if (node.isTerminal) return true;
+            i += node.label.length;
         }
-        if (i == a.length) return 0;
-        Node next = n.childs.get(a[i]);
-        if (next == null) return 0;
-        int ret = prefixMatches(next, a, isMatched, i + 1);
-        return isMatched[0] ? ret + 1 : 0;
+        return false;
     }
 
-    // based on DFS
-    private boolean contains(Node n, char[] a, int i) {
-        if (i == a.length) return n.childs.containsKey('\0');
-        if (n == null) return false;
-        Node next = n.childs.get(a[i]);
-        return contains(next, a, i + 1);
+    private static int commonPrefixLength(char[] label, CharSequence str, int offset) {
+        int len = Math.min(label.length, str.length() - offset);
+        int i = 0;
+        while (i < len && label[i] == str.charAt(offset + i)) i++;
+        return i;
     }
 
-    private Node add(Node cur, char[] a, int i) {
-        if (i == a.length) return null;
-        if (cur == null) cur = new Node();
-        Node n = cur.childs.get(a[i]);
-        if (!cur.childs.containsKey(a[i])) isAdded = true;
-        cur.childs.put(a[i], add(n, a, i + 1));
-        return cur;
+    private static boolean startsWith(CharSequence str, int offset, char[] label) {
+        if (str.length() - offset < label.length) return false;
+        for (int i = 0; i < label.length; i++) {
+            if (str.charAt(offset + i) != label[i]) return false;
+        }
+        return true;
     }
 
     private static class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        /** Substring which this node adds to the path from the root */
+        char[] label;
 
-        // leaf node contains pair <\0, null>
-        Map<Character, Node> childs = new TreeMap<>();
+        /** Whether path from the root to this node is an item of the set */
+        boolean isTerminal;
+
+        /** Sorted first characters of child labels */
+        char[] keys = NO_KEYS;
+
+        Node[] children = NO_CHILDREN;
+        int count;
+
+        Node(char[] label, boolean isTerminal) {
+            this.label = label;
+            this.isTerminal = isTerminal;
+        }
+
+        int indexOf(char ch) {
+            return Arrays.binarySearch(keys, 0, count, ch);
+        }
+
+        void insert(int pos, Node child) {
+            if (count == keys.length) {
+                int capacity = Math.max(2, count * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, pos, keys, pos + 1, count - pos);
+            System.arraycopy(children, pos, children, pos + 1, count - pos);
+            keys[pos] = child.label[0];
+            children[pos] = child;
+            count++;
+        }
 
         @Override
         public String toString() {
-            return childs.entrySet().stream()
-                    .filter(e -> e.getKey() != '\0')
-                    .map(e -> "" + e.getKey())
-                    .collect(joining(","));
+            return new String(label);
         }
     }
 
-    private static class PrefixTrieIterator implements Iterator<String> {
-        private static final Entry<Character, Node> DELIM =
-                new AbstractMap.SimpleEntry<>('\0', new Node());
+    private class PrefixTrieIterator implements Iterator<String> {
+        private Deque<Node> nodes = new ArrayDeque<>();
+        private Deque<Integer> nextChild = new ArrayDeque<>();
         private StringBuilder buf = new StringBuilder();
-        private Deque<Entry<Character, Node>> path = new LinkedList<>();
+        private String next;
 
-        public PrefixTrieIterator(Node root) {
-            path.addAll(root.childs.entrySet());
+        PrefixTrieIterator() {
+            nodes.push(root);
+            nextChild.push(0);
+            advance();
         }
 
-        @Override
-        public boolean hasNext() {
-            while (!path.isEmpty()) {
-                Entry<Character, Node> e = path.pollFirst();
-                if (e == DELIM) {
-                    buf.deleteCharAt(buf.length() - 1);
-                    continue;
+        /** Depth first search which stops on the next terminal node */
+        private void advance() {
+            next = null;
+            while (next == null && !nodes.isEmpty()) {
+                Node node = nodes.peek();
+                int pos = nextChild.pop();
+                if (pos < node.count) {
+                    nextChild.push(pos + 1);
+                    Node child = node.children[pos];
+                    buf.append(child.label);
+                    nodes.push(child);
+                    nextChild.push(0);
+                    if (child.isTerminal) next = buf.toString();
+                } else {
+                    nodes.pop();
+                    buf.setLength(buf.length() - node.label.length);
                 }
-                // stop if we hit leaf node
-                if (e.getValue() == null) return true;
-                buf.append(e.getKey());
-                path.addFirst(DELIM);
-                Map<Character, Node> childs = e.getValue().childs;
-                Deque<Entry<Character, Node>> tmp = new LinkedList<>();
-                tmp.addAll(childs.entrySet());
-                tmp.addAll(path);
-                path = tmp;
             }
-            return false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
         }
 
         @Override
         public String next() {
-            String ret = buf.toString();
+            if (next == null) throw new NoSuchElementException();
+            String ret = next;
+            advance();
             return ret;
         }
     }
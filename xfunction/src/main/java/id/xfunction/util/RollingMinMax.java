@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.util;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Tracks positions of minimum and maximum values inside the circular buffer of rolling window.
+ *
+ * <p>It keeps two monotonic queues of sequence numbers of the values. Every value is added to and
+ * removed from each queue at most once so both operations are amortized O(1).
+ *
+ * <p>Values itself are stored by the window in its own array so this class works only with the
+ * positions and compares them with the given comparator. This allows to share it between windows of
+ * different primitive types without boxing.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+class RollingMinMax {
+    private int capacity;
+    private IntBinaryOperator comparator;
+    private long[] minQueue, maxQueue;
+    private int minHead, minSize, maxHead, maxSize;
+
+    /**
+     * @param comparator compares values at two given positions of the window buffer
+     */
+    RollingMinMax(int capacity, IntBinaryOperator comparator) {
+        this.capacity = capacity;
+        this.comparator = comparator;
+        minQueue = new long[capacity];
+        maxQueue = new long[capacity];
+    }
+
+    /**
+     * Must be called after the value with sequence number seq was stored at position seq % capacity
+     * of the window buffer
+     */
+    void add(long seq) {
+        int pos = (int) (seq % capacity);
+        long expired = seq - capacity;
+        if (minSize > 0 && minQueue[minHead] <= expired) {
+            minHead = (minHead + 1) % capacity;
+            minSize--;
+        }
+        while (minSize > 0 && comparator.applyAsInt(position(minQueue, minHead, minSize), pos) >= 0)
+            minSize--;
+        minQueue[(minHead + minSize) % capacity] = seq;
+        minSize++;
+        if (maxSize > 0 && maxQueue[maxHead] <= expired) {
+            maxHead = (maxHead + 1) % capacity;
+            maxSize--;
+        }
+        while (maxSize > 0 && comparator.applyAsInt(position(maxQueue, maxHead, maxSize), pos) <= 0)
+            maxSize--;
+        maxQueue[(maxHead + maxSize) % capacity] = seq;
+        maxSize++;
+    }
+
+    /** Position of the last element in the queue */
+    private int position(long[] queue, int head, int size) {
+        return (int) (queue[(head + size - 1) % capacity] % capacity);
+    }
+
+    int minPosition() {
+        return (int) (minQueue[minHead] % capacity);
+    }
+
+    int maxPosition() {
+        return (int) (maxQueue[maxHead] % capacity);
+    }
+
+    void clear() {
+        minHead = minSize = maxHead = maxSize = 0;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.util;
+
+import id.xfunction.Preconditions;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * State of the rolling window which does not depend on the primitive type of its values: position
+ * of the next value inside the circular buffer, number of values, running sums for average and
+ * variance, positions of minimum and maximum values. It also selects percentiles from the copy of
+ * the window.
+ *
+ * <p>Values itself are stored by the window in its own array so this class works only with their
+ * positions and with the values converted to double relative to the first value of the window
+ * (shift). This allows to share it between windows of different primitive types without boxing.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+class RollingWindowStats {
+    private int capacity;
+    private RollingMinMax minMax;
+    private int size;
+    private long count;
+    private CompensatedSum sum = new CompensatedSum();
+    private CompensatedSum sumOfSquares = new CompensatedSum();
+
+    /**
+     * @param comparator compares values at two given positions of the window buffer
+     */
+    RollingWindowStats(int capacity, IntBinaryOperator comparator) {
+        Preconditions.isTrue(capacity > 0, "Capacity should be positive");
+        this.capacity = capacity;
+        minMax = new RollingMinMax(capacity, comparator);
+    }
+
+    /** Position in the window buffer where next value should be stored */
+    int nextPosition() {
+        return (int) (count % capacity);
+    }
+
+    /**
+     * Must be called before the value at {@link #nextPosition()} is overwritten when window is full
+     *
+     * @param shifted removed value minus the shift of the window
+     */
+    void remove(double shifted) {
+        sum.add(-shifted);
+        sumOfSquares.add(-shifted * shifted);
+    }
+
+    /**
+     * Must be called after the new value was stored at {@link #nextPosition()}
+     *
+     * @param shifted new value minus the shift of the window
+     */
+    void add(double shifted) {
+        if (size < capacity) size++;
+        sum.add(shifted);
+        sumOfSquares.add(shifted * shifted);
+        minMax.add(count);
+        count++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == capacity;
+    }
+
+    int minPosition() {
+        return minMax.minPosition();
+    }
+
+    int maxPosition() {
+        return minMax.maxPosition();
+    }
+
+    /** Sum of the values minus the shift */
+    double sum() {
+        return sum.get();
+    }
+
+    /** Average of the values minus the shift */
+    double avg() {
+        if (size == 0) return 0;
+        return sum.get() / size;
+    }
+
+    /** Population variance, it does not depend on the shift */
+    double variance() {
+        if (size == 0) return 0;
+        double s = sum.get();
+        return Math.max(0, (sumOfSquares.get() - s * s / size) / size);
+    }
+
+    void clear() {
+        size = 0;
+        count = 0;
+        sum.reset();
+        sumOfSquares.reset();
+        minMax.clear();
+    }
+
+    /** Index of the value with given percentile in the sorted window (nearest-rank method) */
+    int rank(double percentile) {
+        Preconditions.isTrue(
+                0 <= percentile && percentile <= 100, "Percentile should be between [0, 100]");
+        return Math.max(0, (int) Math.ceil(percentile / 100 * size) - 1);
+    }
+
+    /** Finds k-th smallest value among first n values (Hoare's selection) */
+    static int select(int[] a, int n, int k) {
+        int lo = 0, hi = n - 1;
+        while (lo < hi) {
+            int pivot = a[(lo + hi) >>> 1];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) i++;
+                while (a[j] > pivot) j--;
+                if (i <= j) {
+                    int t = a[i];
+                    a[i++] = a[j];
+                    a[j--] = t;
+                }
+            }
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else break;
+        }
+        return a[k];
+    }
+
+    /**
+     * @see #select(int[], int, int)
+     */
+    static long select(long[] a, int n, int k) {
+        int lo = 0, hi = n - 1;
+        while (lo < hi) {
+            long pivot = a[(lo + hi) >>> 1];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) i++;
+                while (a[j] > pivot) j--;
+                if (i <= j) {
+                    long t = a[i];
+                    a[i++] = a[j];
+                    a[j--] = t;
+                }
+            }
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else break;
+        }
+        return a[k];
+    }
+
+    /**
+     * @see #select(int[], int, int)
+     */
+    static double select(double[] a, int n, int k) {
+        int lo = 0, hi = n - 1;
+        while (lo < hi) {
+            double pivot = a[(lo + hi) >>> 1];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) i++;
+                while (a[j] > pivot) j--;
+                if (i <= j) {
+                    double t = a[i];
+                    a[i++] = a[j];
+                    a[j--] = t;
+                }
+            }
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else break;
+        }
+        return a[k];
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.util;
+
+import id.xfunction.Preconditions;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts events and their values which were recorded during last period of time (for example number
+ * of requests during last 60 seconds).
+ *
+ * <p>Period of time (window) is divided into the fixed number of buckets. Each bucket counts events
+ * which happen during its own part of the window. Once bucket becomes older than the window it is
+ * replaced with a new one.
+ *
+ * <ul>
+ *   <li>thread safe and lock free: events are counted with {@link LongAdder} so multiple threads
+ *       can record them with minimal contention
+ *   <li>there is no background thread: buckets are replaced lazily by the threads which record new
+ *       events, and buckets which are outside of the window are ignored during read
+ *   <li>precision of the window is equal to the duration of one bucket: at any moment the oldest
+ *       bucket may be only partially inside the window
+ * </ul>
+ *
+ * <h2>Examples</h2>
+ *
+ * <pre>{@code
+ * var requests = new SlidingWindowCounter(Duration.ofSeconds(60), 60);
+ * // on every request
+ * requests.record(latencyMillis);
+ * // requests per second and average latency during last 60 seconds
+ * System.out.println(requests.getRatePerSecond() + " " + requests.getMean());
+ * }</pre>
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class SlidingWindowCounter {
+
+    private static class Bucket {
+        private final long epoch;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    private AtomicReferenceArray<Bucket> buckets;
+    private long bucketNanos;
+    private long windowNanos;
+
+    /**
+     * @param window period of time during which events are counted
+     * @param numberOfBuckets how many parts window is divided to. More buckets means more precise
+     *     window.
+     */
+    public SlidingWindowCounter(Duration window, int numberOfBuckets) {
+        Preconditions.isTrue(numberOfBuckets > 0, "Number of buckets should be positive");
+        bucketNanos = window.toNanos() / numberOfBuckets;
+        Preconditions.isTrue(bucketNanos > 0, "Window is too small for given number of buckets");
+        windowNanos = bucketNanos * numberOfBuckets;
+        buckets = new AtomicReferenceArray<>(numberOfBuckets);
+    }
+
+    /** Same as {@link #record(long)} with value 1 */
+    public void increment() {
+        record(1);
+    }
+
+    /** Records new event with the given value */
+    public void record(long value) {
+        long epoch = Math.floorDiv(nanoTime(), bucketNanos);
+        int i = Math.floorMod(epoch, buckets.length());
+        var bucket = buckets.get(i);
+        while (bucket == null || bucket.epoch != epoch) {
+            if (bucket != null && bucket.epoch > epoch) {
+                // this thread was preempted for the whole window and its event is outdated
+                return;
+            }
+            // bucket is outdated and should be replaced, only one thread will succeed
+            var newBucket = new Bucket(epoch);
+            if (buckets.compareAndSet(i, bucket, newBucket)) bucket = newBucket;
+            else bucket = buckets.get(i);
+        }
+        bucket.count.increment();
+        bucket.sum.add(value);
+    }
+
+    /** Number of events recorded during the window */
+    public long getCount() {
+        long count = 0;
+        long epoch = Math.floorDiv(nanoTime(), bucketNanos);
+        for (int i = 0; i < buckets.length(); i++) {
+            var bucket = buckets.get(i);
+            if (isInsideWindow(bucket, epoch)) count += bucket.count.sum();
+        }
+        return count;
+    }
+
+    /** Sum of all values recorded during the window */
+    public long getSum() {
+        long sum = 0;
+        long epoch = Math.floorDiv(nanoTime(), bucketNanos);
+        for (int i = 0; i < buckets.length(); i++) {
+            var bucket = buckets.get(i);
+            if (isInsideWindow(bucket, epoch)) sum += bucket.sum.sum();
+        }
+        return sum;
+    }
+
+    /** Average value of the events recorded during the window or 0 if there were none */
+    public double getMean() {
+        long count = 0, sum = 0;
+        long epoch = Math.floorDiv(nanoTime(), bucketNanos);
+        for (int i = 0; i < buckets.length(); i++) {
+            var bucket = buckets.get(i);
+            if (!isInsideWindow(bucket, epoch)) continue;
+            count += bucket.count.sum();
+            sum += bucket.sum.sum();
+        }
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /** Average number of events per second during the window */
+    public double getRatePerSecond() {
+        return getCount() * 1_000_000_000.0 / windowNanos;
+    }
+
+    public Duration getWindow() {
+        return Duration.ofNanos(windowNanos);
+    }
+
+    private boolean isInsideWindow(Bucket bucket, long epoch) {
+        return bucket != null && bucket.epoch <= epoch && epoch - bucket.epoch < buckets.length();
+    }
+
+    /** Visible for testing */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public String toString() {
+        return "SlidingWindowCounter [window="
+                + getWindow()
+                + ", count="
+                + getCount()
+                + ", sum="
+                + getSum()
+                + "]";
+    }
+}
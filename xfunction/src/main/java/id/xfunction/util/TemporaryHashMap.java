@@ -17,6 +17,7 @@
  */
 package id.xfunction.util;
 
+import id.xfunction.Preconditions;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
@@ -24,6 +25,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ToLongBiFunction;
 
 /**
  * {@link HashMap} which caches every pair for specified period of time and when it expires such
@@ -32,25 +34,118 @@ import java.util.Set;
  * <p>The deletion of expired pairs is passive which means they may not be deleted immediately once
  * they are expired but only during next {@link #put(Object, Object)} or {@link #putAll(Map)}
  * operations. To change it to active users can setup {@link
- * java.util.concurrent.ScheduledExecutorService} to call {@link #cleanupExpired()}.
+ * java.util.concurrent.ScheduledExecutorService} to call {@link #cleanupExpired()}. Expired pairs
+ * are never returned by {@link #get(Object)} and {@link #containsKey(Object)} even if they were not
+ * deleted yet.
+ *
+ * <p>When pair expires is decided by {@link ExpirationPolicy}. By default it is {@link
+ * ExpirationPolicy#AFTER_WRITE}.
  *
  * <p>Keys are subject to expiration and not values associated with them. It means if user adds pair
  * "key1": "val1", and later replace value to "key1": "val2" this will not affect this pair
- * expiration time.
+ * expiration time (unless policy is {@link ExpirationPolicy#AFTER_ACCESS}).
+ *
+ * <p>Map can be bounded by maximum number of pairs or by their maximum total weight. When the bound
+ * is exceeded least recently accessed pairs are evicted ({@link #get(Object)} and {@link
+ * #put(Object, Object)} count as an access). Weight of each pair is calculated by the weigher
+ * provided by the user, it should return same weight for the same pair. Access order is tracked
+ * separately so iteration always follows the order in which pairs were added and reading the pairs
+ * while iterating over the map is safe.
+ *
+ * <p>All operations are O(1) except {@link #cleanupExpired()} which is O(number of expired pairs).
  *
  * <p>It is based on {@link HashMap} so all {@link HashMap} properties applies to {@link
  * TemporaryHashMap}.
  *
+ * <p>This map is not thread safe, see {@link ConcurrentTemporaryHashMap}.
+ *
  * @author lambdaprime intid@protonmail.com
  */
 public class TemporaryHashMap<K, V> implements Map<K, V> {
 
-    private Map<K, V> cache = new HashMap<K, V>();
-    private LinkedHashMap<K, Long> additionTimestamps = new LinkedHashMap<>();
+    /** Policies which decide when pair expires */
+    public static enum ExpirationPolicy {
+        /** Pair expires once the period passes since it was added */
+        AFTER_WRITE,
+
+        /**
+         * Pair expires once the period passes since it was accessed last time. Both {@link
+         * TemporaryHashMap#get(Object)} and {@link TemporaryHashMap#put(Object, Object)} count as
+         * an access.
+         */
+        AFTER_ACCESS
+    }
+
+    private LinkedHashMap<K, V> cache;
+
+    /** Ordered by the time when pair was added (or accessed when policy is AFTER_ACCESS) */
+    private LinkedHashMap<K, Long> timestamps = new LinkedHashMap<>();
+
     private long periodMillis;
+    private ExpirationPolicy policy;
+
+    // used only when map is bounded
+    private boolean isBounded;
+    private long maxWeight;
+    private ToLongBiFunction<? super K, ? super V> weigher;
+    private long totalWeight;
+
+    /**
+     * Ordered by the time when pair was accessed, used for LRU eviction. It is kept separately from
+     * the cache so that {@link #get(Object)} does not modify the cache while users iterate over it.
+     */
+    private LinkedHashMap<K, Boolean> accessOrder;
 
     public TemporaryHashMap(Duration period) {
+        this(period, ExpirationPolicy.AFTER_WRITE);
+    }
+
+    public TemporaryHashMap(Duration period, ExpirationPolicy policy) {
+        this(period, policy, Long.MAX_VALUE, (k, v) -> 1);
+    }
+
+    /**
+     * Creates map bounded by the number of pairs
+     *
+     * @param maxSize maximum number of pairs after which least recently accessed pairs are evicted
+     */
+    public TemporaryHashMap(Duration period, ExpirationPolicy policy, long maxSize) {
+        this(period, policy, maxSize, (k, v) -> 1);
+    }
+
+    /**
+     * Creates map bounded by the total weight of the pairs
+     *
+     * @param maxWeight maximum total weight of all pairs after which least recently accessed pairs
+     *     are evicted
+     * @param weigher calculates weight of the pair
+     */
+    public TemporaryHashMap(
+            Duration period,
+            ExpirationPolicy policy,
+            long maxWeight,
+            ToLongBiFunction<? super K, ? super V> weigher) {
+        Preconditions.notNull(policy, "Expiration policy is missing");
+        Preconditions.isTrue(maxWeight >= 0, "Negative max weight");
         periodMillis = period.toMillis();
+        this.policy = policy;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        isBounded = maxWeight != Long.MAX_VALUE;
+        cache = new LinkedHashMap<>();
+        if (isBounded) accessOrder = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public ExpirationPolicy getExpirationPolicy() {
+        return policy;
+    }
+
+    /**
+     * Total weight of all pairs in the map. When map is not bounded by weight it is equal to its
+     * size.
+     */
+    public long getWeight() {
+        return isBounded ? totalWeight : cache.size();
     }
 
     @Override
@@ -66,7 +161,9 @@ public class TemporaryHashMap<K, V> implements Map<K, V> {
     @Override
     public void clear() {
         cache.clear();
-        additionTimestamps.clear();
+        timestamps.clear();
+        if (isBounded) accessOrder.clear();
+        totalWeight = 0;
     }
 
     @Override
@@ -76,7 +173,7 @@ public class TemporaryHashMap<K, V> implements Map<K, V> {
 
     @Override
     public boolean containsKey(Object key) {
-        return cache.containsKey(key);
+        return cache.containsKey(key) && !isExpired(key, currentTimeMillis());
     }
 
     @Override
@@ -86,7 +183,17 @@ public class TemporaryHashMap<K, V> implements Map<K, V> {
 
     @Override
     public V get(Object key) {
-        return cache.get(key);
+        var value = cache.get(key);
+        if (value == null && !cache.containsKey(key)) return null;
+        var now = currentTimeMillis();
+        if (isExpired(key, now)) {
+            removeInternal(key);
+            return null;
+        }
+        if (policy == ExpirationPolicy.AFTER_ACCESS) touch(key, now);
+        // moves the pair to the end of access ordered map
+        if (isBounded) accessOrder.get(key);
+        return value;
     }
 
     @Override
@@ -97,9 +204,18 @@ public class TemporaryHashMap<K, V> implements Map<K, V> {
     }
 
     private V putInternal(K key, V value) {
+        var isNew = !cache.containsKey(key);
         var prev = cache.put(key, value);
-        if (prev == null) {
-            additionTimestamps.put(key, currentTimeMillis());
+        if (isNew) {
+            timestamps.put(key, currentTimeMillis());
+        } else if (policy == ExpirationPolicy.AFTER_ACCESS) {
+            touch(key, currentTimeMillis());
+        }
+        if (isBounded) {
+            accessOrder.put(key, true);
+            totalWeight += weigher.applyAsLong(key, value);
+            if (!isNew) totalWeight -= weigher.applyAsLong(key, prev);
+            evict();
         }
         return prev;
     }
@@ -132,8 +248,7 @@ public class TemporaryHashMap<K, V> implements Map<K, V> {
 
     @Override
     public V remove(Object key) {
-        additionTimestamps.remove(key);
-        return cache.remove(key);
+        return removeInternal(key);
     }
 
     /** Removes expired pairs */
@@ -142,12 +257,13 @@ public class TemporaryHashMap<K, V> implements Map<K, V> {
             clear();
             return;
         }
-        var iter = additionTimestamps.entrySet().iterator();
+        var expirationTime = currentTimeMillis() - periodMillis;
+        var iter = timestamps.entrySet().iterator();
         while (iter.hasNext()) {
             var e = iter.next();
-            if (e.getValue() >= currentTimeMillis() - periodMillis) break;
+            if (e.getValue() >= expirationTime) break;
             iter.remove();
-            cache.remove(e.getKey());
+            removeFromCache(e.getKey());
         }
     }
 
@@ -155,4 +271,42 @@ public class TemporaryHashMap<K, V> implements Map<K, V> {
     protected long currentTimeMillis() {
         return System.currentTimeMillis();
     }
+
+    private boolean isExpired(Object key, long now) {
+        var timestamp = timestamps.get(key);
+        return timestamp != null && timestamp < now - periodMillis;
+    }
+
+    /** Moves the pair to the end of the timestamps order */
+    @SuppressWarnings("unchecked")
+    private void touch(Object key, long now) {
+        timestamps.remove(key);
+        timestamps.put((K) key, now);
+    }
+
+    /** Evicts least recently accessed pairs until total weight is within the bound */
+    private void evict() {
+        var iter = accessOrder.keySet().iterator();
+        while (totalWeight > maxWeight && iter.hasNext()) {
+            var key = iter.next();
+            iter.remove();
+            timestamps.remove(key);
+            totalWeight -= weigher.applyAsLong(key, cache.remove(key));
+        }
+    }
+
+    private V removeInternal(Object key) {
+        timestamps.remove(key);
+        return removeFromCache(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeFromCache(Object key) {
+        if (!isBounded) return cache.remove(key);
+        if (!cache.containsKey(key)) return null;
+        accessOrder.remove(key);
+        var value = cache.remove(key);
+        totalWeight -= weigher.applyAsLong((K) key, value);
+        return value;
+    }
 }
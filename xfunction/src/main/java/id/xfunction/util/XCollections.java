@@ -17,7 +17,10 @@
  */
 package id.xfunction.util;
 
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
@@ -26,30 +29,281 @@ import java.util.stream.IntStream;
 /**
  * Additions to standard {@link java.util.Collections}
  *
+ * <p>Join operations report matches as pairs of indices [indexA, indexB] through {@link
+ * IntPairConsumer} so that no boxing happens on the hot path. Hash joins work in O(a + b) time and
+ * build their index over the smaller of the two lists. Sort-merge joins work in O(a log a + b log
+ * b) time and are suitable when elements have natural order but poor hash codes or when inputs are
+ * already sorted (in which case sorting takes linear time).
+ *
  * @author lambdaprime intid@protonmail.com
  */
 public class XCollections {
 
+    /** Consumer of index pairs produced by join operations */
+    @FunctionalInterface
+    public static interface IntPairConsumer {
+        void accept(int indexA, int indexB);
+    }
+
     /** Check if two sets share one or more similar elements */
     public static <T> boolean hasIntersection(Set<T> s1, Set<T> s2) {
-        return s1.stream().filter(v -> s2.contains(v)).findFirst().isPresent();
+        Set<T> small = s1, large = s2;
+        if (small.size() > large.size()) {
+            small = s2;
+            large = s1;
+        }
+        for (var v : small) {
+            if (large.contains(v)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Elements which are present in both sets.
+     *
+     * <p>Iterates over the smaller set and looks up its elements in the larger one.
+     */
+    public static <T> Set<T> intersection(Set<T> s1, Set<T> s2) {
+        Set<T> small = s1, large = s2;
+        if (small.size() > large.size()) {
+            small = s2;
+            large = s1;
+        }
+        var out = new HashSet<T>(capacityFor(small.size()));
+        for (var v : small) {
+            if (large.contains(v)) out.add(v);
+        }
+        return out;
+    }
+
+    /**
+     * Elements of s1 which are not present in s2.
+     *
+     * <p>When s2 is smaller than s1 its elements are removed from the copy of s1, otherwise s1 is
+     * filtered by looking up its elements in s2.
+     */
+    public static <T> Set<T> difference(Set<T> s1, Set<T> s2) {
+        if (s2.size() < s1.size()) {
+            var out = new HashSet<T>(s1);
+            for (var v : s2) out.remove(v);
+            return out;
+        }
+        var out = new HashSet<T>(capacityFor(s1.size()));
+        for (var v : s1) {
+            if (!s2.contains(v)) out.add(v);
+        }
+        return out;
+    }
+
+    /**
+     * Parallel version of {@link #intersection(Set, Set)} which runs in {@link
+     * java.util.concurrent.ForkJoinPool#commonPool()}.
+     *
+     * <p>Both sets should support concurrent reads.
+     */
+    public static <T> Set<T> parallelIntersection(Set<T> s1, Set<T> s2) {
+        Set<T> small = s1, large = s2;
+        if (small.size() > large.size()) {
+            small = s2;
+            large = s1;
+        }
+        return small.parallelStream().filter(large::contains).collect(Collectors.toSet());
+    }
+
+    /**
+     * Parallel version of {@link #difference(Set, Set)} which runs in {@link
+     * java.util.concurrent.ForkJoinPool#commonPool()}.
+     *
+     * <p>Both sets should support concurrent reads.
+     */
+    public static <T> Set<T> parallelDifference(Set<T> s1, Set<T> s2) {
+        return s1.parallelStream().filter(v -> !s2.contains(v)).collect(Collectors.toSet());
     }
 
     /**
      * Find equal pairs between two {@link List} "a" and "b" and consume them as pair of [indexA,
      * indexB] for which Objects.equals(a[indexA], b[indexB]) is true.
+     *
+     * <p>If same element occurs in the lists several times then all pairs for it are consumed.
+     *
+     * @see #hashJoin(List, List, IntPairConsumer)
      */
     public static <T> void findEqualPairs(
             List<T> a, List<T> b, BiConsumer<Integer, Integer> pairConsumer) {
-        var map =
-                IntStream.range(0, a.size())
-                        .boxed()
-                        .collect(Collectors.toMap(i -> a.get(i), i -> i));
-        IntStream.range(0, b.size())
-                .forEach(
-                        i2 -> {
-                            var i1 = map.get(b.get(i2));
-                            if (i1 != null) pairConsumer.accept(i1, i2);
-                        });
+        hashJoin(a, b, pairConsumer::accept);
+    }
+
+    /**
+     * Hash join of two lists. For every pair [indexA, indexB] for which Objects.equals(a[indexA],
+     * b[indexB]) is true the consumer is called. The order in which pairs are consumed is not
+     * specified.
+     */
+    public static <T> void hashJoin(List<T> a, List<T> b, IntPairConsumer pairConsumer) {
+        var arrayA = a.toArray();
+        var arrayB = b.toArray();
+        if (arrayA.length <= arrayB.length) {
+            var index = new HashIndex(arrayA);
+            for (int i = 0; i < arrayB.length; i++) index.probe(arrayB[i], i, false, pairConsumer);
+        } else {
+            var index = new HashIndex(arrayB);
+            for (int i = 0; i < arrayA.length; i++) index.probe(arrayA[i], i, true, pairConsumer);
+        }
+    }
+
+    /**
+     * Parallel version of {@link #hashJoin(List, List, IntPairConsumer)}. Index is built
+     * sequentially and then it is probed in parallel in {@link
+     * java.util.concurrent.ForkJoinPool#commonPool()}.
+     *
+     * @param pairConsumer must be thread safe
+     */
+    public static <T> void parallelHashJoin(List<T> a, List<T> b, IntPairConsumer pairConsumer) {
+        var arrayA = a.toArray();
+        var arrayB = b.toArray();
+        var swap = arrayA.length > arrayB.length;
+        var index = new HashIndex(swap ? arrayB : arrayA);
+        var probe = swap ? arrayA : arrayB;
+        IntStream.range(0, probe.length)
+                .parallel()
+                .forEach(i -> index.probe(probe[i], i, swap, pairConsumer));
+    }
+
+    /**
+     * Sort-merge join of two lists using their natural order.
+     *
+     * @see #sortMergeJoin(List, List, Comparator, IntPairConsumer)
+     */
+    public static <T extends Comparable<? super T>> void sortMergeJoin(
+            List<T> a, List<T> b, IntPairConsumer pairConsumer) {
+        sortMergeJoin(a, b, Comparator.naturalOrder(), pairConsumer);
+    }
+
+    /**
+     * Sort-merge join of two lists. For every pair [indexA, indexB] for which a[indexA] and
+     * b[indexB] are equal according to the comparator the consumer is called.
+     *
+     * <p>Lists are not modified. Pairs are consumed in ascending order of elements and then in
+     * ascending order of indexA and indexB.
+     */
+    public static <T> void sortMergeJoin(
+            List<T> a, List<T> b, Comparator<? super T> comparator, IntPairConsumer pairConsumer) {
+        @SuppressWarnings("unchecked")
+        var arrayA = (T[]) a.toArray();
+        @SuppressWarnings("unchecked")
+        var arrayB = (T[]) b.toArray();
+        var orderA = sortedIndices(arrayA, comparator);
+        var orderB = sortedIndices(arrayB, comparator);
+        int i = 0, j = 0;
+        while (i < orderA.length && j < orderB.length) {
+            var va = arrayA[orderA[i]];
+            int c = comparator.compare(va, arrayB[orderB[j]]);
+            if (c < 0) {
+                i++;
+            } else if (c > 0) {
+                j++;
+            } else {
+                int endA = i + 1;
+                while (endA < orderA.length && comparator.compare(va, arrayA[orderA[endA]]) == 0)
+                    endA++;
+                int endB = j + 1;
+                while (endB < orderB.length && comparator.compare(va, arrayB[orderB[endB]]) == 0)
+                    endB++;
+                for (int x = i; x < endA; x++) {
+                    for (int y = j; y < endB; y++) pairConsumer.accept(orderA[x], orderB[y]);
+                }
+                i = endA;
+                j = endB;
+            }
+        }
+    }
+
+    /**
+     * Stable merge sort of element indices. Already sorted ranges are detected and not merged so
+     * sorted input takes linear time.
+     */
+    private static <T> int[] sortedIndices(T[] array, Comparator<? super T> comparator) {
+        var indices = new int[array.length];
+        for (int i = 0; i < indices.length; i++) indices[i] = i;
+        if (indices.length > 1) {
+            mergeSort(array, comparator, indices, indices.clone(), 0, indices.length);
+        }
+        return indices;
+    }
+
+    /** Sorts src[from, to) into dst[from, to) where both initially contain same indices */
+    private static <T> void mergeSort(
+            T[] array, Comparator<? super T> comparator, int[] dst, int[] src, int from, int to) {
+        int length = to - from;
+        if (length < 16) {
+            for (int i = from + 1; i < to; i++) {
+                int v = dst[i];
+                int k = i - 1;
+                while (k >= from && comparator.compare(array[dst[k]], array[v]) > 0) {
+                    dst[k + 1] = dst[k];
+                    k--;
+                }
+                dst[k + 1] = v;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(array, comparator, src, dst, from, mid);
+        mergeSort(array, comparator, src, dst, mid, to);
+        if (comparator.compare(array[src[mid - 1]], array[src[mid]]) <= 0) {
+            System.arraycopy(src, from, dst, from, length);
+            return;
+        }
+        for (int i = from, p = from, q = mid; i < to; i++) {
+            if (q >= to || p < mid && comparator.compare(array[src[p]], array[src[q]]) <= 0)
+                dst[i] = src[p++];
+            else dst[i] = src[q++];
+        }
+    }
+
+    private static int capacityFor(int size) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) size * 4 / 3 + 1);
+    }
+
+    /**
+     * Read-only hash index over an array. Elements are chained by bucket in ascending order of
+     * their positions, the chains are stored in primitive arrays.
+     */
+    private static class HashIndex {
+        private final Object[] elements;
+        private final int[] hashes;
+        private final int[] heads;
+        private final int[] next;
+        private final int mask;
+
+        HashIndex(Object[] elements) {
+            this.elements = elements;
+            int n = elements.length;
+            int capacity = Integer.highestOneBit(Math.max(1, n) * 2 - 1) << 1;
+            heads = new int[capacity];
+            hashes = new int[n];
+            next = new int[n];
+            mask = capacity - 1;
+            for (int i = n - 1; i >= 0; i--) {
+                int h = hash(elements[i]);
+                int bucket = h & mask;
+                hashes[i] = h;
+                next[i] = heads[bucket] - 1;
+                heads[bucket] = i + 1;
+            }
+        }
+
+        void probe(Object value, int position, boolean swap, IntPairConsumer consumer) {
+            int h = hash(value);
+            for (int k = heads[h & mask] - 1; k >= 0; k = next[k]) {
+                if (hashes[k] != h || !Objects.equals(elements[k], value)) continue;
+                if (swap) consumer.accept(position, k);
+                else consumer.accept(k, position);
+            }
+        }
+
+        private static int hash(Object value) {
+            int h = Objects.hashCode(value) * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
     }
 }
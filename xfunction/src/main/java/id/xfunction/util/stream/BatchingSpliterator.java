@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.util.stream;
+
+import id.xfunction.Preconditions;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * {@link Spliterator} which makes sequential sources (like {@link Iterator}) suitable for parallel
+ * streams.
+ *
+ * <p>Each split pulls next batch of elements from the source into an array and returns it as a
+ * separate, fully splittable, {@link Spliterator}. Batches grow arithmetically: first batch
+ * contains batchSize elements, second 2 * batchSize and so on until maxBatchSize is reached. This
+ * is the same strategy as {@link Spliterators#spliteratorUnknownSize(Iterator, int)} uses except
+ * that batch sizes can be tuned: small batches help when processing of each element is expensive,
+ * large batches reduce the overhead when it is cheap.
+ *
+ * <p>Source should not be used once it is wrapped.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class BatchingSpliterator<T> implements Spliterator<T> {
+
+    public static final int DEFAULT_BATCH_SIZE = 1 << 10;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 1 << 25;
+
+    private static final int SPLIT_CHARACTERISTICS = ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+
+    private final Spliterator<T> source;
+    private final int batchSize;
+    private final int maxBatchSize;
+    private int batch;
+
+    /**
+     * @param source tryAdvance of source is used to obtain elements, its trySplit is never called
+     */
+    public BatchingSpliterator(Spliterator<T> source) {
+        this(source, DEFAULT_BATCH_SIZE, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * @param source tryAdvance of source is used to obtain elements, its trySplit is never called
+     * @param batchSize size of the first batch and the increment for all subsequent batches
+     * @param maxBatchSize limit for the batch size
+     */
+    public BatchingSpliterator(Spliterator<T> source, int batchSize, int maxBatchSize) {
+        Preconditions.isTrue(batchSize > 0, "Batch size must be positive");
+        Preconditions.isTrue(maxBatchSize >= batchSize, "Max batch size is less than batch size");
+        this.source = source;
+        this.batchSize = batchSize;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * @param characteristics characteristics of elements returned by the iterator, {@link
+     *     Spliterator#ORDERED} is commonly used
+     */
+    public BatchingSpliterator(
+            Iterator<T> iterator, int characteristics, int batchSize, int maxBatchSize) {
+        this(
+                Spliterators.spliteratorUnknownSize(iterator, characteristics),
+                batchSize,
+                maxBatchSize);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        return source.tryAdvance(action);
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        source.forEachRemaining(action);
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        long size = source.estimateSize();
+        if (size <= 1) return null;
+        int n = (int) Math.min(Math.min((long) batch + batchSize, maxBatchSize), size);
+        var holder = new Holder<T>();
+        if (!source.tryAdvance(holder)) return null;
+        var array = new Object[n];
+        int i = 0;
+        do {
+            array[i] = holder.value;
+        } while (++i < n && source.tryAdvance(holder));
+        batch = i;
+        return Spliterators.spliterator(array, 0, i, characteristics() & SPLIT_CHARACTERISTICS);
+    }
+
+    @Override
+    public long estimateSize() {
+        return source.estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+        return source.characteristics() & ~(SUBSIZED | SORTED);
+    }
+
+    private static class Holder<T> implements Consumer<T> {
+        T value;
+
+        @Override
+        public void accept(T value) {
+            this.value = value;
+        }
+    }
+}
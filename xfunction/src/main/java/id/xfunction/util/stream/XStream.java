@@ -17,14 +17,17 @@
  */
 package id.xfunction.util.stream;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import id.xfunction.Preconditions;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.Random;
+import java.util.List;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -40,32 +43,192 @@ public class XStream {
      *
      * @param length strings length
      * @return infinite stream
+     * @see RandomTextGenerator
      */
     public static Stream<String> infiniteRandomStream(int length) {
-        InputStream in =
-                new InputStream() {
-                    Random rand = new Random();
-                    char[] buf = new char[length];
-                    int i = length;
+        return new RandomTextGenerator(
+                        new SplittableRandom().nextLong(),
+                        "abcdefghijklmnopqrstuvwxy",
+                        RandomTextGenerator.LineLength.fixed(length - 1))
+                .lines();
+    }
+
+    /** Create non parallel, ordered stream from given {@link Iterator} */
+    public static <T> Stream<T> of(Iterator<T> iterator) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Create non parallel, ordered stream from given {@link Iterator} which can be efficiently
+     * processed in parallel after {@link Stream#parallel()} is called.
+     *
+     * @param batchSize number of elements which are pulled from the iterator on first split, each
+     *     next split pulls batchSize elements more
+     * @see BatchingSpliterator
+     */
+    public static <T> Stream<T> of(Iterator<T> iterator, int batchSize) {
+        return StreamSupport.stream(
+                new BatchingSpliterator<>(
+                        iterator,
+                        Spliterator.ORDERED,
+                        batchSize,
+                        Math.max(batchSize, BatchingSpliterator.DEFAULT_MAX_BATCH_SIZE)),
+                false);
+    }
+
+    /**
+     * Split stream into consecutive chunks of given size. Last chunk may contain less elements.
+     *
+     * <p>Chunks are fixed-size lists backed by arrays. Elements are collected into chunks
+     * sequentially but chunks themselves can be processed in parallel if the stream is parallel.
+     *
+     * <p>Example: chunked([1, 2, 3, 4, 5], 2) = [[1, 2], [3, 4], [5]]
+     */
+    public static <T> Stream<List<T>> chunked(Stream<T> stream, int size) {
+        return windowed(stream, size, size, true);
+    }
+
+    /**
+     * Split stream of primitive integers into consecutive chunks of given size. Last chunk may
+     * contain less elements.
+     *
+     * @see #chunked(Stream, int)
+     */
+    public static Stream<int[]> chunked(IntStream stream, int size) {
+        Preconditions.isTrue(size > 0, "Chunk size must be positive");
+        var source = stream.spliterator();
+        var chunks =
+                new Spliterators.AbstractSpliterator<int[]>(
+                        estimateChunks(source.estimateSize(), size, size, true),
+                        source.characteristics() & Spliterator.ORDERED | Spliterator.NONNULL) {
+                    int[] chunk;
+                    int count;
+                    IntConsumer collector = v -> chunk[count++] = v;
+
+                    @Override
+                    public boolean tryAdvance(Consumer<? super int[]> action) {
+                        chunk = new int[size];
+                        count = 0;
+                        while (count < size && source.tryAdvance(collector))
+                            ;
+                        if (count == 0) return false;
+                        action.accept(count == size ? chunk : Arrays.copyOf(chunk, count));
+                        return true;
+                    }
+                };
+        return StreamSupport.stream(new BatchingSpliterator<>(chunks), stream.isParallel())
+                .onClose(stream::close);
+    }
+
+    /**
+     * Sliding window over the stream elements. Each window contains given number of elements and
+     * starts step elements after the previous one. Windows overlap when step is less than size and
+     * skip elements when it is greater. Trailing elements which do not fill the whole window are
+     * dropped.
+     *
+     * <p>Windows are fixed-size lists backed by arrays. Elements are read sequentially but windows
+     * themselves can be processed in parallel if the stream is parallel.
+     *
+     * <p>Example: windowed([1, 2, 3, 4, 5], 3, 1) = [[1, 2, 3], [2, 3, 4], [3, 4, 5]]
+     */
+    public static <T> Stream<List<T>> windowed(Stream<T> stream, int size, int step) {
+        return windowed(stream, size, step, false);
+    }
+
+    private static <T> Stream<List<T>> windowed(
+            Stream<T> stream, int size, int step, boolean partial) {
+        Preconditions.isTrue(size > 0, "Window size must be positive");
+        Preconditions.isTrue(step > 0, "Window step must be positive");
+        var source = stream.spliterator();
+        var windows =
+                new Spliterators.AbstractSpliterator<List<T>>(
+                        estimateChunks(source.estimateSize(), size, step, partial),
+                        source.characteristics() & Spliterator.ORDERED | Spliterator.NONNULL) {
+                    Object[] window;
+                    int count;
+                    Consumer<T> collector = v -> window[count++] = v;
+                    Consumer<T> skipper = v -> {};
 
                     @Override
-                    public int read() throws IOException {
-                        if (i == buf.length) {
-                            for (int i = 0; i < buf.length - 1; i++) {
-                                buf[i] = (char) ('a' + rand.nextInt('z' - 'a'));
+                    public boolean tryAdvance(Consumer<? super List<T>> action) {
+                        var prev = window;
+                        window = new Object[size];
+                        count = 0;
+                        if (prev != null) {
+                            if (step < size) {
+                                count = size - step;
+                                System.arraycopy(prev, step, window, 0, count);
+                            } else {
+                                for (int i = size; i < step; i++) {
+                                    if (!source.tryAdvance(skipper)) return false;
+                                }
                             }
-                            buf[length - 1] = '\n';
-                            i = 0;
                         }
-                        return buf[i++];
+                        int start = count;
+                        while (count < size && source.tryAdvance(collector))
+                            ;
+                        if (count == size) {
+                            action.accept(asList(window));
+                            return true;
+                        }
+                        if (!partial || count == start) return false;
+                        action.accept(asList(Arrays.copyOf(window, count)));
+                        return true;
                     }
                 };
-        return new BufferedReader(new InputStreamReader(in)).lines();
+        return StreamSupport.stream(new BatchingSpliterator<>(windows), stream.isParallel())
+                .onClose(stream::close);
     }
 
-    /** Create non parallel, ordered stream from given {@link Iterator} */
-    public static <T> Stream<T> of(Iterator<T> iterator) {
-        return StreamSupport.stream(
-                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    /**
+     * Combine elements of two streams pairwise using zipper function. Resulting stream ends when
+     * any of the streams ends.
+     *
+     * <p>Elements are read sequentially but results of zipper function can be processed in parallel
+     * if stream "a" is parallel.
+     */
+    public static <A, B, R> Stream<R> zip(
+            Stream<A> a, Stream<B> b, BiFunction<? super A, ? super B, ? extends R> zipper) {
+        var sourceA = a.spliterator();
+        var sourceB = b.spliterator();
+        var characteristics =
+                sourceA.characteristics() & sourceB.characteristics() & Spliterator.ORDERED;
+        var zipped =
+                new Spliterators.AbstractSpliterator<R>(
+                        Math.min(sourceA.estimateSize(), sourceB.estimateSize()), characteristics) {
+                    A valueA;
+                    B valueB;
+                    Consumer<A> holderA = v -> valueA = v;
+                    Consumer<B> holderB = v -> valueB = v;
+
+                    @Override
+                    public boolean tryAdvance(Consumer<? super R> action) {
+                        if (!sourceA.tryAdvance(holderA) || !sourceB.tryAdvance(holderB))
+                            return false;
+                        action.accept(zipper.apply(valueA, valueB));
+                        return true;
+                    }
+                };
+        return StreamSupport.stream(new BatchingSpliterator<>(zipped), a.isParallel())
+                .onClose(
+                        () -> {
+                            try {
+                                a.close();
+                            } finally {
+                                b.close();
+                            }
+                        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> asList(Object[] array) {
+        return (List<T>) Arrays.asList(array);
+    }
+
+    private static long estimateChunks(long size, int chunkSize, int step, boolean partial) {
+        if (size == Long.MAX_VALUE) return size;
+        if (size < chunkSize) return partial && size > 0 ? 1 : 0;
+        return (size - chunkSize) / step + 1 + (partial && (size - chunkSize) % step != 0 ? 1 : 0);
     }
 }
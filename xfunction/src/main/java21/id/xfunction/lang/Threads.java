@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 lambdaprime
+ * 
+ * Website: https://github.com/lambdaprime/xfunction
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package id.xfunction.lang;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Java 21 version of {@link Threads} which creates virtual threads when {@link
+ * XThread#VIRTUAL_THREADS_PROPERTY} is set to true.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+class Threads {
+
+    private static final boolean IS_VIRTUAL = Boolean.getBoolean(XThread.VIRTUAL_THREADS_PROPERTY);
+
+    /**
+     * Starts virtual thread per task and lets only limited number of them to run concurrently. Same
+     * as with fixed thread pool, tasks which exceed the limit wait (as parked virtual threads) and
+     * submitter never blocks.
+     */
+    private static class BoundedVirtualThreadExecutor extends AbstractExecutorService {
+        private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        private final Semaphore semaphore;
+
+        /** Tasks which wait for the permit and did not start yet */
+        private final Set<PermitTask> waiting = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Task which runs only after it gets the permit. Either the task itself or {@link
+         * #shutdownNow()} claims it, so it is either run or returned to the caller.
+         */
+        private class PermitTask extends AtomicBoolean implements Runnable {
+            private static final long serialVersionUID = 1L;
+            private final Runnable command;
+
+            PermitTask(Runnable command) {
+                this.command = command;
+            }
+
+            @Override
+            public void run() {
+                try {
+                    semaphore.acquire();
+                } catch (InterruptedException e) {
+                    // executor is shutting down now, shutdownNow returns the command
+                    return;
+                }
+                try {
+                    if (!compareAndSet(false, true)) return;
+                    waiting.remove(this);
+                    command.run();
+                } finally {
+                    semaphore.release();
+                }
+            }
+        }
+
+        BoundedVirtualThreadExecutor(int permits) {
+            semaphore = new Semaphore(permits, true);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            var task = new PermitTask(command);
+            waiting.add(task);
+            try {
+                executor.execute(task);
+            } catch (RuntimeException e) {
+                waiting.remove(task);
+                throw e;
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+
+        /** Returns the commands which did not start yet */
+        @Override
+        public List<Runnable> shutdownNow() {
+            executor.shutdown();
+            var pending = new ArrayList<Runnable>();
+            for (var task : waiting) {
+                if (task.compareAndSet(false, true)) pending.add(task.command);
+            }
+            waiting.clear();
+            executor.shutdownNow();
+            return pending;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return executor.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+
+    static boolean isVirtual() {
+        return IS_VIRTUAL;
+    }
+
+    static Thread newThread(Runnable task, String name) {
+        if (!IS_VIRTUAL) return name == null ? new Thread(task) : new Thread(task, name);
+        var builder = Thread.ofVirtual();
+        if (name != null) builder.name(name);
+        return builder.unstarted(task);
+    }
+
+    static ExecutorService newFixedThreadPool(int nThreads) {
+        if (!IS_VIRTUAL) return Executors.newFixedThreadPool(nThreads);
+        return new BoundedVirtualThreadExecutor(nThreads);
+    }
+}